@@ -90,7 +90,7 @@ public class AdminController {
     @GetMapping("/snapshot/employees")
     public ResponseEntity<ApiResponse<Map<String,Object>>> snapshotEmployees() {
         try {
-            List<Employee> list = employeeRepository.findAll().stream()
+            List<Employee> list = employeeRepository.findAllWithSkills().stream()
                     .sorted(Comparator.comparing(Employee::getId))
                     .toList();
             List<Map<String,Object>> items = new ArrayList<>();
@@ -4,12 +4,13 @@ import com.example.shiftv1.breaks.BreakPeriod;
 import com.example.shiftv1.breaks.BreakPeriodRepository;
 import com.example.shiftv1.demand.DemandAggregationService;
 import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.schedule.ScheduleVersions;
 import com.example.shiftv1.schedule.ShiftAssignment;
 import com.example.shiftv1.schedule.ShiftAssignmentRepository;
+import com.example.shiftv1.schedule.SingleFlight;
 import com.example.shiftv1.skill.Skill;
 import com.example.shiftv1.skill.SkillRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -28,18 +29,21 @@ public class DemandSupplyAnalyticsService {
     private final ShiftAssignmentRepository assignmentRepository;
     private final BreakPeriodRepository breakRepository;
     private final SkillRepository skillRepository;
+    private final SingleFlight singleFlight;
 
     public DemandSupplyAnalyticsService(DemandAggregationService demandAggregationService,
                                         ShiftAssignmentRepository assignmentRepository,
                                         BreakPeriodRepository breakRepository,
-                                        SkillRepository skillRepository) {
+                                        SkillRepository skillRepository,
+                                        SingleFlight singleFlight) {
         this.demandAggregationService = demandAggregationService;
         this.assignmentRepository = assignmentRepository;
         this.breakRepository = breakRepository;
         this.skillRepository = skillRepository;
+        this.singleFlight = singleFlight;
     }
 
-    @Transactional(readOnly = true)
+    /** Concurrent identical requests share one computation (see {@link SingleFlight}). */
     public DemandSupplySnapshot summarize(LocalDate start,
                                           LocalDate end,
                                           int granularityMinutes,
@@ -58,6 +62,20 @@ public class DemandSupplyAnalyticsService {
         int granularity = Math.max(5, granularityMinutes);
         Set<Long> filters = filterSkillIds == null ? Collections.emptySet() : filterSkillIds;
 
+        LocalDate from = resolvedStart;
+        LocalDate to = resolvedEnd;
+        // Supply counts employee skills; demand reads intervals, holidays and skill names
+        Set<String> scopes = new TreeSet<>(ScheduleVersions.scopes(from, to));
+        scopes.add(ScheduleVersions.EMPLOYEES);
+        scopes.add(ScheduleVersions.DEMAND);
+        String params = from + ":" + to + ":" + granularity + ":" + new TreeSet<>(filters);
+        return singleFlight.get("demand-supply", params, scopes, () -> compute(from, to, granularity, filters));
+    }
+
+    private DemandSupplySnapshot compute(LocalDate resolvedStart,
+                                         LocalDate resolvedEnd,
+                                         int granularity,
+                                         Set<Long> filters) {
         DemandAggregationService.AggregationResult demand = demandAggregationService.aggregate(
                 resolvedStart, resolvedEnd, granularity, filters);
 
@@ -354,7 +372,7 @@ public class DemandSupplyAnalyticsService {
     }
 
     private SkillLookup loadSkillLookup() {
-        List<Skill> skills = skillRepository.findAll();
+        List<Skill> skills = skillRepository.findAllCached();
         return new SkillLookup(skills);
     }
 
@@ -1,8 +1,11 @@
 package com.example.shiftv1.breaks;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -10,6 +13,7 @@ import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BreakPeriodRepository extends JpaRepository<BreakPeriod, Long> {
 
@@ -19,14 +23,33 @@ public interface BreakPeriodRepository extends JpaRepository<BreakPeriod, Long>
     @Query("SELECT b FROM BreakPeriod b WHERE b.assignment.workDate BETWEEN :start AND :end")
     List<BreakPeriod> findByAssignmentWorkDateBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
 
+    @Query("SELECT new com.example.shiftv1.breaks.BreakPeriodRow(b.id, a.id, b.type, b.startTime, b.endTime, b.autoGenerated) "
+            + "FROM BreakPeriod b JOIN b.assignment a WHERE a.workDate BETWEEN :start AND :end ORDER BY b.startTime")
+    List<BreakPeriodRow> findRowsByAssignmentWorkDateBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT new com.example.shiftv1.breaks.BreakPeriodRow(b.id, a.id, b.type, b.startTime, b.endTime, b.autoGenerated) "
+            + "FROM BreakPeriod b JOIN b.assignment a WHERE a.workDate BETWEEN :start AND :end AND a.employee.id IN :employeeIds "
+            + "ORDER BY b.startTime")
+    List<BreakPeriodRow> findRowsByAssignmentWorkDateBetweenForEmployees(@Param("start") LocalDate start,
+                                                                        @Param("end") LocalDate end,
+                                                                        @Param("employeeIds") Collection<Long> employeeIds);
+
+    /** Forward-only, in the assignment order of ShiftAssignmentRepository.streamRowsBetween. Close it. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.shiftv1.breaks.BreakPeriodRow(b.id, a.id, b.type, b.startTime, b.endTime, b.autoGenerated) "
+            + "FROM BreakPeriod b JOIN b.assignment a WHERE a.workDate BETWEEN :start AND :end "
+            + "ORDER BY a.workDate ASC, a.employee.id ASC, a.id ASC, b.startTime ASC")
+    Stream<BreakPeriodRow> streamRowsByAssignmentWorkDateBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
     @Modifying
     @Transactional
     void deleteByAssignment_WorkDateBetween(LocalDate startDate, LocalDate endDate);
 
-    @Modifying
+    /** Set-based: one DELETE statement, returns the number of rows removed. */
+    @Modifying(flushAutomatically = true)
     @Transactional
     @Query("DELETE FROM BreakPeriod b WHERE b.assignment.id IN (SELECT sa.id FROM ShiftAssignment sa WHERE sa.workDate BETWEEN :start AND :end)")
-    void deleteAllByAssignmentWorkDateBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+    int deleteAllByAssignmentWorkDateBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
 
     @Modifying
     @Transactional
@@ -0,0 +1,13 @@
+package com.example.shiftv1.breaks;
+
+import java.time.LocalTime;
+
+/** Read-only projection of a break with its assignment id; nothing is loaded into the persistence context. */
+public record BreakPeriodRow(
+        Long id,
+        Long assignmentId,
+        BreakPeriod.BreakType type,
+        LocalTime startTime,
+        LocalTime endTime,
+        Boolean autoGenerated) {
+}
@@ -0,0 +1,30 @@
+package com.example.shiftv1.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * バイナリ表現（CBOR, {@code application/cbor}）の設定。{@code Accept: application/cbor} を送ったクライアントにだけ CBOR で返し、
+ * それ以外（{@code *}{@code /*} を含む）は従来どおり JSON。double の系列を文字列に整形しないぶん、
+ * 需要/供給サマリーのような数値配列の多い応答の直列化が速い。
+ */
+@Configuration
+public class BinaryEncodingConfig {
+
+    /**
+     * Takes the place of the framework's default CBOR converter, which sits after the JSON one, so clients that
+     * accept anything still get JSON. Built from Boot's Jackson settings so dates match the JSON representation.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+    }
+
+    public static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory()).build();
+    }
+}
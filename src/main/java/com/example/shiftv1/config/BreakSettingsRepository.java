@@ -1,6 +1,15 @@
 package com.example.shiftv1.config;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface BreakSettingsRepository extends JpaRepository<BreakSettings, Long> {
+
+    /** The single settings row. Cached and shared: read-only, edit through findAll()/save(). */
+    @Cacheable(cacheNames = "break-settings", key = "'current'")
+    default Optional<BreakSettings> findCurrent() {
+        return findAll().stream().findFirst();
+    }
 }
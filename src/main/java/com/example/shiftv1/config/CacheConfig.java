@@ -1,35 +1,106 @@
 package com.example.shiftv1.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
 
+import javax.cache.Caching;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * キャッシュ設定。既定はサイズ上限・TTL 付きの Caffeine（キャッシュごとに {@code shift.cache.specs.<名前>} で指定）で、
+ * ヒット・ミス・追い出しの統計は actuator の {@code cache.*} メトリクスに出る。
+ * プロファイルで {@code spring.cache.type}（redis / jcache / simple / none など）を指定すれば、
+ * この Bean は作られず Spring Boot の自動構成が同じキャッシュ名（{@code spring.cache.cache-names}）で別のストアを用意する。
+ */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
     @Bean
-    @Profile("!prod")
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(java.util.Arrays.asList(
-                "monthly-schedules",
-                "employee-constraints",
-                "shift-change-requests",
-                "employees",
-                "users",
-                "schedule-statistics"
-        ));
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    public CacheManager cacheManager(CacheProperties cacheProperties, Environment environment) {
+        String defaultSpec = environment.getProperty("shift.cache.default-spec", "maximumSize=1000,expireAfterWrite=10m");
+        Map<String, String> specs = Binder.get(environment)
+                .bind("shift.cache.specs", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        Set<String> names = new LinkedHashSet<>(cacheProperties.getCacheNames());
+        names.addAll(specs.keySet());
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Fixed set of caches: an unknown name is a bug, not a new unbounded cache
+        cacheManager.setCacheNames(names);
+        for (String name : names) {
+            // Stats feed the cache.gets / cache.evictions meters bound by the actuator
+            cacheManager.registerCustomCache(name,
+                    Caffeine.from(specs.getOrDefault(name, defaultSpec)).recordStats().build());
+        }
         return cacheManager;
     }
 
-    // 本番環境用のRedisキャッシュ設定（必要に応じて実装）
-    // @Bean
-    // @Profile("prod")
-    // public CacheManager redisCacheManager() {
-    //     // Redis設定
-    // }
+    /**
+     * Hibernate の二次キャッシュ用 JCache マネージャをアプリケーションコンテキストごとに作る。
+     * プロバイダは設定 URI とクラスローダーの組ごとに1つのマネージャを返すため、同じ JVM のコンテキスト
+     * （テスト、並べて起動したノード）がリージョンを共有し、1つを閉じると全員のキャッシュが閉じてしまう。
+     */
+    @Bean
+    public HibernateCacheManager hibernateCacheManager() {
+        return new HibernateCacheManager();
+    }
+
+    static final class HibernateCacheManager implements HibernatePropertiesCustomizer, DisposableBean {
+        // The provider keeps one manager per class loader: a loader of our own gets a manager of our own.
+        // The manager only holds it weakly, so it lives here
+        private final ClassLoader managerClassLoader = new ClassLoader(CacheConfig.class.getClassLoader()) {
+        };
+        private javax.cache.CacheManager manager;
+
+        @Override
+        public void customize(Map<String, Object> properties) {
+            Object provider = properties.get(ConfigSettings.PROVIDER);
+            Object uri = properties.get(ConfigSettings.CONFIG_URI);
+            if (provider == null || uri == null || properties.containsKey(ConfigSettings.CACHE_MANAGER)) {
+                return;
+            }
+            ClassLoader classLoader = CacheConfig.class.getClassLoader();
+            manager = Caching.getCachingProvider(provider.toString(), classLoader)
+                    .getCacheManager(resolve(uri.toString(), classLoader), managerClassLoader);
+            properties.put(ConfigSettings.CACHE_MANAGER, manager);
+        }
+
+        // Same lookup as Hibernate's: a classpath resource if there is one, else the URI as given
+        private static URI resolve(String uri, ClassLoader classLoader) {
+            URL resource = classLoader.getResource(uri);
+            try {
+                return resource != null ? resource.toURI() : new URI(uri);
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException("Invalid " + ConfigSettings.CONFIG_URI + ": " + uri, e);
+            }
+        }
+
+        @Override
+        public void destroy() {
+            if (manager != null) {
+                manager.close();
+            }
+        }
+    }
 }
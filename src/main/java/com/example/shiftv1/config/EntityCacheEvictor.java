@@ -0,0 +1,158 @@
+package com.example.shiftv1.config;
+
+import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.employee.EmployeeRule;
+import com.example.shiftv1.holiday.Holiday;
+import com.example.shiftv1.skill.Skill;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * マスタ系エンティティ（従業員・スキル・勤務ルール・祝日・休憩設定）の書き込みを Hibernate のイベントで拾い、
+ * それを読み込んでいるキャッシュを消す。どの経路（リポジトリ・カスケード・コレクション変更）で書いても漏れない。
+ * トランザクション内では書き込み時点で一度消し、終了時（コミット・ロールバックどちらでも）にもう一度消して、
+ * その間に読み込まれた未確定の値を残さない。
+ */
+@Component
+public class EntityCacheEvictor implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    // Cached rules carry their employee and its skills
+    static final Map<String, List<String>> CACHES_BY_ENTITY = Map.of(
+            Employee.class.getName(), List.of("employee-rules"),
+            Skill.class.getName(), List.of("skills", "employee-rules"),
+            EmployeeRule.class.getName(), List.of("employee-rules"),
+            Holiday.class.getName(), List.of("holidays"),
+            BreakSettings.class.getName(), List.of("break-settings"));
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory, ObjectProvider<CacheManager> cacheManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = cacheManager;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        evictFor(event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        evictFor(event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        evictFor(event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        evictForOwner(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        evictForOwner(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        evictForOwner(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void evictForOwner(AbstractCollectionEvent event) {
+        evictFor(event.getAffectedOwnerEntityName());
+    }
+
+    private void evictFor(String entityName) {
+        List<String> names = CACHES_BY_ENTITY.get(entityName);
+        if (names == null) {
+            return;
+        }
+        invalidate(names);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // One synchronization per transaction, however many rows it writes
+        PendingEviction pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingEviction.class::isInstance)
+                .map(PendingEviction.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    PendingEviction created = new PendingEviction();
+                    TransactionSynchronizationManager.registerSynchronization(created);
+                    return created;
+                });
+        pending.names.addAll(names);
+    }
+
+    private void invalidate(Iterable<String> names) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        if (manager == null) {
+            return;
+        }
+        for (String name : names) {
+            Cache cache = manager.getCache(name);
+            if (cache != null) {
+                cache.invalidate();
+            }
+        }
+    }
+
+    private final class PendingEviction implements TransactionSynchronization {
+        private final Set<String> names = new LinkedHashSet<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            invalidate(names);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.shiftv1.config;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pairing-settings")
 @Table(name = "pairing_settings")
 public class PairingSettings {
 
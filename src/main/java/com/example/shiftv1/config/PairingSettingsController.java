@@ -1,5 +1,6 @@
 package com.example.shiftv1.config;
 
+import com.example.shiftv1.schedule.PairingModelCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -10,16 +11,20 @@ import org.springframework.web.bind.annotation.*;
 public class PairingSettingsController {
     private static final Logger log = LoggerFactory.getLogger(PairingSettingsController.class);
     private final PairingSettingsRepository repo;
+    private final PairingModelCache pairingModelCache;
 
-    public PairingSettingsController(PairingSettingsRepository repo) {
+    public PairingSettingsController(PairingSettingsRepository repo, PairingModelCache pairingModelCache) {
         this.repo = repo;
+        this.pairingModelCache = pairingModelCache;
     }
 
     @GetMapping
     public ResponseEntity<PairingSettings> get() {
         PairingSettings s = repo.findAll().stream().findFirst().orElseGet(() -> {
             PairingSettings def = new PairingSettings();
-            return repo.save(def);
+            PairingSettings saved = repo.save(def);
+            pairingModelCache.invalidate();
+            return saved;
         });
         return ResponseEntity.ok(s);
     }
@@ -37,6 +42,7 @@ public class PairingSettingsController {
             s.setStandaloneWindows(req.getStandaloneWindows());
             s.setSkillPairings(req.getSkillPairings());
             PairingSettings saved = repo.save(s);
+            pairingModelCache.invalidate();
             return ResponseEntity.ok(saved);
         } catch (Exception e) {
             log.error("Failed to update pairing settings", e);
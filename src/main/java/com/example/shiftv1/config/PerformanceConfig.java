@@ -1,20 +1,32 @@
 package com.example.shiftv1.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import javax.sql.DataSource;
 import java.util.concurrent.Executor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class PerformanceConfig {
 
     /**
      * 非同期処理用のスレッドプール設定
      */
     @Bean(name = "taskExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
     public Executor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
@@ -26,16 +38,53 @@ public class PerformanceConfig {
     }
 
     /**
-     * シフト生成用の専用スレッドプール
+     * 仮想スレッドモード（spring.threads.virtual.enabled=true）の非同期処理。
+     * プールは持たず、DB の同時実行数は GatedDataSource で制限する
      */
-    @Bean(name = "scheduleExecutor")
-    public Executor scheduleExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(1);
-        executor.setMaxPoolSize(2);
-        executor.setQueueCapacity(10);
-        executor.setThreadNamePrefix("Schedule-");
-        executor.initialize();
+    @Bean(name = "taskExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Async-");
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(10_000);
         return executor;
     }
+
+    /**
+     * DB 接続の借り出しをセマフォで制限する（shift.db.max-concurrency）
+     */
+    @Bean
+    public static BeanPostProcessor gatedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the application-facing DataSource; the SQLite pools behind it are not gated twice
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)
+                        || bean instanceof GatedDataSource) {
+                    return bean;
+                }
+                int maxConcurrency = environment.getProperty("shift.db.max-concurrency", Integer.class, 8);
+                long timeoutMillis = environment.getProperty("shift.db.acquire-timeout-ms", Long.class, 30_000L);
+                return new GatedDataSource(dataSource, maxConcurrency, timeoutMillis);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourceGateMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream()
+                .filter(GatedDataSource.class::isInstance)
+                .map(GatedDataSource.class::cast)
+                .findFirst()
+                .ifPresent(gate -> {
+                    Gauge.builder("shift.db.gate.in-use", gate, g -> g.getMaxConcurrency() - g.getAvailablePermits())
+                            .description("DB connections currently handed out through the gate")
+                            .register(registry);
+                    Gauge.builder("shift.db.gate.waiting", gate, GatedDataSource::getQueueLength)
+                            .description("Threads waiting for a DB connection permit")
+                            .register(registry);
+                });
+    }
+
+    // シフト生成は GenerationQueue（優先度・重複集約・429 応答）で実行する
 }
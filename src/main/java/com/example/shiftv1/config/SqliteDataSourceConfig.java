@@ -0,0 +1,141 @@
+package com.example.shiftv1.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * SQLite 用の接続構成。書き込みは1本だけの接続（単一ライター）に集め、読み取り専用トランザクションは別の読み取り専用プールで処理する。
+ * WAL モードなので、書き込み中でも読み取りは直前のコミット時点のスナップショットを読める。
+ */
+@Configuration
+public class SqliteDataSourceConfig {
+
+    @Value("${shift.db.journal-mode:WAL}")
+    private String journalMode;
+
+    @Value("${shift.db.synchronous:NORMAL}")
+    private String synchronous;
+
+    @Value("${shift.db.mmap-size:268435456}")
+    private long mmapSize;
+
+    @Value("${shift.db.busy-timeout-ms:5000}")
+    private int busyTimeoutMillis;
+
+    @Value("${shift.db.read-pool-size:4}")
+    private int readPoolSize;
+
+    /**
+     * The only connection that writes. BEGIN IMMEDIATE takes the write lock up front, so a transaction never
+     * fails half-way on a lock upgrade.
+     */
+    @Bean(destroyMethod = "close", defaultCandidate = false)
+    public HikariDataSource sqliteWriteDataSource(DataSourceProperties properties,
+                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        SQLiteConfig config = baseConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.valueOf(journalMode.toUpperCase()));
+        config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        return pool("sqlite-writer", properties, config, 1, meterRegistry);
+    }
+
+    /** Read-only connections for @Transactional(readOnly = true) work (GETs and repository reads). */
+    @Bean(destroyMethod = "close", defaultCandidate = false)
+    public HikariDataSource sqliteReadDataSource(DataSourceProperties properties,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        SQLiteConfig config = baseConfig();
+        // journal_mode is persistent and set by the writer; a read-only connection cannot change it
+        config.setReadOnly(true);
+        HikariDataSource pool = pool("sqlite-reader", properties, config, Math.max(1, readPoolSize), meterRegistry);
+        // Hikari applies its own flag to every new connection; SQLite only accepts the one it was opened with
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    /**
+     * Picks the pool when the first statement runs: read-only transactions get a reader, everything else the
+     * writer. See {@link ReadOnlyRoutingJpaDialect} for how JPA transactions set the flag.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("sqliteWriteDataSource") DataSource writer,
+                                 @Qualifier("sqliteReadDataSource") DataSource reader) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(writer);
+        proxy.setReadOnlyDataSource(reader);
+        return proxy;
+    }
+
+    /**
+     * Hibernate takes a connection per transaction (hibernate.connection.handling_mode), so a request's open-in-view
+     * session is routed again for every transaction. Spring only flags the connection read-only when it is held for
+     * the whole session; this dialect flags it for each read-only transaction instead.
+     */
+    @Bean
+    public static BeanPostProcessor readOnlyRoutingJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factory) {
+                    factory.setJpaDialect(new ReadOnlyRoutingJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    static class ReadOnlyRoutingJpaDialect extends HibernateJpaDialect {
+        @Override
+        public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+                throws PersistenceException, SQLException, TransactionException {
+            Object transactionData = super.beginTransaction(entityManager, definition);
+            if (definition.isReadOnly()) {
+                // No statement has run yet: the lazy proxy records the flag and opens a reader on the first one
+                entityManager.unwrap(SessionImplementor.class).getJdbcCoordinator().getLogicalConnection()
+                        .getPhysicalConnection().setReadOnly(true);
+            }
+            return transactionData;
+        }
+    }
+
+    private SQLiteConfig baseConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setSynchronous(SQLiteConfig.SynchronousMode.valueOf(synchronous.toUpperCase()));
+        config.setBusyTimeout(busyTimeoutMillis);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(mmapSize));
+        return config;
+    }
+
+    private static HikariDataSource pool(String name, DataSourceProperties properties, SQLiteConfig config,
+                                         int size, ObjectProvider<MeterRegistry> meterRegistry) {
+        SQLiteDataSource sqlite = new SQLiteDataSource(config);
+        sqlite.setUrl(properties.determineUrl());
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setDataSource(sqlite);
+        pool.setMaximumPoolSize(size);
+        pool.setMinimumIdle(size);
+        meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return pool;
+    }
+}
@@ -105,12 +105,10 @@ public class DataManagementController {
                 end = now.withDayOfMonth(now.lengthOfMonth());
             }
 
-            List<ShiftAssignment> assignments = assignmentRepository.findByWorkDateBetween(start, end);
-            
             YearMonth targetYm = YearMonth.of(start.getYear(), start.getMonthValue());
-            ScheduleCsvExporter.CsvFile csvFile = scheduleCsvExporter.export(assignments, targetYm);
+            ScheduleCsvExporter.CsvFile csvFile = scheduleCsvExporter.export(targetYm);
 
-            logger.info("シフトデータのCSVエクスポートが完了しました: {} 件", assignments.size());
+            logger.info("シフトデータのCSVエクスポートが完了しました: {} 件", csvFile.rows());
             return buildCsvResponse(csvFile);
 
         } catch (Exception e) {
@@ -3,6 +3,8 @@ package com.example.shiftv1.demand;
 import com.example.shiftv1.breaks.BreakRules;
 import com.example.shiftv1.common.ApiResponse;
 import com.example.shiftv1.holiday.HolidayRepository;
+import com.example.shiftv1.schedule.ScheduleVersions;
+import com.example.shiftv1.schedule.SingleFlight;
 import com.example.shiftv1.skill.Skill;
 import com.example.shiftv1.skill.SkillRepository;
 import jakarta.validation.Valid;
@@ -22,15 +24,18 @@ public class DemandController {
     private final SkillRepository skillRepository;
     private final HolidayRepository holidayRepository;
     private final DemandAggregationService aggregationService;
+    private final SingleFlight singleFlight;
 
     public DemandController(DemandIntervalRepository repository,
                             SkillRepository skillRepository,
                             HolidayRepository holidayRepository,
-                            DemandAggregationService aggregationService) {
+                            DemandAggregationService aggregationService,
+                            SingleFlight singleFlight) {
         this.repository = repository;
         this.skillRepository = skillRepository;
         this.holidayRepository = holidayRepository;
         this.aggregationService = aggregationService;
+        this.singleFlight = singleFlight;
     }
 
     @GetMapping
@@ -98,7 +103,10 @@ public class DemandController {
 
         final int G = Math.max(1, granularity);
         java.util.Set<Long> filterSkills = parseSkillIds(skillIdsCsv);
-        var aggResult = aggregationService.aggregate(start, end, G, filterSkills);
+        java.time.LocalDate from = start;
+        java.time.LocalDate to = end;
+        var aggResult = singleFlight.get("demand-aggregate", from + ":" + to + ":" + G + ":" + new TreeSet<>(filterSkills),
+                List.of(ScheduleVersions.DEMAND), () -> aggregationService.aggregate(from, to, G, filterSkills));
 
         java.util.Map<String, Object> body = new java.util.HashMap<>();
         body.put("period", p);
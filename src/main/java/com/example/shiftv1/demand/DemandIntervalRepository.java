@@ -48,6 +48,16 @@ public interface DemandIntervalRepository extends JpaRepository<DemandInterval,
                                               @Param("dow") DayOfWeek dow,
                                               @Param("isHoliday") boolean isHoliday);
 
+    // Dated demand inside the range plus every weekly/holiday template; the generator resolves
+    // the effective set per day in memory (same rules as findEffectiveForDate)
+    @Query("""
+            SELECT d FROM DemandInterval d
+            WHERE (d.date IS NULL OR d.date BETWEEN :start AND :end)
+              AND (d.active = true OR d.active IS NULL)
+            """)
+    List<DemandInterval> findActiveForRange(@Param("start") LocalDate start,
+                                            @Param("end") LocalDate end);
+
     long countBySkill_Id(Long skillId);
 
     List<DemandInterval> findByDateIsNullAndSkill_Id(Long skillId);
@@ -4,15 +4,24 @@ import com.example.shiftv1.skill.Skill;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@NamedEntityGraph(name = Employee.WITH_SKILLS, attributeNodes = @NamedAttributeNode("skills"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employee")
 @Table(name = "employees")
 public class Employee {
 
+    /** Fetch plan for the paths that read skills (generation, timeline, analytics). */
+    public static final String WITH_SKILLS = "Employee.withSkills";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -29,7 +38,10 @@ public class Employee {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Lazy; whatever is left uninitialized loads 100 employees' skills per query
+    @ManyToMany
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employee-skills")
     @JoinTable(name = "employee_skills",
             joinColumns = @JoinColumn(name = "employee_id"),
             inverseJoinColumns = @JoinColumn(name = "skill_id"))
@@ -1,23 +1,73 @@
 package com.example.shiftv1.employee;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+    // Grid window filters and sort key; a missing display order sorts last, as in findAllOrdered
+    String WINDOW_FILTER = "(:role IS NULL OR e.role = :role) "
+            + "AND (:skillId IS NULL OR EXISTS (SELECT s.id FROM e.skills s WHERE s.id = :skillId))";
+    String DISPLAY_ORDER = "COALESCE(e.displayOrder, 2147483647)";
+
     Optional<Employee> findByName(String name);
 
     long countBySkills_Id(Long skillId);
 
     Optional<Employee> findTopByOrderByDisplayOrderDescIdDesc();
 
+    // Query cache holds only the ids; the employees and their skills come from the second-level cache.
+    // Skills are fetched too, since generation reads them outside any session
+    @EntityGraph(Employee.WITH_SKILLS)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT e FROM Employee e")
+    List<Employee> findAllCacheable();
+
+    @EntityGraph(Employee.WITH_SKILLS)
+    @Query("SELECT e FROM Employee e")
+    List<Employee> findAllWithSkills();
+
+    @Query("SELECT e.id, s.name FROM Employee e JOIN e.skills s WHERE e.id IN :ids ORDER BY s.name")
+    List<Object[]> findSkillNameRows(@Param("ids") Collection<Long> ids);
+
+    /** Skill names per employee in one query, without loading the employees. */
+    default Map<Long, List<String>> findSkillNamesByEmployeeId(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return findSkillNameRows(ids).stream()
+                .collect(Collectors.groupingBy(row -> (Long) row[0],
+                        Collectors.mapping(row -> (String) row[1], Collectors.toList())));
+    }
+
+    /** Keyset page in findAllOrdered order: the employees after (afterOrder, afterId) that pass the filters. */
+    @Query("SELECT e FROM Employee e WHERE " + WINDOW_FILTER + " AND (" + DISPLAY_ORDER + " > :afterOrder OR ("
+            + DISPLAY_ORDER + " = :afterOrder AND e.id > :afterId)) ORDER BY " + DISPLAY_ORDER + " ASC, e.id ASC")
+    List<Employee> findWindowAfter(@Param("afterOrder") int afterOrder, @Param("afterId") long afterId,
+                                   @Param("role") String role, @Param("skillId") Long skillId, Limit limit);
+
+    @Query("SELECT COUNT(e) FROM Employee e WHERE " + WINDOW_FILTER)
+    long countWindow(@Param("role") String role, @Param("skillId") Long skillId);
+
+    /** A fresh list and fresh instances on every call; repeat reads are served by the second-level cache. */
     default List<Employee> findAllOrdered() {
-        List<Employee> employees = findAll();
+        List<Employee> employees = new ArrayList<>(findAllCacheable());
         employees.sort(Comparator
                 .comparing((Employee e) -> e.getDisplayOrder() == null ? Integer.MAX_VALUE : e.getDisplayOrder())
                 .thenComparing(e -> e.getId() == null ? Long.MAX_VALUE : e.getId()));
-        return employees;
+        return List.copyOf(employees);
     }
 }
@@ -1,8 +1,12 @@
 package com.example.shiftv1.employee;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employee-rule")
 @Table(name = "employee_rules")
 public class EmployeeRule {
 
@@ -1,12 +1,30 @@
 package com.example.shiftv1.employee;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
 public interface EmployeeRuleRepository extends JpaRepository<EmployeeRule, Long> {
     Optional<EmployeeRule> findByEmployeeId(Long employeeId);
+
+    @Query("SELECT r FROM EmployeeRule r JOIN FETCH r.employee")
+    List<EmployeeRule> findAllWithEmployee();
+
+    /** All rules keyed by employee id, in one query. Cached and shared: read-only. */
+    @Cacheable(cacheNames = "employee-rules", key = "'by-employee'")
+    default Map<Long, EmployeeRule> findAllByEmployeeId() {
+        Map<Long, EmployeeRule> rules = new HashMap<>();
+        for (EmployeeRule rule : findAllWithEmployee()) {
+            rules.put(rule.getEmployee().getId(), rule);
+        }
+        return Map.copyOf(rules);
+    }
 }
 
@@ -1,9 +1,13 @@
 package com.example.shiftv1.holiday;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "holiday")
 @Table(name = "holidays")
 public class Holiday {
     @Id
@@ -1,5 +1,6 @@
 package com.example.shiftv1.holiday;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,10 +12,12 @@ import java.util.Optional;
 
 @Repository
 public interface HolidayRepository extends JpaRepository<Holiday, Long> {
+    @Cacheable(cacheNames = "holidays", key = "'exists:' + #p0")
     boolean existsByDate(LocalDate date);
     void deleteByDate(LocalDate date);
     Optional<Holiday> findByDate(LocalDate date);
 
+    @Cacheable(cacheNames = "holidays", key = "'between:' + #p0 + ':' + #p1")
     @Query("select h.date from Holiday h where h.date between :start and :end")
     List<LocalDate> findDatesBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
 }
@@ -0,0 +1,33 @@
+package com.example.shiftv1.schedule;
+
+/**
+ * 1日分の充足サマリー。席数×スロットで数え、shortSlots は需要を満たせなかったスロット数。
+ */
+public record DayCoverage(int granularity,
+                          int demandSeatSlots,
+                          int coveredSeatSlots,
+                          int shortSlots) {
+    static DayCoverage empty(int granularity) {
+        return new DayCoverage(granularity, 0, 0, 0);
+    }
+
+    static DayCoverage of(SlotAxis axis, int[] requiredBySlot, int[] assignedBySlot) {
+        int demand = 0;
+        int covered = 0;
+        int shortSlots = 0;
+        for (int t = 0; t < requiredBySlot.length; t++) {
+            int req = requiredBySlot[t];
+            if (req <= 0)
+                continue;
+            demand += req;
+            covered += Math.min(req, assignedBySlot[t]);
+            if (assignedBySlot[t] < req)
+                shortSlots++;
+        }
+        return new DayCoverage(axis.granularity(), demand, covered, shortSlots);
+    }
+
+    public double coverageRatio() {
+        return demandSeatSlots == 0 ? 1.0 : (double) coveredSeatSlots / demandSeatSlots;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.shiftv1.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 独立した計算（日ごとの最大フローなど）を仮想スレッドに分けて実行する。
+ * 呼び出しはすべてのサブタスクが終わるまで戻らず、1件でも失敗したら残りを取り消して例外を投げる
+ * （StructuredTaskScope.ShutdownOnFailure と同じ振る舞い。Java 21 ではプレビュー API のためこちらで代替）。
+ * サブタスクは DB に触れないこと。DB の同時実行数は DataSource 側のセマフォで制限している。
+ */
+final class FanOut {
+
+    private FanOut() {
+    }
+
+    /** Runs every task and returns the results in task order; inline when {@code parallel} is false. */
+    static <T> List<T> all(List<? extends Callable<T>> tasks, boolean parallel) {
+        if (!parallel || tasks.size() < 2) {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+        // close() waits for every subtask, so none outlives this call
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                futures.add(scope.submit(task));
+            }
+            List<T> results = new ArrayList<>(tasks.size());
+            try {
+                for (Future<T> future : futures) {
+                    results.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                scope.shutdownNow();
+                throw rethrow(e.getCause());
+            } catch (InterruptedException e) {
+                scope.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("並列計算が中断されました");
+            }
+            return results;
+        }
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException re) {
+            return re;
+        }
+        if (t instanceof Error err) {
+            throw err;
+        }
+        return new IllegalStateException(t);
+    }
+}
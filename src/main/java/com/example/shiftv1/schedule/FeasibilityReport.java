@@ -0,0 +1,41 @@
+package com.example.shiftv1.schedule;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * 生成前の実行可能性チェック結果。需要を満たせない時間帯・スキルと、週休上限による人日不足を返す。
+ * 値は上限（これ以上は割当できない）であり、生成結果が必ずこの値に達するとは限らない。
+ */
+public record FeasibilityReport(int year,
+                                int month,
+                                int granularityMinutes,
+                                boolean feasible,
+                                int requiredSeatSlots,
+                                int coverableSeatSlots,
+                                long elapsedMillis,
+                                List<DayShortage> days,
+                                List<WeekShortage> weeks) {
+
+    public record DayShortage(LocalDate date,
+                              int requiredSeatSlots,
+                              int coverableSeatSlots,
+                              List<SlotShortage> slots) {
+    }
+
+    public record SlotShortage(LocalTime start,
+                               LocalTime end,
+                               Long skillId,
+                               String skillCode,
+                               String skillName,
+                               int required,
+                               int coverable) {
+    }
+
+    public record WeekShortage(LocalDate weekStart,
+                               LocalDate weekEnd,
+                               int requiredPersonDays,
+                               int availablePersonDays) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.shiftv1.schedule;
+
+/**
+ * 生成ループの協調的チェックで、取消要求または期限超過を検知したときに送出する。
+ */
+public class GenerationCancelledException extends RuntimeException {
+    private final boolean deadlineExceeded;
+
+    public GenerationCancelledException(String message, boolean deadlineExceeded) {
+        super(message);
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+}
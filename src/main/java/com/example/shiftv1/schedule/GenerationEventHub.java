@@ -0,0 +1,260 @@
+package com.example.shiftv1.schedule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 生成ジョブの日ごとの結果を SSE で配信する。
+ * 生成スレッドが1日分を1回だけ JSON 化し、購読者全員に同じ文字列を送る（クライアントごとの再照会はしない）。
+ * 途中から購読したクライアントにはそれまでの日を再送する。
+ * 送信はクライアントごとの上限付きキューを介して別スレッドで行い、遅いクライアントが生成を止めることはない。
+ */
+@Component
+public class GenerationEventHub implements GenerationJobHandle.DayListener {
+    private static final Logger logger = LoggerFactory.getLogger(GenerationEventHub.class);
+    private static final long EMITTER_TIMEOUT_MS = 30L * 60 * 1000;
+    // More than a month of day events plus "done", so a replay to a new subscriber always fits
+    static final int SUBSCRIBER_QUEUE_CAPACITY = 64;
+
+    private final ObjectMapper objectMapper;
+    private final Map<Long, JobStream> streams = new ConcurrentHashMap<>();
+    // Network writes happen here, one virtual thread per subscriber with queued events
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-sender-", 0).factory());
+
+    public GenerationEventHub(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /** Called when the job is queued, so early subscribers do not miss the first days. */
+    void open(Long jobId) {
+        streams.computeIfAbsent(jobId, id -> new JobStream());
+    }
+
+    @Override
+    public void dayFinished(GenerationJobHandle job, LocalDate day, List<ShiftAssignment> created, DayCoverage coverage) {
+        JobStream stream = streams.get(job.jobId());
+        if (stream == null) {
+            return;
+        }
+        try {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("jobId", job.jobId());
+            payload.put("date", day.toString());
+            payload.put("daysCompleted", job.daysCompleted());
+            payload.put("daysTotal", job.daysTotal());
+            payload.put("createdCount", job.createdCount());
+            payload.put("coverage", coverage);
+            payload.put("assignments", created.stream().map(ScheduleController::snapshotItem).toList());
+            stream.publish(new Event("day", objectMapper.writeValueAsString(payload)));
+        } catch (Exception e) {
+            // Streaming is best effort; never fail the generation over it
+            logger.warn("Failed to publish day {} for schedule job {}", day, job.jobId(), e);
+        }
+    }
+
+    /** Sends the final job state and completes all subscribers. */
+    void close(Long jobId, ScheduleJobView result) {
+        JobStream stream = streams.remove(jobId);
+        if (stream == null) {
+            return;
+        }
+        stream.finish(new Event("done", toJson(result)));
+    }
+
+    /**
+     * Subscribes to a job. Jobs without an open stream (finished, or left over from a previous process)
+     * get their current state as a single "done" event.
+     */
+    public SseEmitter subscribe(ScheduleJobView job) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        subscribe(job, emitter);
+        return emitter;
+    }
+
+    void subscribe(ScheduleJobView job, SseEmitter emitter) {
+        JobStream stream = streams.get(job.id());
+        if (stream == null) {
+            try {
+                emitter.send(SseEmitter.event().name("done").data(toJson(job), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return;
+        }
+        stream.subscribe(emitter);
+    }
+
+    int subscriberCount(Long jobId) {
+        JobStream stream = streams.get(jobId);
+        return stream == null ? 0 : stream.subscriberCount();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Event(String name, String json) {
+        SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final class JobStream {
+        private final List<Event> history = new ArrayList<>();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private Event finalEvent;
+
+        synchronized void publish(Event event) {
+            history.add(event);
+            subscribers.removeIf(subscriber -> !subscriber.offer(event, false));
+        }
+
+        synchronized void subscribe(SseEmitter emitter) {
+            Subscriber subscriber = new Subscriber(emitter);
+            for (Event past : history) {
+                if (!subscriber.offer(past, false)) {
+                    return;
+                }
+            }
+            if (finalEvent != null) {
+                subscriber.offer(finalEvent, true);
+                return;
+            }
+            subscribers.add(subscriber);
+            emitter.onCompletion(() -> remove(subscriber));
+            emitter.onTimeout(() -> remove(subscriber));
+            emitter.onError(e -> remove(subscriber));
+        }
+
+        synchronized void finish(Event event) {
+            finalEvent = event;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event, true);
+            }
+            subscribers.clear();
+            history.clear();
+        }
+
+        synchronized int subscriberCount() {
+            return subscribers.size();
+        }
+
+        private synchronized void remove(Subscriber subscriber) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    /**
+     * One client. Events wait in a bounded queue and are written by a sender thread, never by the generating
+     * thread; a client that falls {@link #SUBSCRIBER_QUEUE_CAPACITY} events behind is dropped.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayDeque<Event> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean completeWhenDrained;
+        private volatile boolean dropped;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /** Queues without blocking; false once the subscriber is gone or too far behind. */
+        boolean offer(Event event, boolean last) {
+            synchronized (this) {
+                if (dropped) {
+                    return false;
+                }
+                if (queue.size() >= SUBSCRIBER_QUEUE_CAPACITY) {
+                    // A full queue means a send is in progress; the sender completes the emitter when it returns
+                    dropped = true;
+                    queue.clear();
+                    return false;
+                }
+                queue.add(event);
+                completeWhenDrained |= last;
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+            try {
+                senders.execute(this::drain);
+                return true;
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                dropped = true;
+                return false;
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Event next;
+                boolean complete;
+                synchronized (this) {
+                    next = queue.poll();
+                    complete = next == null && completeWhenDrained && !dropped;
+                    if (next == null) {
+                        draining = false;
+                    }
+                }
+                if (next == null) {
+                    if (complete) {
+                        emitter.complete();
+                    } else if (dropped) {
+                        emitter.completeWithError(new IllegalStateException("SSE subscriber fell behind"));
+                    }
+                    return;
+                }
+                if (dropped || !send(emitter, next)) {
+                    synchronized (this) {
+                        dropped = true;
+                        queue.clear();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, Event event) {
+        try {
+            emitter.send(event.toSse());
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.shiftv1.schedule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 実行中の生成ジョブのライブ状態。生成ループが日ごとに進捗を書き込み、ensureNotStopped() で取消・期限を確認する。
+ * 再開時は resumePoint() に前回のチェックポイントが入る。
+ */
+public final class GenerationJobHandle {
+    /** Receives each finished day on the generating thread; must not throw. */
+    @FunctionalInterface
+    interface DayListener {
+        void dayFinished(GenerationJobHandle job, LocalDate day, List<ShiftAssignment> created, DayCoverage coverage);
+    }
+
+    /** Persists a checkpoint inside the unit's transaction, so it commits together with the unit's days. */
+    @FunctionalInterface
+    interface CheckpointStore {
+        void save(GenerationJobHandle job, Checkpoint checkpoint);
+    }
+
+    /** Last committed day plus the generator counters needed to continue after it. */
+    record Checkpoint(LocalDate lastDay, int daysCompleted, long createdCount, int rotate, int seeded, int dropped) {
+    }
+
+    /** For a generation run that is not tracked as a job; one per run, since the run writes its progress into it. */
+    static GenerationJobHandle untracked() {
+        return new GenerationJobHandle(null, 0, 0, SlotAxis.DEFAULT_GRANULARITY, false, null);
+    }
+
+    private final Long jobId;
+    private final int year;
+    private final int month;
+    private final int granularity;
+    private final boolean resetMonth;
+    private final LocalDateTime deadlineAt;
+
+    private volatile ScheduleJob.Phase phase = ScheduleJob.Phase.LOADING;
+    private volatile int daysTotal;
+    private volatile int daysCompleted;
+    private volatile long createdCount;
+    private volatile boolean cancelRequested;
+    private volatile DayListener dayListener;
+    private volatile CheckpointStore checkpointStore;
+    private volatile Checkpoint resumePoint;
+
+    GenerationJobHandle(Long jobId, int year, int month, int granularity, boolean resetMonth, LocalDateTime deadlineAt) {
+        this.jobId = jobId;
+        this.year = year;
+        this.month = month;
+        this.granularity = granularity;
+        this.resetMonth = resetMonth;
+        this.deadlineAt = deadlineAt;
+    }
+
+    public Long jobId() { return jobId; }
+    public int year() { return year; }
+    public int month() { return month; }
+    public int granularity() { return granularity; }
+    public boolean resetMonth() { return resetMonth; }
+    public LocalDateTime deadlineAt() { return deadlineAt; }
+    public ScheduleJob.Phase phase() { return phase; }
+    public int daysTotal() { return daysTotal; }
+    public int daysCompleted() { return daysCompleted; }
+    public long createdCount() { return createdCount; }
+    public boolean cancelRequested() { return cancelRequested; }
+
+    void phase(ScheduleJob.Phase phase) {
+        this.phase = phase;
+    }
+
+    void daysTotal(int daysTotal) {
+        this.daysTotal = daysTotal;
+    }
+
+    void dayListener(DayListener dayListener) {
+        this.dayListener = dayListener;
+    }
+
+    void checkpointStore(CheckpointStore checkpointStore) {
+        this.checkpointStore = checkpointStore;
+    }
+
+    CheckpointStore checkpointStore() {
+        return checkpointStore;
+    }
+
+    Checkpoint resumePoint() {
+        return resumePoint;
+    }
+
+    void resumeFrom(Checkpoint checkpoint) {
+        this.resumePoint = checkpoint;
+        this.daysCompleted = checkpoint.daysCompleted();
+        this.createdCount = checkpoint.createdCount();
+    }
+
+    void saveCheckpoint(Checkpoint checkpoint) {
+        CheckpointStore store = checkpointStore;
+        if (store != null) {
+            store.save(this, checkpoint);
+        }
+    }
+
+    // Single writer (the generating thread), so plain volatile increments are fine
+    void dayCompleted(LocalDate day, List<ShiftAssignment> created, DayCoverage coverage) {
+        this.daysCompleted = daysCompleted + 1;
+        this.createdCount = createdCount + created.size();
+        DayListener listener = dayListener;
+        if (listener != null) {
+            listener.dayFinished(this, day, created, coverage);
+        }
+    }
+
+    void requestCancel() {
+        this.cancelRequested = true;
+    }
+
+    /** Cooperative cancellation point; throws when a cancel was requested or the deadline passed. */
+    void ensureNotStopped() {
+        if (cancelRequested) {
+            throw new GenerationCancelledException("ジョブが取り消されました", false);
+        }
+        if (deadlineAt != null && LocalDateTime.now().isAfter(deadlineAt)) {
+            throw new GenerationCancelledException("ジョブの実行期限を超過しました", true);
+        }
+    }
+}
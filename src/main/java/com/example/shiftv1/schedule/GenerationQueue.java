@@ -0,0 +1,244 @@
+package com.example.shiftv1.schedule;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * シフト生成の実行キュー。
+ * 同じ内容（対象期間・パラメータ）の待機中リクエストは1件にまとめ、1日単位の再生成を月単位の生成より先に実行する。
+ * 待機数が上限に達したら受け付けず、再試行までの目安秒数を返す。
+ */
+@Component
+public class GenerationQueue {
+    private static final Logger logger = LoggerFactory.getLogger(GenerationQueue.class);
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 30;
+    private static final long MAX_RETRY_AFTER_SECONDS = 600;
+
+    /** Dispatch order: lower ordinal first. */
+    public enum Priority { INTERACTIVE, BULK }
+
+    /** Identity of a request for coalescing; requests without a key are never merged. */
+    public record RequestKey(String kind, LocalDate start, int span, int granularity, boolean reset) {
+    }
+
+    public static final class Ticket<T> {
+        private final List<Long> jobIds;
+        private final boolean coalesced;
+        private final CompletableFuture<T> result;
+
+        private Ticket(List<Long> jobIds, boolean coalesced, CompletableFuture<T> result) {
+            this.jobIds = jobIds;
+            this.coalesced = coalesced;
+            this.result = result;
+        }
+
+        public List<Long> jobIds() { return jobIds; }
+        public boolean coalesced() { return coalesced; }
+        public CompletableFuture<T> result() { return result; }
+    }
+
+    public static class QueueFullException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        QueueFullException(long retryAfterSeconds) {
+            super("生成キューが満杯です");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    private final int workers;
+    private final int capacity;
+    private final ThreadPoolExecutor executor;
+    private final Map<RequestKey, Entry> pendingByKey = new HashMap<>();
+    private final Map<Priority, AtomicInteger> waiting = new EnumMap<>(Priority.class);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    // Moving average of run time, for Retry-After
+    private volatile double avgRunMillis = -1;
+
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Counter coalescedCounter;
+    private final Counter rejectedCounter;
+
+    public GenerationQueue(MeterRegistry meterRegistry,
+                           @Value("${shift.jobs.workers:2}") int workers,
+                           @Value("${shift.jobs.queue-capacity:10}") int capacity) {
+        this.workers = Math.max(1, workers);
+        this.capacity = Math.max(1, capacity);
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.workers, this.workers, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "Schedule-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        for (Priority p : Priority.values()) {
+            AtomicInteger count = new AtomicInteger();
+            waiting.put(p, count);
+            String tag = p.name().toLowerCase();
+            Gauge.builder("shift.jobs.queue.depth", count, AtomicInteger::get)
+                    .description("Generation requests waiting for a worker")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            waitTimers.put(p, Timer.builder("shift.jobs.queue.wait")
+                    .description("Time from submission until a worker starts the request")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("shift.jobs.queue.running", running, AtomicInteger::get)
+                .description("Generation requests currently running")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("shift.jobs.queue.coalesced")
+                .description("Requests merged into an identical pending request")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("shift.jobs.queue.rejected")
+                .description("Requests refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a request, or returns the ticket of an identical one that has not started yet.
+     * {@code register} runs only for a new request (e.g. to create its job rows) and its ids are handed to
+     * {@code work} on the worker.
+     *
+     * @throws QueueFullException when {@code shift.jobs.queue-capacity} requests are already waiting
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> Ticket<T> submit(RequestKey key, Priority priority,
+                                             Supplier<List<Long>> register, Function<List<Long>, T> work) {
+        if (key != null) {
+            Entry existing = pendingByKey.get(key);
+            if (existing != null) {
+                coalescedCounter.increment();
+                return new Ticket<>(existing.jobIds, true, (CompletableFuture<T>) existing.result);
+            }
+        }
+        if (depth() >= capacity) {
+            rejectedCounter.increment();
+            throw new QueueFullException(retryAfterSeconds());
+        }
+        List<Long> jobIds = List.copyOf(register.get());
+        Entry entry = new Entry(key, priority, sequence.incrementAndGet(), jobIds, ids -> work.apply(ids));
+        if (key != null) {
+            pendingByKey.put(key, entry);
+        }
+        waiting.get(priority).incrementAndGet();
+        executor.execute(entry);
+        return new Ticket<>(jobIds, false, (CompletableFuture<T>) entry.result);
+    }
+
+    /** Stops later requests from merging into the pending request that owns this job (e.g. after a cancel). */
+    public synchronized void detach(Long jobId) {
+        pendingByKey.values().removeIf(e -> e.jobIds.contains(jobId));
+    }
+
+    public int depth() {
+        int total = 0;
+        for (AtomicInteger count : waiting.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    public int depth(Priority priority) {
+        return waiting.get(priority).get();
+    }
+
+    public int running() {
+        return running.get();
+    }
+
+    /** Rough time until a new request would start: queued work spread over the workers. */
+    public long retryAfterSeconds() {
+        double avg = avgRunMillis;
+        if (avg < 0) {
+            return DEFAULT_RETRY_AFTER_SECONDS;
+        }
+        long estimate = (long) Math.ceil(avg * (depth() + 1) / workers / 1000.0);
+        return Math.min(MAX_RETRY_AFTER_SECONDS, Math.max(1, estimate));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private synchronized void started(Entry entry) {
+        if (entry.key != null && pendingByKey.get(entry.key) == entry) {
+            pendingByKey.remove(entry.key);
+        }
+        waiting.get(entry.priority).decrementAndGet();
+        running.incrementAndGet();
+    }
+
+    private void finished(long runMillis) {
+        running.decrementAndGet();
+        double avg = avgRunMillis;
+        avgRunMillis = avg < 0 ? runMillis : avg * 0.8 + runMillis * 0.2;
+    }
+
+    private final class Entry implements Runnable, Comparable<Entry> {
+        private final RequestKey key;
+        private final Priority priority;
+        private final long seq;
+        private final List<Long> jobIds;
+        private final Function<List<Long>, Object> work;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final long submittedNanos = System.nanoTime();
+
+        Entry(RequestKey key, Priority priority, long seq, List<Long> jobIds, Function<List<Long>, Object> work) {
+            this.key = key;
+            this.priority = priority;
+            this.seq = seq;
+            this.jobIds = jobIds;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            started(this);
+            long start = System.nanoTime();
+            waitTimers.get(priority).record(Duration.ofNanos(start - submittedNanos));
+            try {
+                result.complete(work.apply(jobIds));
+            } catch (Throwable t) {
+                logger.error("Generation request {} failed", key != null ? key : jobIds, t);
+                result.completeExceptionally(t);
+            } finally {
+                finished(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.shiftv1.schedule;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 小さな書き込みトランザクション（グリッド編集など）を1本のライタースレッドに集め、まとめて1回でコミットする（グループコミット）。
+ * まとめた中の1件が失敗したら全体をロールバックし、1件ずつ個別のトランザクションでやり直して失敗をその1件に閉じ込める。
+ * SQLITE_BUSY は待ち時間を伸ばしながら再試行する。既にトランザクション内にいる呼び出しはそのトランザクションに参加する。
+ */
+@Component
+public class GroupCommitWriter {
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitWriter.class);
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private final TransactionTemplate transactionTemplate;
+    private final LinkedBlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final int maxBatch;
+    private final int busyRetries;
+    private final long busyBackoffMillis;
+    private volatile boolean running = true;
+
+    private final DistributionSummary groupSize;
+    private final Counter busyRetryCounter;
+    private final Counter isolatedCounter;
+
+    public GroupCommitWriter(PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${shift.db.group-commit.max-batch:32}") int maxBatch,
+                             @Value("${shift.db.busy-retries:5}") int busyRetries,
+                             @Value("${shift.db.busy-backoff-ms:20}") long busyBackoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.busyRetries = Math.max(0, busyRetries);
+        this.busyBackoffMillis = Math.max(1, busyBackoffMillis);
+        this.groupSize = DistributionSummary.builder("shift.db.write.group.size")
+                .description("Write requests committed together in one transaction")
+                .register(meterRegistry);
+        this.busyRetryCounter = Counter.builder("shift.db.write.busy.retries")
+                .description("Write transactions retried after SQLITE_BUSY")
+                .register(meterRegistry);
+        this.isolatedCounter = Counter.builder("shift.db.write.group.isolated")
+                .description("Groups re-run one request at a time after a member failed")
+                .register(meterRegistry);
+        this.writer = new Thread(this::drain, "sqlite-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Runs {@code work} in a write transaction and returns once it is committed. Outside a transaction the work
+     * is queued for the writer thread and may share its commit with other requests.
+     */
+    public <T> T write(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Joins the caller's transaction; a retry here could not undo the outer work
+            return transactionTemplate.execute(tx -> work.get());
+        }
+        if (!running) {
+            return withBusyRetry(() -> transactionTemplate.execute(tx -> work.get()));
+        }
+        Pending<T> pending = new Pending<>(work);
+        queue.add(pending);
+        try {
+            return pending.result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("書き込みの完了待ちが中断されました");
+        }
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(5_000);
+        // Release callers still waiting on requests that never reached the writer
+        List<Pending<?>> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(p -> p.result.completeExceptionally(new CancellationException("アプリケーションを停止しています")));
+    }
+
+    private void drain() {
+        List<Pending<?>> group = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Whatever piled up while the previous group was committing goes into this one
+            queue.drainTo(group, maxBatch - 1);
+            try {
+                commit(group);
+            } catch (Throwable t) {
+                logger.error("Group commit of {} writes failed", group.size(), t);
+                group.forEach(p -> p.result.completeExceptionally(t));
+            }
+            group.clear();
+        }
+    }
+
+    private void commit(List<Pending<?>> group) {
+        groupSize.record(group.size());
+        if (group.size() == 1) {
+            group.get(0).runAlone();
+            return;
+        }
+        List<Object> results;
+        try {
+            results = withBusyRetry(() -> transactionTemplate.execute(tx -> {
+                List<Object> values = new ArrayList<>(group.size());
+                for (Pending<?> pending : group) {
+                    values.add(pending.work.get());
+                }
+                return values;
+            }));
+        } catch (RuntimeException e) {
+            // One member failed and took the whole group down: give each request its own transaction
+            isolatedCounter.increment();
+            group.forEach(Pending::runAlone);
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).complete(results.get(i));
+        }
+    }
+
+    private <T> T withBusyRetry(Supplier<T> transaction) {
+        long backoff = busyBackoffMillis;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return transaction.get();
+            } catch (RuntimeException e) {
+                if (attempt >= busyRetries || !isBusy(e)) {
+                    throw e;
+                }
+                busyRetryCounter.increment();
+                sleep(backoff + ThreadLocalRandom.current().nextLong(backoff));
+                backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+            }
+        }
+    }
+
+    static boolean isBusy(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String message = t.getMessage();
+            if (message != null && (message.contains("SQLITE_BUSY") || message.contains("SQLITE_LOCKED")
+                    || message.contains("database is locked"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("再試行の待機が中断されました");
+        }
+    }
+
+    private final class Pending<T> {
+        private final Supplier<T> work;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Pending(Supplier<T> work) {
+            this.work = work;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object value) {
+            result.complete((T) value);
+        }
+
+        void runAlone() {
+            try {
+                result.complete(withBusyRetry(() -> transactionTemplate.execute(tx -> work.get())));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+    }
+}
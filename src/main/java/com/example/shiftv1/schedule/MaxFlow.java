@@ -0,0 +1,112 @@
+package com.example.shiftv1.schedule;
+
+import java.util.Arrays;
+
+/**
+ * 小規模グラフ向けの最大流（Dinic法）。実行可能性チェックで従業員×需要の割当上限を求めるために使う。
+ */
+final class MaxFlow {
+
+    private final int nodeCount;
+    private final int[] head;
+    private int[] next;
+    private int[] to;
+    private int[] capacity;
+    private int[] original;
+    private int edgeCount;
+    private final int[] level;
+    private final int[] cursor;
+
+    MaxFlow(int nodeCount) {
+        this.nodeCount = nodeCount;
+        this.head = new int[nodeCount];
+        Arrays.fill(head, -1);
+        int initial = Math.max(16, nodeCount * 4);
+        this.next = new int[initial];
+        this.to = new int[initial];
+        this.capacity = new int[initial];
+        this.original = new int[initial];
+        this.level = new int[nodeCount];
+        this.cursor = new int[nodeCount];
+    }
+
+    /**
+     * 辺を追加し、{@link #flowOn(int)} で参照するための辺番号を返す。
+     */
+    int addEdge(int from, int toNode, int cap) {
+        int forward = push(from, toNode, cap);
+        push(toNode, from, 0);
+        return forward;
+    }
+
+    int flowOn(int edge) {
+        return original[edge] - capacity[edge];
+    }
+
+    int solve(int source, int sink) {
+        int total = 0;
+        int[] queue = new int[nodeCount];
+        while (buildLevels(source, sink, queue)) {
+            System.arraycopy(head, 0, cursor, 0, nodeCount);
+            int pushed;
+            while ((pushed = augment(source, sink, Integer.MAX_VALUE)) > 0) {
+                total += pushed;
+            }
+        }
+        return total;
+    }
+
+    private int push(int from, int toNode, int cap) {
+        if (edgeCount == to.length) {
+            int grown = edgeCount * 2;
+            next = Arrays.copyOf(next, grown);
+            to = Arrays.copyOf(to, grown);
+            capacity = Arrays.copyOf(capacity, grown);
+            original = Arrays.copyOf(original, grown);
+        }
+        to[edgeCount] = toNode;
+        capacity[edgeCount] = cap;
+        original[edgeCount] = cap;
+        next[edgeCount] = head[from];
+        head[from] = edgeCount;
+        return edgeCount++;
+    }
+
+    private boolean buildLevels(int source, int sink, int[] queue) {
+        Arrays.fill(level, -1);
+        int qh = 0;
+        int qt = 0;
+        queue[qt++] = source;
+        level[source] = 0;
+        while (qh < qt) {
+            int u = queue[qh++];
+            for (int e = head[u]; e != -1; e = next[e]) {
+                if (capacity[e] > 0 && level[to[e]] < 0) {
+                    level[to[e]] = level[u] + 1;
+                    queue[qt++] = to[e];
+                }
+            }
+        }
+        return level[sink] >= 0;
+    }
+
+    private int augment(int u, int sink, int limit) {
+        if (u == sink) {
+            return limit;
+        }
+        for (; cursor[u] != -1; cursor[u] = next[cursor[u]]) {
+            int e = cursor[u];
+            int v = to[e];
+            if (capacity[e] <= 0 || level[v] != level[u] + 1) {
+                continue;
+            }
+            int pushed = augment(v, sink, Math.min(limit, capacity[e]));
+            if (pushed > 0) {
+                capacity[e] -= pushed;
+                capacity[e ^ 1] += pushed;
+                return pushed;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.shiftv1.schedule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 月単位の書き込みロック（ストライプ化）。生成は対象月を排他的に書き込み、他の月のグリッド編集はそのまま進める。
+ * グリッド編集同士は共有ロックなので同じ月でも並行して進む（DB への書き込みは単一ライターがまとめてコミットする）。
+ * ロックは固定数のストライプに割り当て、連続する月が同じストライプを共有しないようにしている。
+ * 参照（グリッド・月次スナップショット）はロックを取らず、読み取り専用トランザクション内の一貫したスナップショットを返す。
+ */
+@Component
+public class MonthLockManager {
+    private static final int STRIPES = 64;
+    private static final long GENERATION_POLL_MILLIS = 1000;
+
+    public enum Owner { GENERATION, DAY, GRID_EDIT }
+
+    private enum Outcome { ACQUIRED, ABANDONED, TIMEOUT }
+
+    /** Raised when a month stays locked past the caller's wait limit. */
+    public static class MonthLockedException extends RuntimeException {
+        private final YearMonth month;
+
+        MonthLockedException(YearMonth month) {
+            super(String.format("%d年%d月は生成中のため更新できません。しばらくしてから再実行してください",
+                    month.getYear(), month.getMonthValue()));
+            this.month = month;
+        }
+
+        public YearMonth getMonth() {
+            return month;
+        }
+    }
+
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES];
+    private final Map<Owner, Map<Outcome, Timer>> waitTimers = new EnumMap<>(Owner.class);
+    private final long editWaitMillis;
+
+    public MonthLockManager(MeterRegistry meterRegistry,
+                            @Value("${shift.locks.edit-wait-seconds:5}") long editWaitSeconds) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock(true);
+        }
+        for (Owner owner : Owner.values()) {
+            Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                timers.put(outcome, Timer.builder("shift.locks.month.wait")
+                        .description("Time spent waiting for a month write lock")
+                        .tag("owner", owner.name().toLowerCase())
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+            waitTimers.put(owner, timers);
+        }
+        this.editWaitMillis = TimeUnit.SECONDS.toMillis(editWaitSeconds);
+    }
+
+    /**
+     * Runs a generation step with the month locked. Waits for edits in progress, checking {@code stopCheck}
+     * (cancel/deadline) while it waits.
+     */
+    public <T> T withGenerationLock(YearMonth month, Owner owner, Runnable stopCheck, Supplier<T> body) {
+        Lock lock = stripe(month).writeLock();
+        long waitStart = System.nanoTime();
+        try {
+            while (!lock.tryLock(GENERATION_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                stopCheck.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            record(owner, waitStart, Outcome.ABANDONED);
+            throw new MonthLockedException(month);
+        } catch (RuntimeException e) {
+            // Cancelled or past the deadline while waiting
+            record(owner, waitStart, Outcome.ABANDONED);
+            throw e;
+        }
+        record(owner, waitStart, Outcome.ACQUIRED);
+        try {
+            return body.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a grid edit with every touched month locked against generation (edits share the lock). Fails with
+     * {@link MonthLockedException} instead of waiting out a running generation.
+     */
+    public <T> T withEditLock(Collection<YearMonth> months, Supplier<T> body) {
+        // Stripe order, so two edits spanning the same months cannot deadlock
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (YearMonth month : months) {
+            indexes.add(stripeIndex(month));
+        }
+        List<Lock> held = new ArrayList<>(indexes.size());
+        long waitStart = System.nanoTime();
+        try {
+            long deadline = waitStart + TimeUnit.MILLISECONDS.toNanos(editWaitMillis);
+            for (int index : indexes) {
+                Lock lock = stripes[index].readLock();
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                if (!lock.tryLock(remaining, TimeUnit.NANOSECONDS)) {
+                    record(Owner.GRID_EDIT, waitStart, Outcome.TIMEOUT);
+                    throw new MonthLockedException(monthFor(months, index));
+                }
+                held.add(lock);
+            }
+            record(Owner.GRID_EDIT, waitStart, Outcome.ACQUIRED);
+            return body.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MonthLockedException(months.iterator().next());
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    /** Whether a generation or an edit currently holds the month (possibly via a shared stripe). */
+    public boolean isLocked(YearMonth month) {
+        ReentrantReadWriteLock lock = stripe(month);
+        return lock.isWriteLocked() || lock.getReadLockCount() > 0;
+    }
+
+    private ReentrantReadWriteLock stripe(YearMonth month) {
+        return stripes[stripeIndex(month)];
+    }
+
+    private static int stripeIndex(YearMonth month) {
+        return Math.floorMod(month.getYear() * 12 + month.getMonthValue() - 1, STRIPES);
+    }
+
+    private static YearMonth monthFor(Collection<YearMonth> months, int index) {
+        return months.stream().filter(m -> stripeIndex(m) == index).findFirst().orElseThrow();
+    }
+
+    private void record(Owner owner, long waitStartNanos, Outcome outcome) {
+        waitTimers.get(owner).get(outcome).record(Duration.ofNanos(System.nanoTime() - waitStartNanos));
+    }
+}
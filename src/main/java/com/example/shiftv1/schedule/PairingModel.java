@@ -0,0 +1,140 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.breaks.BreakRules;
+import com.example.shiftv1.config.PairingSettings;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * PairingSettings をパース済みの形にしたもの（短時間ペアリング: 午前＋午後 → フル）。
+ * 設定が更新されるたびに version が進み、PairingModelCache が作り直す。
+ */
+final class PairingModel {
+    private static final Logger logger = LoggerFactory.getLogger(PairingModel.class);
+    private static final ObjectMapper PAIRING_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final TypeReference<List<PairingDefinitionPayload>> PAIRING_TYPE = new TypeReference<>() {
+    };
+
+    private final long version;
+    private final boolean enabled;
+    private final int toleranceMinutes;
+    private final List<Preset> presets;
+
+    private PairingModel(long version, boolean enabled, int toleranceMinutes, List<Preset> presets) {
+        this.version = version;
+        this.enabled = enabled;
+        this.toleranceMinutes = toleranceMinutes;
+        this.presets = presets;
+    }
+
+    static PairingModel disabled(long version) {
+        return new PairingModel(version, false, 0, List.of());
+    }
+
+    static PairingModel compile(PairingSettings settings, long version) {
+        if (settings == null || !Boolean.TRUE.equals(settings.getEnabled())) {
+            return disabled(version);
+        }
+        int tolerance = Math.max(0, Optional.ofNullable(settings.getPairToleranceMinutes()).orElse(0));
+        List<Preset> presets = new ArrayList<>();
+        for (PairingDefinitionPayload payload : parsePairingDefinitions(settings.getSkillPairings())) {
+            Preset preset = payload == null ? null
+                    : toPreset(payload.fullWindow(), payload.morningWindow(), payload.afternoonWindow(), payload.name());
+            if (preset != null) {
+                presets.add(preset);
+            }
+        }
+        if (presets.isEmpty()) {
+            Preset legacy = toPreset(settings.getFullWindow(), settings.getMorningWindow(),
+                    settings.getAfternoonWindow(), "既定");
+            if (legacy != null) {
+                presets.add(legacy);
+            }
+        }
+        if (presets.isEmpty()) {
+            return disabled(version);
+        }
+        return new PairingModel(version, true, tolerance, List.copyOf(presets));
+    }
+
+    long version() {
+        return version;
+    }
+
+    int toleranceMinutes() {
+        return toleranceMinutes;
+    }
+
+    List<Preset> presets() {
+        return presets;
+    }
+
+    boolean canPair() {
+        return enabled && !presets.isEmpty();
+    }
+
+    /** Exact (skill, window) lookups are only valid without tolerance. */
+    boolean exactMatching() {
+        return toleranceMinutes <= 0;
+    }
+
+    private static List<PairingDefinitionPayload> parsePairingDefinitions(String raw) {
+        if (raw == null || raw.isBlank())
+            return Collections.emptyList();
+        try {
+            List<PairingDefinitionPayload> payloads = PAIRING_MAPPER.readValue(raw, PAIRING_TYPE);
+            return payloads == null ? Collections.emptyList() : payloads;
+        } catch (Exception e) {
+            logger.warn("Failed to parse pairing definitions", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static Preset toPreset(String fullWindow, String morningWindow, String afternoonWindow, String name) {
+        TimeWindow full = parseWindow(fullWindow);
+        TimeWindow morning = parseWindow(morningWindow);
+        TimeWindow afternoon = parseWindow(afternoonWindow);
+        if (full == null || morning == null || afternoon == null) {
+            return null;
+        }
+        return new Preset(name == null || name.isBlank() ? "Pair" : name.trim(), full, morning, afternoon,
+                BreakRules.normalizeMinutes(null, full.start(), full.end()));
+    }
+
+    private static TimeWindow parseWindow(String raw) {
+        if (raw == null || raw.isBlank())
+            return null;
+        String[] parts = raw.split("-");
+        if (parts.length != 2)
+            return null;
+        try {
+            LocalTime start = LocalTime.parse(parts[0].trim());
+            LocalTime end = LocalTime.parse(parts[1].trim());
+            if (!start.isBefore(end))
+                return null;
+            return new TimeWindow(start, end);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    record Preset(String name, TimeWindow full, TimeWindow morning, TimeWindow afternoon, int fullBreakMinutes) {
+    }
+
+    record TimeWindow(LocalTime start, LocalTime end) {
+    }
+
+    private record PairingDefinitionPayload(String name, String fullWindow, String morningWindow,
+                                            String afternoonWindow) {
+    }
+}
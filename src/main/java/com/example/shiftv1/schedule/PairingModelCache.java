@@ -0,0 +1,58 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.config.PairingSettings;
+import com.example.shiftv1.config.PairingSettingsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * コンパイル済みペアリング設定のキャッシュ。設定を保存した側が invalidate() を呼ぶ。
+ */
+@Component
+public class PairingModelCache {
+    private static final Logger logger = LoggerFactory.getLogger(PairingModelCache.class);
+
+    private final PairingSettingsRepository repository;
+    private final AtomicLong version = new AtomicLong();
+    private volatile PairingModel current;
+
+    public PairingModelCache(PairingSettingsRepository repository) {
+        this.repository = repository;
+    }
+
+    PairingModel get() {
+        PairingModel model = current;
+        if (model != null && model.version() == version.get()) {
+            return model;
+        }
+        long v = version.get();
+        PairingModel compiled;
+        try {
+            PairingSettings settings = repository.findAll().stream().findFirst().orElse(null);
+            compiled = PairingModel.compile(settings, v);
+        } catch (Exception e) {
+            // Do not cache a failed load; the next generation retries
+            logger.warn("Failed to load pairing settings", e);
+            return PairingModel.disabled(v);
+        }
+        // An invalidate() that raced with the load leaves the version ahead, so the next call recompiles
+        if (version.get() == v) {
+            current = compiled;
+        }
+        return compiled;
+    }
+
+    /** Drops the compiled model; call after PairingSettings changes. */
+    public void invalidate() {
+        long v = version.incrementAndGet();
+        current = null;
+        logger.debug("pairing model invalidated (version {})", v);
+    }
+
+    public long version() {
+        return version.get();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.shiftv1.schedule;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 複数月バッチの集計進捗。phase は月ジョブから導出する（実行中の月があれば GENERATING）。
+ */
+public record ScheduleBatchView(
+        String batchId,
+        ScheduleJob.Phase phase,
+        int months,
+        int monthsCompleted,
+        int daysTotal,
+        int daysCompleted,
+        long createdCount,
+        List<ScheduleJobView> jobs
+) {
+    static ScheduleBatchView of(String batchId, List<ScheduleJobView> jobs) {
+        int completed = 0;
+        int daysTotal = 0;
+        int daysCompleted = 0;
+        long created = 0;
+        boolean anyRunning = false;
+        boolean anyQueued = false;
+        boolean anyFailed = false;
+        boolean anyCancelled = false;
+        for (ScheduleJobView job : jobs) {
+            // Queued months have not reported their length yet
+            daysTotal += job.daysTotal() > 0 ? job.daysTotal() : YearMonth.of(job.year(), job.month()).lengthOfMonth();
+            daysCompleted += job.daysCompleted();
+            created += job.createdCount();
+            switch (job.phase()) {
+                case COMPLETED -> completed++;
+                case FAILED -> anyFailed = true;
+                case CANCELLED -> anyCancelled = true;
+                case QUEUED -> anyQueued = true;
+                default -> anyRunning = true;
+            }
+        }
+        ScheduleJob.Phase phase;
+        if (anyRunning) {
+            phase = ScheduleJob.Phase.GENERATING;
+        } else if (anyQueued) {
+            phase = completed > 0 ? ScheduleJob.Phase.GENERATING : ScheduleJob.Phase.QUEUED;
+        } else if (anyFailed) {
+            phase = ScheduleJob.Phase.FAILED;
+        } else if (anyCancelled) {
+            phase = ScheduleJob.Phase.CANCELLED;
+        } else {
+            phase = ScheduleJob.Phase.COMPLETED;
+        }
+        return new ScheduleBatchView(batchId, phase, jobs.size(), completed, daysTotal, daysCompleted, created, jobs);
+    }
+}
@@ -1,14 +1,17 @@
 package com.example.shiftv1.schedule;
 
-import com.example.shiftv1.breaks.BreakPeriodRepository;
 import com.example.shiftv1.common.ApiResponse;
 import com.example.shiftv1.exception.BusinessException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriUtils;
 
 import java.nio.charset.StandardCharsets;
@@ -19,6 +22,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -27,27 +35,41 @@ public class ScheduleController {
 
     private final ScheduleService scheduleService;
     private final ShiftAssignmentRepository assignmentRepository;
-    private final ShiftReservationRepository reservationRepository;
-    private final BreakPeriodRepository breakRepository;
     private final com.example.shiftv1.common.error.ErrorLogBuffer errorLogBuffer;
     private final ScheduleJobStatusService jobStatusService;
     private final ScheduleCsvExporter scheduleCsvExporter;
+    private final ScheduleJobRunner jobRunner;
+    private final SchedulePurgeService purgeService;
+    private final ScheduleResponseCache responseCache;
+    private final ScheduleGridStreamWriter gridStreamWriter;
     private static final Logger logger = LoggerFactory.getLogger(ScheduleController.class);
 
+    private static final int MAX_BATCH_MONTHS = 12;
+
+    @Value("${shift.jobs.deadline-minutes:60}")
+    private int defaultJobDeadlineMinutes;
+
+    @Value("${shift.jobs.interactive-wait-seconds:60}")
+    private long interactiveWaitSeconds;
+
     public ScheduleController(ScheduleService scheduleService,
                               ShiftAssignmentRepository assignmentRepository,
-                              ShiftReservationRepository reservationRepository,
-                              BreakPeriodRepository breakRepository,
                               com.example.shiftv1.common.error.ErrorLogBuffer errorLogBuffer,
                               ScheduleJobStatusService jobStatusService,
-                              ScheduleCsvExporter scheduleCsvExporter) {
+                              ScheduleCsvExporter scheduleCsvExporter,
+                              ScheduleJobRunner jobRunner,
+                              SchedulePurgeService purgeService,
+                              ScheduleResponseCache responseCache,
+                              ScheduleGridStreamWriter gridStreamWriter) {
         this.scheduleService = scheduleService;
         this.assignmentRepository = assignmentRepository;
-        this.reservationRepository = reservationRepository;
-        this.breakRepository = breakRepository;
         this.errorLogBuffer = errorLogBuffer;
         this.jobStatusService = jobStatusService;
         this.scheduleCsvExporter = scheduleCsvExporter;
+        this.jobRunner = jobRunner;
+        this.purgeService = purgeService;
+        this.responseCache = responseCache;
+        this.gridStreamWriter = gridStreamWriter;
     }
 
     // Fallback generator (delegates to demand-based simple)
@@ -78,30 +100,109 @@ public class ScheduleController {
             @RequestParam(name = "granularity", required = false, defaultValue = "60") Integer granularityMinutes,
             @RequestParam(name = "reset", required = false, defaultValue = "false") boolean reset,
             @RequestParam(name = "mode", required = false) String mode) {
+        if (!SlotAxis.isSupported(granularityMinutes)) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure("granularity は 5 / 15 / 30 / 60 のいずれかを指定してください"));
+        }
         try {
             YearMonth target = resolveYearMonth(year, month);
-            List<ShiftAssignment> created = scheduleService.generateMonthlyFromDemand(target.getYear(), target.getMonthValue(), granularityMinutes, reset);
+            ScheduleJob job = jobStatusService.create(target.getYear(), target.getMonthValue(), granularityMinutes, reset, null);
+            ScheduleJobView result = jobRunner.run(job.getId());
+            if (result.phase() != ScheduleJob.Phase.COMPLETED) {
+                return ResponseEntity.internalServerError().body(ApiResponse.failure("需要ベースのシフト生成に失敗しました"));
+            }
             Map<String, Object> meta = new HashMap<>();
+            meta.put("jobId", result.id());
             meta.put("year", target.getYear());
             meta.put("month", target.getMonthValue());
-            meta.put("generated", created.size());
+            meta.put("granularity", granularityMinutes);
+            meta.put("generated", result.createdCount());
             return ResponseEntity.ok(ApiResponse.success("デマンドベース同期生成が完了しました", meta));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(ApiResponse.failure("需要ベースのシフト生成に失敗しました"));
         }
     }
 
+    // --- Warm-start generation: seed from previous month / template week, then repair and fill gaps ---
+    @PostMapping("/generate/demand/warm-start")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> generateDemandWarmStart(
+            @RequestParam(name = "year", required = false) Integer year,
+            @RequestParam(name = "month", required = false) Integer month,
+            @RequestParam(name = "source", required = false, defaultValue = "previous") String source,
+            @RequestParam(name = "templateWeekStart", required = false) LocalDate templateWeekStart,
+            @RequestParam(name = "reset", required = false, defaultValue = "false") boolean reset) {
+        try {
+            YearMonth target = resolveYearMonth(year, month);
+            WarmStartResult result = scheduleService.generateMonthlyWarmStart(target.getYear(), target.getMonthValue(),
+                    WarmStartSource.parse(source), templateWeekStart, reset);
+            Map<String, Object> meta = new HashMap<>();
+            meta.put("year", target.getYear());
+            meta.put("month", target.getMonthValue());
+            meta.put("source", result.source().name());
+            meta.put("sourceStart", result.sourceStart().toString());
+            meta.put("sourceEnd", result.sourceEnd().toString());
+            meta.put("offered", result.offered());
+            meta.put("seeded", result.seeded());
+            meta.put("dropped", result.dropped());
+            meta.put("generated", result.created());
+            return ResponseEntity.ok(ApiResponse.success("ウォームスタート生成が完了しました", meta));
+        } catch (IllegalArgumentException | BusinessException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("/api/schedule/generate/demand/warm-start failed", e);
+            try { if (errorLogBuffer != null) errorLogBuffer.addError("/api/schedule/generate/demand/warm-start failed", e); } catch (Exception ignore) {}
+            return ResponseEntity.internalServerError().body(ApiResponse.failure("ウォームスタート生成に失敗しました"));
+        }
+    }
+
+    // --- Feasibility pre-check (read-only upper bound before generation) ---
+    @GetMapping("/feasibility")
+    public ResponseEntity<ApiResponse<FeasibilityReport>> checkFeasibility(
+            @RequestParam(name = "year", required = false) Integer year,
+            @RequestParam(name = "month", required = false) Integer month,
+            @RequestParam(name = "granularity", required = false, defaultValue = "60") Integer granularityMinutes) {
+        if (!SlotAxis.isSupported(granularityMinutes)) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure("granularity は 5 / 15 / 30 / 60 のいずれかを指定してください"));
+        }
+        try {
+            YearMonth target = resolveYearMonth(year, month);
+            FeasibilityReport report = scheduleService.checkFeasibility(target.getYear(), target.getMonthValue(),
+                    granularityMinutes);
+            String message = report.feasible() ? "需要を満たせる見込みです" : "需要を満たせない時間帯があります";
+            return ResponseEntity.ok(ApiResponse.success(message, report));
+        } catch (Exception e) {
+            logger.error("/api/schedule/feasibility failed", e);
+            return ResponseEntity.internalServerError().body(ApiResponse.failure("実行可能性チェックに失敗しました"));
+        }
+    }
+
     // --- Demand-based generation for a single day (admin-debug use) ---
     @PostMapping("/generate/demand/day")
     public ResponseEntity<ApiResponse<Map<String, Object>>> generateDemandForDay(
             @RequestParam("date") LocalDate date,
-            @RequestParam(name = "reset", required = false, defaultValue = "false") boolean reset) {
+            @RequestParam(name = "reset", required = false, defaultValue = "false") boolean reset,
+            @RequestParam(name = "granularity", required = false, defaultValue = "60") Integer granularityMinutes) {
+        if (!SlotAxis.isSupported(granularityMinutes)) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure("granularity は 5 / 15 / 30 / 60 のいずれかを指定してください"));
+        }
         try {
-            List<ShiftAssignment> created = scheduleService.generateForDateFromDemand(date, reset);
+            // Queued ahead of month jobs; the request waits for its own (or an identical pending) run
+            GenerationQueue.Ticket<List<ShiftAssignment>> ticket = jobRunner.submitDay(date, reset, granularityMinutes);
+            List<ShiftAssignment> created;
+            try {
+                created = ticket.result().get(interactiveWaitSeconds, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                return ResponseEntity.accepted().body(ApiResponse.failure("生成に時間がかかっています。完了後に反映されます"));
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
             Map<String, Object> meta = new HashMap<>();
             meta.put("date", date.toString());
+            meta.put("granularity", granularityMinutes);
             meta.put("generated", created.size());
+            meta.put("coalesced", ticket.coalesced());
             return ResponseEntity.ok(ApiResponse.success("デマンドベース同期生成（1日）が完了しました", meta));
+        } catch (GenerationQueue.QueueFullException e) {
+            return queueFull(e);
         } catch (Exception e) {
             logger.error("/api/schedule/generate/demand/day failed for date={} reset={}", date, reset, e);
             try { if (errorLogBuffer != null) errorLogBuffer.addError("/api/schedule/generate/demand/day failed", e); } catch (Exception ignore) {}
@@ -143,100 +244,203 @@ public class ScheduleController {
             @RequestParam(name = "month", required = false) Integer month,
             @RequestParam(name = "granularity", required = false, defaultValue = "60") Integer granularityMinutes,
             @RequestParam(name = "reset", required = false, defaultValue = "false") boolean reset,
-            @RequestParam(name = "mode", required = false) String mode) {
+            @RequestParam(name = "mode", required = false) String mode,
+            @RequestParam(name = "deadlineMinutes", required = false) Integer deadlineMinutes) {
+        if (!SlotAxis.isSupported(granularityMinutes)) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure("granularity は 5 / 15 / 30 / 60 のいずれかを指定してください"));
+        }
         try {
             YearMonth target = resolveYearMonth(year, month);
-            scheduleService.generateMonthlyFromDemandAsync(target.getYear(), target.getMonthValue(), granularityMinutes, reset);
+            int deadline = deadlineMinutes != null ? deadlineMinutes : defaultJobDeadlineMinutes;
+            GenerationQueue.Ticket<ScheduleJobView> ticket =
+                    jobRunner.submitMonth(target, granularityMinutes, reset, deadline);
+            Long jobId = ticket.jobIds().get(0);
             Map<String, Object> meta = new HashMap<>();
             meta.put("started", true);
+            meta.put("jobId", jobId);
+            meta.put("coalesced", ticket.coalesced());
+            meta.put("deadlineAt", jobStatusService.find(jobId).map(ScheduleJobView::deadlineAt).orElse(null));
             meta.put("year", target.getYear());
             meta.put("month", target.getMonthValue());
             meta.put("granularity", granularityMinutes);
             meta.put("reset", reset);
             return ResponseEntity.ok(ApiResponse.success("需要ベースのシフト生成を開始しました", meta));
+        } catch (GenerationQueue.QueueFullException e) {
+            return queueFull(e);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(ApiResponse.failure("需要ベースのシフト生成に失敗しました"));
         }
     }
 
-    // Monthly snapshot for dashboard/calendar
+    // --- Multi-month batch: consecutive months in order on one worker, with aggregate progress ---
+    @PostMapping("/generate/demand/batch")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> generateDemandBatch(
+            @RequestParam(name = "year", required = false) Integer year,
+            @RequestParam(name = "month", required = false) Integer month,
+            @RequestParam(name = "months", required = false, defaultValue = "3") int months,
+            @RequestParam(name = "granularity", required = false, defaultValue = "60") Integer granularityMinutes,
+            @RequestParam(name = "reset", required = false, defaultValue = "false") boolean reset,
+            @RequestParam(name = "deadlineMinutes", required = false) Integer deadlineMinutes) {
+        if (!SlotAxis.isSupported(granularityMinutes)) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure("granularity は 5 / 15 / 30 / 60 のいずれかを指定してください"));
+        }
+        if (months < 1 || months > MAX_BATCH_MONTHS) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure("months は 1〜" + MAX_BATCH_MONTHS + " の範囲で指定してください"));
+        }
+        try {
+            YearMonth first = resolveYearMonth(year, month);
+            int deadline = deadlineMinutes != null ? deadlineMinutes : defaultJobDeadlineMinutes;
+            GenerationQueue.Ticket<List<ScheduleJobView>> ticket =
+                    jobRunner.submitBatch(first, months, granularityMinutes, reset, deadline);
+            List<Long> jobIds = ticket.jobIds();
+            Map<String, Object> meta = new HashMap<>();
+            meta.put("started", true);
+            meta.put("batchId", jobStatusService.find(jobIds.get(0)).map(ScheduleJobView::batchId).orElse(null));
+            meta.put("jobIds", jobIds);
+            meta.put("coalesced", ticket.coalesced());
+            meta.put("from", first.toString());
+            meta.put("to", first.plusMonths(months - 1L).toString());
+            meta.put("granularity", granularityMinutes);
+            meta.put("reset", reset);
+            return ResponseEntity.ok(ApiResponse.success("複数月のシフト生成を開始しました", meta));
+        } catch (GenerationQueue.QueueFullException e) {
+            return queueFull(e);
+        } catch (Exception e) {
+            logger.error("/api/schedule/generate/demand/batch failed", e);
+            return ResponseEntity.internalServerError().body(ApiResponse.failure("複数月のシフト生成に失敗しました"));
+        }
+    }
+
+    // Monthly snapshot for dashboard/calendar; polling with If-None-Match gets 304 until the month changes
     @GetMapping("")
-    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getMonthlySnapshot(
+    public ResponseEntity<?> getMonthlySnapshot(
             @RequestParam(name = "year", required = false) Integer year,
-            @RequestParam(name = "month", required = false) Integer month) {
+            @RequestParam(name = "month", required = false) Integer month,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             YearMonth target = resolveYearMonth(year, month);
             var start = target.atDay(1);
             var end = target.atEndOfMonth();
-            List<ShiftAssignment> items = assignmentRepository.findByWorkDateBetween(start, end);
-            // include placeholders so users can see FREE/休日
-            List<Map<String, Object>> list = items.stream()
-                    .map(a -> {
-                        Map<String, Object> m = new HashMap<>();
-                        String dateStr = a.getWorkDate().toString();
-                        m.put("workDate", dateStr); // expected by calendar/dashboard
-                        m.put("date", dateStr);     // backward compatibility
-                        m.put("employeeName", a.getEmployee().getName());
-                        String shiftName = a.getShiftName();
-                        m.put("shiftName", shiftName);
-                        m.put("shift", shiftName);  // backward compatibility
-                        // flags for client to style placeholders
-                        try { m.put("isFree", Boolean.TRUE.equals(a.getIsFree())); } catch (Exception ignore) {}
-                        try { m.put("isOff", Boolean.TRUE.equals(a.getIsOff())); } catch (Exception ignore) {}
-                        m.put("start", a.getStartTime().toString());
-                        m.put("end", a.getEndTime().toString());
-                        m.put("employeeId", a.getEmployee().getId());
-                        m.put("id", a.getId());
-                        return m;
-                    })
-                    .collect(Collectors.toList());
-            Map<String, Object> meta = new HashMap<>();
-            meta.put("month", target.getMonthValue());
-            meta.put("year", target.getYear());
-            meta.put("count", list.size());
-            // Return the array directly as data so frontend can data.forEach(...)
-            return ResponseEntity.ok(ApiResponse.success("Assignments snapshot", list, meta));
+            // Items carry employee names, so renames change the snapshot too
+            List<String> scopes = List.of(ScheduleVersions.scope(target), ScheduleVersions.EMPLOYEES);
+            return versioned(responseCache.get("snapshot:" + target, scopes, ifNoneMatch, () -> {
+                List<ShiftAssignmentRow> items = assignmentRepository.findRowsBetween(start, end);
+                // include placeholders so users can see FREE/休日
+                List<Map<String, Object>> list = items.stream()
+                        .map(ScheduleController::snapshotItem)
+                        .collect(Collectors.toList());
+                Map<String, Object> meta = new HashMap<>();
+                meta.put("month", target.getMonthValue());
+                meta.put("year", target.getYear());
+                meta.put("count", list.size());
+                // Return the array directly as data so frontend can data.forEach(...)
+                return ApiResponse.success("Assignments snapshot", list, meta);
+            }));
         } catch (Exception e) {
+            logger.error("/api/schedule snapshot failed", e);
             return ResponseEntity.internalServerError().body(ApiResponse.failure("月次スナップショットの取得に失敗しました"));
         }
     }
 
+    // no-cache: clients keep the body but revalidate with the ETag on every poll
+    static ResponseEntity<?> versioned(ScheduleResponseCache.Versioned response) {
+        if (response.notModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(response.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(response.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(response.contentType())
+                .body(response.body());
+    }
+
+    // Back-pressure from the generation queue: 429 with a Retry-After estimate
+    static <T> ResponseEntity<ApiResponse<T>> queueFull(GenerationQueue.QueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.failure("生成ジョブが混み合っています。" + e.getRetryAfterSeconds() + "秒ほど待ってから再実行してください"));
+    }
+
+    // Snapshot item shape shared with the generation event stream
+    static Map<String, Object> snapshotItem(ShiftAssignment a) {
+        return snapshotItem(ShiftAssignmentRow.of(a));
+    }
+
+    static Map<String, Object> snapshotItem(ShiftAssignmentRow a) {
+        Map<String, Object> m = new HashMap<>();
+        String dateStr = a.workDate().toString();
+        m.put("workDate", dateStr); // expected by calendar/dashboard
+        m.put("date", dateStr);     // backward compatibility
+        m.put("employeeName", a.employeeName());
+        String shiftName = a.shiftName();
+        m.put("shiftName", shiftName);
+        m.put("shift", shiftName);  // backward compatibility
+        // flags for client to style placeholders
+        m.put("isFree", Boolean.TRUE.equals(a.isFree()));
+        m.put("isOff", Boolean.TRUE.equals(a.isOff()));
+        m.put("start", a.startTime().toString());
+        m.put("end", a.endTime().toString());
+        m.put("employeeId", a.employeeId());
+        m.put("id", a.id());
+        return m;
+    }
+
     // Optional: reset monthly assignments endpoint (UI attempted to access /api/schedule/reset)
     @RequestMapping(value = "/reset", method = { RequestMethod.POST, RequestMethod.DELETE })
-    @org.springframework.transaction.annotation.Transactional
     public ResponseEntity<ApiResponse<Map<String, Object>>> resetMonthly(
             @RequestParam(name = "year", required = false) Integer year,
             @RequestParam(name = "month", required = false) Integer month) {
         try {
             YearMonth target = resolveYearMonth(year, month);
-            var start = target.atDay(1);
-            var end = target.atEndOfMonth();
-            long before = assignmentRepository.countByWorkDateBetween(start, end);
-            breakRepository.deleteByAssignment_WorkDateBetween(start, end);
-            assignmentRepository.deleteByWorkDateBetween(start, end);
-            List<ShiftReservation> reservationsToReset = reservationRepository.findByWorkDateBetweenAndStatusIn(
-                    start, end, List.of(ShiftReservation.Status.APPLIED));
-            if (!reservationsToReset.isEmpty()) {
-                reservationsToReset.forEach(res -> res.setStatus(ShiftReservation.Status.PENDING));
-                reservationRepository.saveAll(reservationsToReset);
-            }
-            Map<String, Object> meta = new HashMap<>();
+            SchedulePurgeService.PurgeResult purged = purgeService.purge(target.atDay(1), target.atEndOfMonth());
+            Map<String, Object> meta = purgeMeta(purged);
             meta.put("year", target.getYear());
             meta.put("month", target.getMonthValue());
-            meta.put("deleted", before);
             return ResponseEntity.ok(ApiResponse.success("対象月のシフトをリセットしました", meta));
+        } catch (MonthLockManager.MonthLockedException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.failure(e.getMessage()));
         } catch (Exception e) {
+            logger.error("/api/schedule/reset failed", e);
             return ResponseEntity.internalServerError().body(ApiResponse.failure("リセットに失敗しました"));
         }
     }
 
+    // Exact counts from the purge statements; "deleted" keeps its meaning (assignments)
+    private static Map<String, Object> purgeMeta(SchedulePurgeService.PurgeResult purged) {
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("deleted", purged.assignments());
+        meta.put("breaksDeleted", purged.breaks());
+        meta.put("reservationsReset", purged.reservationsReset());
+        return meta;
+    }
+
+    // format=columnar: parallel arrays for the editor (ScheduleGridColumnar); omitted or "objects": one object per row.
+    // Accept: application/cbor gets either layout as CBOR
     @GetMapping("/grid")
-    public ResponseEntity<ApiResponse<ScheduleGridResponse>> getGrid(
+    public ResponseEntity<?> getGrid(
             @RequestParam(name = "start", required = false) LocalDate start,
-            @RequestParam(name = "end", required = false) LocalDate end) {
+            @RequestParam(name = "end", required = false) LocalDate end,
+            @RequestParam(name = "format", required = false) String format,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            ScheduleGridResponse grid = scheduleService.loadGrid(start, end);
-            return ResponseEntity.ok(ApiResponse.success("グリッドを取得しました", grid));
+            // Validated up front; the defaulted range (current week) is part of the ETag
+            LocalDate[] range = scheduleService.normalizeRange(start, end);
+            ScheduleResponseCache.Encoding encoding = ScheduleResponseCache.Encoding.negotiate(accept);
+            if ("columnar".equalsIgnoreCase(format)) {
+                return versioned(responseCache.get("grid-columnar:" + range[0] + ":" + range[1], gridScopes(range), ifNoneMatch,
+                        encoding, () -> ApiResponse.success(ScheduleGridStreamWriter.MESSAGE, scheduleService.loadGridColumnar(range[0], range[1]))));
+            }
+            if (format != null && !format.isBlank() && !"objects".equalsIgnoreCase(format)) {
+                return ResponseEntity.badRequest().body(ApiResponse.failure("format は objects または columnar を指定してください"));
+            }
+            return versioned(responseCache.get("grid:" + range[0] + ":" + range[1], gridScopes(range), ifNoneMatch,
+                    encoding, () -> ApiResponse.success(ScheduleGridStreamWriter.MESSAGE, scheduleService.loadGrid(range[0], range[1]))));
         } catch (BusinessException e) {
             return ResponseEntity.badRequest().body(ApiResponse.failure(e.getMessage()));
         } catch (Exception e) {
@@ -245,12 +449,73 @@ public class ScheduleController {
         }
     }
 
+    // Same document as /grid, written row by row from a cursor: memory stays flat however wide the range
+    @GetMapping("/grid/stream")
+    public ResponseEntity<?> streamGrid(
+            @RequestParam(name = "start", required = false) LocalDate start,
+            @RequestParam(name = "end", required = false) LocalDate end,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            LocalDate[] range = scheduleService.normalizeRange(start, end);
+            // Read before the rows: a write in between leaves the tag behind the body, never ahead of it
+            String etag = responseCache.etag("grid-stream:" + range[0] + ":" + range[1], gridScopes(range));
+            if (ScheduleResponseCache.matches(ifNoneMatch, etag)) {
+                return versioned(new ScheduleResponseCache.Versioned(etag, null));
+            }
+            StreamingResponseBody body = out -> gridStreamWriter.write(range[0], range[1], out);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("/api/schedule/grid/stream failed", e);
+            return ResponseEntity.internalServerError().body(ApiResponse.failure("グリッドの取得に失敗しました"));
+        }
+    }
+
+    // Rows for a virtualized editor: a page of employees (keyset on display order) over a date window.
+    // Pass the previous page's next.afterOrder / next.afterId to continue.
+    @GetMapping("/grid/window")
+    public ResponseEntity<ApiResponse<ScheduleGridWindow>> getGridWindow(
+            @RequestParam(name = "start", required = false) LocalDate start,
+            @RequestParam(name = "end", required = false) LocalDate end,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "afterOrder", required = false) Integer afterOrder,
+            @RequestParam(name = "afterId", required = false) Long afterId,
+            @RequestParam(name = "role", required = false) String role,
+            @RequestParam(name = "skillId", required = false) Long skillId) {
+        try {
+            if ((afterOrder == null) != (afterId == null)) {
+                return ResponseEntity.badRequest().body(ApiResponse.failure("afterOrder と afterId は両方指定してください"));
+            }
+            ScheduleGridWindow.Cursor after = afterId == null ? null : new ScheduleGridWindow.Cursor(afterOrder, afterId);
+            ScheduleGridWindow window = scheduleService.loadGridWindow(start, end, after, limit, role, skillId);
+            return ResponseEntity.ok(ApiResponse.success(ScheduleGridStreamWriter.MESSAGE, window));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("/api/schedule/grid/window failed", e);
+            return ResponseEntity.internalServerError().body(ApiResponse.failure("グリッドの取得に失敗しました"));
+        }
+    }
+
+    private static Set<String> gridScopes(LocalDate[] range) {
+        Set<String> scopes = new TreeSet<>(ScheduleVersions.scopes(range[0], range[1]));
+        scopes.add(ScheduleVersions.EMPLOYEES);
+        return scopes;
+    }
+
     @PostMapping("/grid/bulk")
     public ResponseEntity<ApiResponse<ScheduleGridBulkResult>> applyGrid(
             @RequestBody ScheduleGridBulkRequest request) {
         try {
             ScheduleGridBulkResult result = scheduleService.applyGridChanges(request);
             return ResponseEntity.ok(ApiResponse.success("変更を保存しました", result));
+        } catch (MonthLockManager.MonthLockedException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.failure(e.getMessage()));
         } catch (BusinessException e) {
             return ResponseEntity.badRequest().body(ApiResponse.failure(e.getMessage()));
         } catch (Exception e) {
@@ -308,17 +573,22 @@ public class ScheduleController {
             @RequestParam(name = "month", required = false) Integer month) {
         try {
             YearMonth target = resolveYearMonth(year, month);
-            var s = jobStatusService.get(target.getYear(), target.getMonthValue());
+            ScheduleJobView job = jobStatusService.latest(target.getYear(), target.getMonthValue()).orElse(null);
             long live = 0L;
             try { live = assignmentRepository.countByWorkDateBetween(target.atDay(1), target.atEndOfMonth()); } catch (Exception ignore) {}
-            long count = Math.max(s.createdCount, live);
-            boolean running = s.running || (!s.done && live > 0 && s.startedAt == null);
+            long count = Math.max(job != null ? job.createdCount() : 0L, live);
             Map<String, Object> data = new HashMap<>();
-            data.put("running", running);
-            data.put("done", s.done);
+            data.put("running", job != null && (job.running() || job.phase() == ScheduleJob.Phase.QUEUED));
+            data.put("done", job != null && job.phase().isTerminal());
             data.put("count", count);
-            data.put("startedAt", s.startedAt);
-            data.put("finishedAt", s.finishedAt);
+            data.put("startedAt", job != null ? job.startedAt() : null);
+            data.put("finishedAt", job != null ? job.finishedAt() : null);
+            if (job != null) {
+                data.put("jobId", job.id());
+                data.put("phase", job.phase());
+                data.put("daysCompleted", job.daysCompleted());
+                data.put("daysTotal", job.daysTotal());
+            }
             return ResponseEntity.ok(ApiResponse.success("Job status", data));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(ApiResponse.failure("ジョブ状況の取得に失敗しました"));
@@ -344,8 +614,7 @@ public class ScheduleController {
     public ResponseEntity<byte[]> exportCsv(@RequestParam(name = "year", required = false) Integer year,
                                             @RequestParam(name = "month", required = false) Integer month) {
         YearMonth target = resolveYearMonth(year, month);
-        List<ShiftAssignment> assignments = assignmentRepository.findByWorkDateBetween(target.atDay(1), target.atEndOfMonth());
-        ScheduleCsvExporter.CsvFile csvFile = scheduleCsvExporter.export(assignments, target);
+        ScheduleCsvExporter.CsvFile csvFile = scheduleCsvExporter.export(target);
         return buildCsvResponse(csvFile);
     }
 
@@ -372,12 +641,11 @@ public class ScheduleController {
     @DeleteMapping("/reset/day")
     public ResponseEntity<ApiResponse<Map<String, Object>>> resetDay(@RequestParam("date") LocalDate date) {
         try {
-            long before = assignmentRepository.findByWorkDate(date).size();
-            assignmentRepository.deleteByWorkDate(date);
-            Map<String, Object> meta = new HashMap<>();
+            Map<String, Object> meta = purgeMeta(purgeService.purge(date, date));
             meta.put("date", date.toString());
-            meta.put("deleted", before);
             return ResponseEntity.ok(ApiResponse.success("対象日のシフトを削除しました", meta));
+        } catch (MonthLockManager.MonthLockedException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.failure(e.getMessage()));
         } catch (Exception e) {
             logger.error("/api/schedule/reset/day failed for date={}", date, e);
             try { if (errorLogBuffer != null) errorLogBuffer.addError("/api/schedule/reset/day failed", e); } catch (Exception ignore) {}
@@ -1,7 +1,8 @@
 package com.example.shiftv1.schedule;
 
-import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.employee.EmployeeRepository;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
@@ -13,7 +14,8 @@ import java.time.temporal.ChronoUnit;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
 import java.util.StringJoiner;
 import java.util.stream.Collectors;
 
@@ -28,63 +30,82 @@ public class ScheduleCsvExporter {
             "開始", "終了", "稼働時間(分)", "区分", "FREE枠", "休日フラグ", "休暇フラグ", "スキル"
     };
 
-    public CsvFile export(List<ShiftAssignment> assignments, YearMonth target) {
+    private final ShiftAssignmentRepository assignmentRepository;
+    private final EmployeeRepository employeeRepository;
+
+    public ScheduleCsvExporter(ShiftAssignmentRepository assignmentRepository, EmployeeRepository employeeRepository) {
+        this.assignmentRepository = assignmentRepository;
+        this.employeeRepository = employeeRepository;
+    }
+
+    /** Rows come from a projection; skill names for every employee in the month from one further query. */
+    @Transactional(readOnly = true)
+    public CsvFile export(YearMonth target) {
+        List<ShiftAssignmentRow> assignments = assignmentRepository.findRowsBetween(target.atDay(1), target.atEndOfMonth());
+        Map<Long, List<String>> skills = employeeRepository.findSkillNamesByEmployeeId(assignments.stream()
+                .map(ShiftAssignmentRow::employeeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        return export(assignments, skills, target);
+    }
+
+    CsvFile export(List<ShiftAssignmentRow> assignments, Map<Long, List<String>> skills, YearMonth target) {
         StringBuilder builder = new StringBuilder();
         builder.append('\uFEFF');
         builder.append(String.join(",", HEADERS)).append('\n');
 
         assignments.stream()
                 .sorted(Comparator
-                        .comparing(ShiftAssignment::getWorkDate)
-                        .thenComparing(sa -> safeTime(sa.getStartTime()))
-                        .thenComparing(sa -> employeeName(sa.getEmployee())))
-                .forEach(sa -> appendRow(builder, sa));
+                        .comparing(ShiftAssignmentRow::workDate)
+                        .thenComparing(sa -> safeTime(sa.startTime()))
+                        .thenComparing(sa -> defaultString(sa.employeeName())))
+                .forEach(sa -> appendRow(builder, sa, skills.getOrDefault(sa.employeeId(), List.of())));
 
         byte[] data = builder.toString().getBytes(StandardCharsets.UTF_8);
         String filename = String.format("schedule-%d-%02d.csv", target.getYear(), target.getMonthValue());
-        return new CsvFile(filename, data);
+        return new CsvFile(filename, data, assignments.size());
     }
 
-    private void appendRow(StringBuilder builder, ShiftAssignment assignment) {
+    private void appendRow(StringBuilder builder, ShiftAssignmentRow assignment, List<String> skills) {
         boolean placeholderSlot = isPlaceholderSlot(assignment);
         String[] times = resolveTimesForExport(assignment, placeholderSlot);
         long durationMinutes = placeholderSlot ? 0 : calculateDurationMinutes(assignment);
 
         StringJoiner joiner = new StringJoiner(",");
-        joiner.add(escapeCsv(DATE_FORMAT.format(assignment.getWorkDate())));
-        joiner.add(escapeCsv(formatDayOfWeek(assignment.getWorkDate())));
-        joiner.add(escapeCsv(safeId(assignment.getEmployee())));
-        joiner.add(escapeCsv(employeeName(assignment.getEmployee())));
-        joiner.add(escapeCsv(defaultString(assignment.getShiftName())));
+        joiner.add(escapeCsv(DATE_FORMAT.format(assignment.workDate())));
+        joiner.add(escapeCsv(formatDayOfWeek(assignment.workDate())));
+        joiner.add(escapeCsv(assignment.employeeId() == null ? "" : assignment.employeeId().toString()));
+        joiner.add(escapeCsv(defaultString(assignment.employeeName())));
+        joiner.add(escapeCsv(defaultString(assignment.shiftName())));
         joiner.add(escapeCsv(times[0]));
         joiner.add(escapeCsv(times[1]));
         joiner.add(escapeCsv(Long.toString(durationMinutes)));
         joiner.add(escapeCsv(classify(assignment)));
-        joiner.add(escapeCsv(formatFlag(assignment.getIsFree())));
-        joiner.add(escapeCsv(formatFlag(assignment.getIsOff())));
-        joiner.add(escapeCsv(formatFlag(assignment.getIsLeave())));
-        joiner.add(escapeCsv(formatSkills(assignment.getEmployee())));
+        joiner.add(escapeCsv(formatFlag(assignment.isFree())));
+        joiner.add(escapeCsv(formatFlag(assignment.isOff())));
+        joiner.add(escapeCsv(formatFlag(assignment.isLeave())));
+        joiner.add(escapeCsv(formatSkills(skills)));
 
         builder.append(joiner).append('\n');
     }
 
-    private String[] resolveTimesForExport(ShiftAssignment assignment, boolean placeholderSlot) {
+    private String[] resolveTimesForExport(ShiftAssignmentRow assignment, boolean placeholderSlot) {
         if (placeholderSlot) {
             return new String[] {"00:00", "00:00"};
         }
         return new String[] {
-                formatTime(assignment.getStartTime()),
-                formatTime(assignment.getEndTime())
+                formatTime(assignment.startTime()),
+                formatTime(assignment.endTime())
         };
     }
 
-    private boolean isPlaceholderSlot(ShiftAssignment assignment) {
-        return Boolean.TRUE.equals(assignment.getIsFree()) || Boolean.TRUE.equals(assignment.getIsOff());
+    private boolean isPlaceholderSlot(ShiftAssignmentRow assignment) {
+        return Boolean.TRUE.equals(assignment.isFree()) || Boolean.TRUE.equals(assignment.isOff());
     }
 
-    private long calculateDurationMinutes(ShiftAssignment assignment) {
-        LocalTime start = assignment.getStartTime();
-        LocalTime end = assignment.getEndTime();
+    private long calculateDurationMinutes(ShiftAssignmentRow assignment) {
+        LocalTime start = assignment.startTime();
+        LocalTime end = assignment.endTime();
         if (start == null || end == null) {
             return 0;
         }
@@ -99,14 +120,14 @@ public class ScheduleCsvExporter {
         return time == null ? "" : TIME_FORMAT.format(time);
     }
 
-    private String classify(ShiftAssignment assignment) {
-        if (Boolean.TRUE.equals(assignment.getIsLeave())) {
+    private String classify(ShiftAssignmentRow assignment) {
+        if (Boolean.TRUE.equals(assignment.isLeave())) {
             return "休暇";
         }
-        if (Boolean.TRUE.equals(assignment.getIsOff())) {
+        if (Boolean.TRUE.equals(assignment.isOff())) {
             return "休日";
         }
-        if (Boolean.TRUE.equals(assignment.getIsFree())) {
+        if (Boolean.TRUE.equals(assignment.isFree())) {
             return "FREE";
         }
         return "通常";
@@ -116,31 +137,13 @@ public class ScheduleCsvExporter {
         return Boolean.TRUE.equals(value) ? "○" : "";
     }
 
-    private String formatSkills(Employee employee) {
-        if (employee == null || employee.getSkills() == null) {
-            return "";
-        }
-        Set<com.example.shiftv1.skill.Skill> skills = employee.getSkills();
-        if (skills.isEmpty()) {
-            return "";
-        }
+    private String formatSkills(List<String> skills) {
         return skills.stream()
-                .map(com.example.shiftv1.skill.Skill::getName)
+                .filter(Objects::nonNull)
                 .sorted()
                 .collect(Collectors.joining(" / "));
     }
 
-    private String employeeName(Employee employee) {
-        return employee == null ? "" : defaultString(employee.getName());
-    }
-
-    private String safeId(Employee employee) {
-        if (employee == null || employee.getId() == null) {
-            return "";
-        }
-        return employee.getId().toString();
-    }
-
     private LocalTime safeTime(LocalTime time) {
         return time == null ? LocalTime.MIDNIGHT : time;
     }
@@ -157,5 +160,5 @@ public class ScheduleCsvExporter {
         return target;
     }
 
-    public record CsvFile(String filename, byte[] data) { }
+    public record CsvFile(String filename, byte[] data, int rows) { }
 }
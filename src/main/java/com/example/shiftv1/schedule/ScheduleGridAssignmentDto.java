@@ -1,6 +1,7 @@
 package com.example.shiftv1.schedule;
 
 import com.example.shiftv1.breaks.BreakPeriod;
+import com.example.shiftv1.breaks.BreakPeriodRow;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -25,18 +26,18 @@ public record ScheduleGridAssignmentDto(
         Boolean isOff,
         Boolean isLeave) {
 
-    public static ScheduleGridAssignmentDto from(ShiftAssignment assignment, List<BreakPeriod> breakPeriods) {
+    public static ScheduleGridAssignmentDto from(ShiftAssignmentRow assignment, List<BreakPeriodRow> breakPeriods) {
         LocalTime breakStart = null;
         LocalTime breakEnd = null;
         Integer breakMinutes = null;
         if (breakPeriods != null && !breakPeriods.isEmpty()) {
-            BreakPeriod lunch = breakPeriods.stream()
-                    .filter(bp -> bp.getType() == BreakPeriod.BreakType.LUNCH)
+            BreakPeriodRow lunch = breakPeriods.stream()
+                    .filter(bp -> bp.type() == BreakPeriod.BreakType.LUNCH)
                     .findFirst()
                     .orElse(null);
             if (lunch != null) {
-                breakStart = lunch.getStartTime();
-                breakEnd = lunch.getEndTime();
+                breakStart = lunch.startTime();
+                breakEnd = lunch.endTime();
                 if (breakStart != null && breakEnd != null) {
                     breakMinutes = (int) ChronoUnit.MINUTES.between(breakStart, breakEnd);
                 }
@@ -45,27 +46,27 @@ public record ScheduleGridAssignmentDto(
         List<BreakDto> breakDtos = breakPeriods == null ? List.of()
                 : breakPeriods.stream()
                 .map(bp -> new BreakDto(
-                        bp.getId(),
-                        bp.getType(),
-                        bp.getStartTime(),
-                        bp.getEndTime(),
-                        bp.getAutoGenerated() != null && bp.getAutoGenerated()))
+                        bp.id(),
+                        bp.type(),
+                        bp.startTime(),
+                        bp.endTime(),
+                        bp.autoGenerated() != null && bp.autoGenerated()))
                 .collect(Collectors.toList());
         return new ScheduleGridAssignmentDto(
-                assignment.getId(),
-                assignment.getEmployee() != null ? assignment.getEmployee().getId() : null,
-                assignment.getEmployee() != null ? assignment.getEmployee().getName() : null,
-                assignment.getWorkDate(),
-                assignment.getShiftName(),
-                assignment.getStartTime(),
-                assignment.getEndTime(),
+                assignment.id(),
+                assignment.employeeId(),
+                assignment.employeeName(),
+                assignment.workDate(),
+                assignment.shiftName(),
+                assignment.startTime(),
+                assignment.endTime(),
                 breakStart,
                 breakEnd,
                 breakMinutes,
                 breakDtos,
-                normalizeFlag(assignment.getIsFree()),
-                normalizeFlag(assignment.getIsOff()),
-                normalizeFlag(assignment.getIsLeave())
+                normalizeFlag(assignment.isFree()),
+                normalizeFlag(assignment.isOff()),
+                normalizeFlag(assignment.isLeave())
         );
     }
 
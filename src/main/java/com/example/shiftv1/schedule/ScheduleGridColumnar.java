@@ -0,0 +1,134 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.breaks.BreakPeriod;
+import com.example.shiftv1.breaks.BreakPeriodRow;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * グリッド応答の列指向版（{@code GET /api/schedule/grid?format=columnar}）。
+ * 割り当てはオブジェクトの配列ではなく、同じ長さの数値配列の組で表す（i 番目の要素がすべて i 番目の割り当て）。
+ * <ul>
+ *   <li>{@code employeeIndex}: {@code employees} の添字、{@code dayIndex}: {@code startDate} からの日数</li>
+ *   <li>{@code startMinute} / {@code endMinute}: 0時からの分</li>
+ *   <li>{@code kind}: {@code kinds} の添字（休暇 > 休日 > FREE > 通常 の順に1つ）、{@code labelId}: {@code labels}（シフト名）の添字</li>
+ *   <li>{@code idDelta}: ID を直前の要素との差で表したもの（先頭はそのまま）</li>
+ * </ul>
+ * 休憩は割り当て順に並べ、{@code count[i]} が i 番目の割り当ての休憩数。{@code offset} は割り当て開始
+ * （2件目以降は直前の休憩の終了）からの分、{@code length} は休憩の長さ（分）。
+ */
+public record ScheduleGridColumnar(
+        LocalDate startDate,
+        LocalDate endDate,
+        List<ScheduleGridEmployeeDto> employees,
+        List<String> labels,
+        List<String> kinds,
+        List<String> breakTypes,
+        Assignments assignments,
+        Breaks breaks,
+        Map<String, Object> meta) {
+
+    static final List<String> KINDS = List.of("WORK", "FREE", "OFF", "LEAVE");
+    static final List<String> BREAK_TYPES = Arrays.stream(BreakPeriod.BreakType.values()).map(Enum::name).toList();
+
+    public record Assignments(long[] idDelta, int[] employeeIndex, int[] dayIndex, int[] startMinute, int[] endMinute,
+                              int[] kind, int[] labelId) {
+    }
+
+    public record Breaks(int[] count, long[] idDelta, int[] type, int[] offset, int[] length, int[] autoGenerated) {
+    }
+
+    /** {@code rows} in grid order; employees missing from {@code employees} are appended to the dictionary. */
+    static ScheduleGridColumnar from(LocalDate start, LocalDate end, List<ScheduleGridEmployeeDto> employees,
+                                     List<ShiftAssignmentRow> rows, Map<Long, List<BreakPeriodRow>> breaksByAssignment) {
+        List<ScheduleGridEmployeeDto> employeeDict = new ArrayList<>(employees);
+        Map<Long, Integer> employeeIndexById = new HashMap<>();
+        for (int i = 0; i < employeeDict.size(); i++) {
+            employeeIndexById.put(employeeDict.get(i).id(), i);
+        }
+        Map<String, Integer> labelIds = new LinkedHashMap<>();
+
+        int n = rows.size();
+        long[] idDelta = new long[n];
+        int[] employeeIndex = new int[n];
+        int[] dayIndex = new int[n];
+        int[] startMinute = new int[n];
+        int[] endMinute = new int[n];
+        int[] kind = new int[n];
+        int[] labelId = new int[n];
+        int[] breakCount = new int[n];
+        int breakTotal = rows.stream().mapToInt(r -> breaksByAssignment.getOrDefault(r.id(), List.of()).size()).sum();
+        long[] breakIdDelta = new long[breakTotal];
+        int[] breakType = new int[breakTotal];
+        int[] breakOffset = new int[breakTotal];
+        int[] breakLength = new int[breakTotal];
+        int[] breakAuto = new int[breakTotal];
+
+        long previousId = 0;
+        long previousBreakId = 0;
+        int b = 0;
+        for (int i = 0; i < n; i++) {
+            ShiftAssignmentRow row = rows.get(i);
+            idDelta[i] = row.id() - previousId;
+            previousId = row.id();
+            employeeIndex[i] = employeeIndexById.computeIfAbsent(row.employeeId(), id -> {
+                employeeDict.add(new ScheduleGridEmployeeDto(id, row.employeeName(), null));
+                return employeeDict.size() - 1;
+            });
+            dayIndex[i] = (int) ChronoUnit.DAYS.between(start, row.workDate());
+            startMinute[i] = minuteOfDay(row.startTime());
+            endMinute[i] = minuteOfDay(row.endTime());
+            kind[i] = kindOf(row);
+            labelId[i] = labelIds.computeIfAbsent(row.shiftName() == null ? "" : row.shiftName(), k -> labelIds.size());
+
+            List<BreakPeriodRow> own = breaksByAssignment.getOrDefault(row.id(), List.of());
+            breakCount[i] = own.size();
+            int cursor = startMinute[i];
+            for (BreakPeriodRow bp : own) {
+                int from = minuteOfDay(bp.startTime());
+                int to = minuteOfDay(bp.endTime());
+                breakIdDelta[b] = bp.id() - previousBreakId;
+                previousBreakId = bp.id();
+                breakType[b] = bp.type() == null ? -1 : bp.type().ordinal();
+                breakOffset[b] = from - cursor;
+                breakLength[b] = to - from;
+                breakAuto[b] = Boolean.TRUE.equals(bp.autoGenerated()) ? 1 : 0;
+                cursor = to;
+                b++;
+            }
+        }
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("rangeDays", ChronoUnit.DAYS.between(start, end) + 1);
+        meta.put("employeeCount", employeeDict.size());
+        meta.put("assignmentCount", n);
+        return new ScheduleGridColumnar(start, end, List.copyOf(employeeDict), List.copyOf(labelIds.keySet()),
+                KINDS, BREAK_TYPES,
+                new Assignments(idDelta, employeeIndex, dayIndex, startMinute, endMinute, kind, labelId),
+                new Breaks(breakCount, breakIdDelta, breakType, breakOffset, breakLength, breakAuto),
+                meta);
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time == null ? 0 : time.getHour() * 60 + time.getMinute();
+    }
+
+    // Same precedence as the CSV 区分 column
+    private static int kindOf(ShiftAssignmentRow row) {
+        if (Boolean.TRUE.equals(row.isLeave())) {
+            return 3;
+        }
+        if (Boolean.TRUE.equals(row.isOff())) {
+            return 2;
+        }
+        return Boolean.TRUE.equals(row.isFree()) ? 1 : 0;
+    }
+}
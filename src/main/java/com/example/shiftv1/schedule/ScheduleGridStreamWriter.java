@@ -0,0 +1,92 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.breaks.BreakPeriodRepository;
+import com.example.shiftv1.breaks.BreakPeriodRow;
+import com.example.shiftv1.employee.EmployeeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * グリッド応答（{@code GET /api/schedule/grid} と同じ JSON）を、前方向のみのカーソルから1件ずつ書き出す。
+ * 割り当てと休憩は同じ順序で並べた2本のカーソルを突き合わせるので、メモリに持つのは従業員一覧と
+ * 書き出し中の割り当て1件分の休憩だけで、期間の長さには比例しない。
+ */
+@Component
+public class ScheduleGridStreamWriter {
+    static final String MESSAGE = "グリッドを取得しました";
+
+    private final ShiftAssignmentRepository assignmentRepository;
+    private final BreakPeriodRepository breakRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ObjectMapper objectMapper;
+
+    public ScheduleGridStreamWriter(ShiftAssignmentRepository assignmentRepository,
+                                    BreakPeriodRepository breakRepository,
+                                    EmployeeRepository employeeRepository,
+                                    ObjectMapper objectMapper) {
+        this.assignmentRepository = assignmentRepository;
+        this.breakRepository = breakRepository;
+        this.employeeRepository = employeeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Writes the ApiResponse-wrapped grid for an already normalized range. Both cursors share one snapshot. */
+    @Transactional(readOnly = true)
+    public void write(LocalDate start, LocalDate end, OutputStream out) throws IOException {
+        List<ScheduleGridEmployeeDto> employees = employeeRepository.findAllOrdered().stream()
+                .map(ScheduleGridEmployeeDto::from)
+                .toList();
+        try (JsonGenerator json = objectMapper.createGenerator(out);
+             Stream<ShiftAssignmentRow> assignments = assignmentRepository.streamRowsBetween(start, end);
+             Stream<BreakPeriodRow> breaks = breakRepository.streamRowsByAssignmentWorkDateBetween(start, end)) {
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeStringField("message", MESSAGE);
+            json.writeObjectFieldStart("data");
+            json.writeObjectField("startDate", start);
+            json.writeObjectField("endDate", end);
+            json.writeObjectField("employees", employees);
+
+            json.writeArrayFieldStart("assignments");
+            Iterator<BreakPeriodRow> breakCursor = breaks.iterator();
+            BreakPeriodRow pending = breakCursor.hasNext() ? breakCursor.next() : null;
+            long count = 0;
+            for (Iterator<ShiftAssignmentRow> it = assignments.iterator(); it.hasNext(); ) {
+                ShiftAssignmentRow row = it.next();
+                // Same ordering on both cursors: this assignment's breaks are next in line
+                List<BreakPeriodRow> own = new ArrayList<>(2);
+                while (pending != null && Objects.equals(pending.assignmentId(), row.id())) {
+                    own.add(pending);
+                    pending = breakCursor.hasNext() ? breakCursor.next() : null;
+                }
+                json.writeObject(ScheduleGridAssignmentDto.from(row, own));
+                count++;
+            }
+            json.writeEndArray();
+
+            // Counts are only known at the end, so meta follows the rows
+            json.writeObjectFieldStart("meta");
+            json.writeNumberField("rangeDays", ChronoUnit.DAYS.between(start, end) + 1);
+            json.writeNumberField("employeeCount", employees.size());
+            json.writeNumberField("assignmentCount", count);
+            json.writeEndObject();
+            json.writeEndObject();
+
+            json.writeObjectFieldStart("meta");
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.shiftv1.schedule;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * グリッドの一部分（{@code GET /api/schedule/grid/window}）。従業員は表示順（displayOrder, id）の
+ * キーセットで {@code limit} 人ずつ、割り当てはその従業員の期間内の分だけを返す。
+ * {@code totalEmployees} は絞り込み後の総人数、{@code next} は次のページの開始位置（最後のページでは null）で、
+ * エディタは総数から行を仮想化し、見えている範囲だけを取得できる。
+ */
+public record ScheduleGridWindow(
+        LocalDate startDate,
+        LocalDate endDate,
+        List<ScheduleGridEmployeeDto> employees,
+        List<ScheduleGridAssignmentDto> assignments,
+        long totalEmployees,
+        long rangeDays,
+        Cursor next) {
+
+    /** Position after the last employee of a page; pass back as afterOrder / afterId. */
+    public record Cursor(int afterOrder, long afterId) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.shiftv1.schedule;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * シフト生成ジョブの記録。日（または週）単位のコミットごとにチェックポイントを更新し、
+ * 中断・取消されたジョブはチェックポイントの翌日から再開できる。
+ */
+@Entity
+@Table(name = "schedule_jobs", indexes = {
+        @Index(name = "idx_schedule_jobs_month", columnList = "target_year,target_month"),
+        @Index(name = "idx_schedule_jobs_batch", columnList = "batch_id")
+})
+public class ScheduleJob {
+
+    public enum Type {
+        MONTH
+    }
+
+    public enum Phase {
+        QUEUED,
+        LOADING,
+        GENERATING,
+        PLACEHOLDERS,
+        COMPLETED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type = Type.MONTH;
+
+    @Column(name = "target_year", nullable = false)
+    private Integer year;
+
+    @Column(name = "target_month", nullable = false)
+    private Integer month;
+
+    @Column(nullable = false)
+    private Integer granularity = SlotAxis.DEFAULT_GRANULARITY;
+
+    // Set for the month jobs of a multi-month batch; months run in order on one worker
+    @Column(name = "batch_id", length = 36)
+    private String batchId;
+
+    // Node that queued or is running the job; other nodes only pick it up once that node stops heartbeating
+    @Column(name = "node_id", length = 128)
+    private String nodeId;
+
+    @Column(name = "reset_month", nullable = false)
+    private Boolean resetMonth = Boolean.FALSE;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Phase phase = Phase.QUEUED;
+
+    @Column(name = "days_total")
+    private Integer daysTotal = 0;
+
+    @Column(name = "days_completed")
+    private Integer daysCompleted = 0;
+
+    @Column(name = "created_count")
+    private Long createdCount = 0L;
+
+    @Column(name = "cancel_requested")
+    private Boolean cancelRequested = Boolean.FALSE;
+
+    @Column(name = "queued_at", nullable = false)
+    private LocalDateTime queuedAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "deadline_at")
+    private LocalDateTime deadlineAt;
+
+    @Column(length = 1000)
+    private String error;
+
+    // Checkpoint: last committed day and the generator state needed to continue after it
+    @Column(name = "checkpoint_date")
+    private LocalDate checkpointDate;
+
+    @Column(name = "rotate_offset")
+    private Integer rotateOffset = 0;
+
+    @Column(name = "seeded_count")
+    private Integer seededCount = 0;
+
+    @Column(name = "dropped_count")
+    private Integer droppedCount = 0;
+
+    public ScheduleJob() {
+    }
+
+    public ScheduleJob(int year, int month, int granularity, boolean resetMonth) {
+        this.year = year;
+        this.month = month;
+        this.granularity = granularity;
+        this.resetMonth = resetMonth;
+        this.queuedAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    public Integer getYear() { return year; }
+    public Integer getMonth() { return month; }
+    public Integer getGranularity() { return granularity; }
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+    public Boolean getResetMonth() { return resetMonth; }
+    public Phase getPhase() { return phase; }
+    public void setPhase(Phase phase) { this.phase = phase; }
+    public Integer getDaysTotal() { return daysTotal; }
+    public void setDaysTotal(Integer daysTotal) { this.daysTotal = daysTotal; }
+    public Integer getDaysCompleted() { return daysCompleted; }
+    public void setDaysCompleted(Integer daysCompleted) { this.daysCompleted = daysCompleted; }
+    public Long getCreatedCount() { return createdCount; }
+    public void setCreatedCount(Long createdCount) { this.createdCount = createdCount; }
+    public Boolean getCancelRequested() { return cancelRequested; }
+    public void setCancelRequested(Boolean cancelRequested) { this.cancelRequested = cancelRequested; }
+    public LocalDateTime getQueuedAt() { return queuedAt; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    public LocalDateTime getDeadlineAt() { return deadlineAt; }
+    public void setDeadlineAt(LocalDateTime deadlineAt) { this.deadlineAt = deadlineAt; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public LocalDate getCheckpointDate() { return checkpointDate; }
+    public void setCheckpointDate(LocalDate checkpointDate) { this.checkpointDate = checkpointDate; }
+    public Integer getRotateOffset() { return rotateOffset; }
+    public void setRotateOffset(Integer rotateOffset) { this.rotateOffset = rotateOffset; }
+    public Integer getSeededCount() { return seededCount; }
+    public void setSeededCount(Integer seededCount) { this.seededCount = seededCount; }
+    public Integer getDroppedCount() { return droppedCount; }
+    public void setDroppedCount(Integer droppedCount) { this.droppedCount = droppedCount; }
+    public void setQueuedAt(LocalDateTime queuedAt) { this.queuedAt = queuedAt; }
+}
@@ -0,0 +1,106 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.common.ApiResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/schedule/jobs")
+public class ScheduleJobController {
+    private static final int MAX_LIST_LIMIT = 200;
+
+    private final ScheduleJobStatusService jobStatusService;
+    private final GenerationEventHub eventHub;
+    private final ScheduleJobRunner jobRunner;
+
+    public ScheduleJobController(ScheduleJobStatusService jobStatusService, GenerationEventHub eventHub,
+                                 ScheduleJobRunner jobRunner) {
+        this.jobStatusService = jobStatusService;
+        this.eventHub = eventHub;
+        this.jobRunner = jobRunner;
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ScheduleJobView>>> list(
+            @RequestParam(name = "year", required = false) Integer year,
+            @RequestParam(name = "month", required = false) Integer month,
+            @RequestParam(name = "limit", required = false, defaultValue = "20") int limit) {
+        List<ScheduleJobView> data = jobStatusService.list(year, month, Math.min(limit, MAX_LIST_LIMIT));
+        return ResponseEntity.ok(ApiResponse.success("生成ジョブ一覧を取得しました", data));
+    }
+
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<ApiResponse<ScheduleJobView>> get(@PathVariable("id") Long id) {
+        Optional<ScheduleJobView> job = jobStatusService.find(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.failure("ジョブが見つかりません"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("生成ジョブを取得しました", job.get()));
+    }
+
+    // "day" events carry each finished day's assignments and coverage; "done" carries the final job state
+    @GetMapping(value = "/{id:\\d+}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable("id") Long id) {
+        Optional<ScheduleJobView> job = jobStatusService.find(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(eventHub.subscribe(job.get()));
+    }
+
+    @PostMapping("/{id:\\d+}/cancel")
+    public ResponseEntity<ApiResponse<ScheduleJobView>> cancel(@PathVariable("id") Long id) {
+        Optional<ScheduleJobView> job = jobRunner.cancel(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.failure("ジョブが見つかりません"));
+        }
+        ScheduleJobView view = job.get();
+        if (view.phase().isTerminal() && view.phase() != ScheduleJob.Phase.CANCELLED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.failure("終了済みのジョブは取り消せません"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("取消を受け付けました", view));
+    }
+
+    @GetMapping("/batches/{batchId}")
+    public ResponseEntity<ApiResponse<ScheduleBatchView>> batch(@PathVariable("batchId") String batchId) {
+        Optional<ScheduleBatchView> batch = jobStatusService.batch(batchId);
+        if (batch.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.failure("バッチが見つかりません"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("バッチの進捗を取得しました", batch.get()));
+    }
+
+    @PostMapping("/batches/{batchId}/cancel")
+    public ResponseEntity<ApiResponse<ScheduleBatchView>> cancelBatch(@PathVariable("batchId") String batchId) {
+        Optional<ScheduleBatchView> batch = jobRunner.cancelBatch(batchId);
+        if (batch.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.failure("バッチが見つかりません"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("取消を受け付けました", batch.get()));
+    }
+
+    // Re-queues a failed or cancelled job; it continues after its last committed day
+    @PostMapping("/{id:\\d+}/resume")
+    public ResponseEntity<ApiResponse<ScheduleJobView>> resume(@PathVariable("id") Long id) {
+        if (jobStatusService.find(id).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.failure("ジョブが見つかりません"));
+        }
+        Optional<ScheduleJob> requeued = jobStatusService.requeue(id);
+        if (requeued.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.failure("失敗または取消されたジョブのみ再開できます"));
+        }
+        try {
+            jobRunner.submitExisting(id);
+        } catch (GenerationQueue.QueueFullException e) {
+            jobRunner.reject(id, "実行キューが満杯のため受け付けられませんでした");
+            return ScheduleController.queueFull(e);
+        }
+        return ResponseEntity.ok(ApiResponse.success("ジョブを再開しました", jobStatusService.find(id).orElseThrow()));
+    }
+}
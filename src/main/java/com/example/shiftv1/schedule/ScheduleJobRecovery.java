@@ -0,0 +1,83 @@
+package com.example.shiftv1.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 起動時に、前回プロセスで終わらなかった生成ジョブをチェックポイントから再開する。
+ * 複数ノード構成では、ハートビートが途絶えたノードのジョブも定期的に引き取る。
+ */
+@Component
+public class ScheduleJobRecovery {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleJobRecovery.class);
+
+    private final ScheduleJobStatusService jobStatusService;
+    private final ScheduleJobRunner jobRunner;
+    private final ScheduleLeaseService leaseService;
+
+    @Value("${shift.jobs.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    public ScheduleJobRecovery(ScheduleJobStatusService jobStatusService, ScheduleJobRunner jobRunner,
+                               ScheduleLeaseService leaseService) {
+        this.jobStatusService = jobStatusService;
+        this.jobRunner = jobRunner;
+        this.leaseService = leaseService;
+    }
+
+    // Our own jobs from the previous process, plus those of nodes that are no longer alive
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        leaseService.heartbeat();
+        resume(job -> job.getNodeId() == null || !leaseService.isAlive(job.getNodeId())
+                || leaseService.nodeId().equals(job.getNodeId()));
+    }
+
+    // Only other nodes' jobs: ours are live or waiting in the local queue
+    @Scheduled(initialDelayString = "${shift.jobs.orphan-sweep-ms:60000}", fixedDelayString = "${shift.jobs.orphan-sweep-ms:60000}")
+    public void resumeOrphanedJobs() {
+        try {
+            resume(job -> job.getNodeId() != null && !leaseService.nodeId().equals(job.getNodeId())
+                    && !leaseService.isAlive(job.getNodeId()));
+        } catch (DataAccessException e) {
+            logger.warn("Orphaned schedule job sweep failed", e);
+        }
+    }
+
+    private void resume(Predicate<ScheduleJob> orphaned) {
+        // Batch months must keep running in order on one worker
+        Map<String, List<Long>> batches = new LinkedHashMap<>();
+        for (ScheduleJob job : jobStatusService.recoverInterrupted(resumeOnStartup, orphaned)) {
+            if (job.getBatchId() != null) {
+                batches.computeIfAbsent(job.getBatchId(), k -> new ArrayList<>()).add(job.getId());
+                continue;
+            }
+            try {
+                jobRunner.submitExisting(job.getId());
+                logger.info("Resuming interrupted schedule job {}", job.getId());
+            } catch (GenerationQueue.QueueFullException e) {
+                jobRunner.reject(job.getId(), "実行キューが満杯のため再開できませんでした");
+            }
+        }
+        batches.forEach((batchId, jobIds) -> {
+            try {
+                jobRunner.submitExistingBatch(jobIds);
+                logger.info("Resuming interrupted schedule batch {} ({} months)", batchId, jobIds.size());
+            } catch (GenerationQueue.QueueFullException e) {
+                jobIds.forEach(id -> jobRunner.reject(id, "実行キューが満杯のため再開できませんでした"));
+            }
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.shiftv1.schedule;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ScheduleJobRepository extends JpaRepository<ScheduleJob, Long> {
+    List<ScheduleJob> findAllByOrderByIdDesc(Pageable pageable);
+
+    List<ScheduleJob> findByYearAndMonthOrderByIdDesc(Integer year, Integer month, Pageable pageable);
+
+    Optional<ScheduleJob> findFirstByYearAndMonthOrderByIdDesc(Integer year, Integer month);
+
+    List<ScheduleJob> findByPhaseIn(Collection<ScheduleJob.Phase> phases);
+
+    List<ScheduleJob> findByBatchIdOrderByYearAscMonthAsc(String batchId);
+}
@@ -0,0 +1,221 @@
+package com.example.shiftv1.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 生成ジョブを実行する。生成本体のトランザクションの外側で動き、結果（完了・取消・失敗）をジョブ行に記録する。
+ * 非同期の実行は {@link GenerationQueue} を通す。
+ */
+@Service
+public class ScheduleJobRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleJobRunner.class);
+
+    private final ScheduleJobStatusService jobStatusService;
+    private final ScheduleService scheduleService;
+    private final GenerationEventHub eventHub;
+    private final Executor prefetchExecutor;
+    private final GenerationQueue queue;
+    private final MonthLockManager monthLocks;
+    private final ScheduleLeaseService leaseService;
+
+    public ScheduleJobRunner(ScheduleJobStatusService jobStatusService, ScheduleService scheduleService,
+                             GenerationEventHub eventHub,
+                             @Qualifier("taskExecutor") Executor prefetchExecutor,
+                             GenerationQueue queue, MonthLockManager monthLocks,
+                             ScheduleLeaseService leaseService) {
+        this.jobStatusService = jobStatusService;
+        this.scheduleService = scheduleService;
+        this.eventHub = eventHub;
+        this.prefetchExecutor = prefetchExecutor;
+        this.queue = queue;
+        this.monthLocks = monthLocks;
+        this.leaseService = leaseService;
+    }
+
+    /** Queues a month job; an identical month request that has not started yet is returned instead. */
+    public GenerationQueue.Ticket<ScheduleJobView> submitMonth(YearMonth target, int granularity, boolean reset,
+                                                               Integer deadlineMinutes) {
+        GenerationQueue.RequestKey key = new GenerationQueue.RequestKey("month", target.atDay(1), 1, granularity, reset);
+        return queue.submit(key, GenerationQueue.Priority.BULK,
+                () -> List.of(jobStatusService.create(target.getYear(), target.getMonthValue(), granularity, reset,
+                        deadlineMinutes).getId()),
+                ids -> run(ids.get(0)));
+    }
+
+    public GenerationQueue.Ticket<List<ScheduleJobView>> submitBatch(YearMonth first, int months, int granularity,
+                                                                     boolean reset, Integer deadlineMinutes) {
+        GenerationQueue.RequestKey key = new GenerationQueue.RequestKey("batch", first.atDay(1), months, granularity, reset);
+        return queue.submit(key, GenerationQueue.Priority.BULK,
+                () -> jobStatusService.createBatch(first, months, granularity, reset, deadlineMinutes).stream()
+                        .map(ScheduleJob::getId).toList(),
+                this::runBatch);
+    }
+
+    /** Queues an already registered (resumed or recovered) job. */
+    public GenerationQueue.Ticket<ScheduleJobView> submitExisting(Long jobId) {
+        return queue.submit(null, GenerationQueue.Priority.BULK, () -> List.of(jobId), ids -> run(ids.get(0)));
+    }
+
+    public GenerationQueue.Ticket<List<ScheduleJobView>> submitExistingBatch(List<Long> jobIds) {
+        return queue.submit(null, GenerationQueue.Priority.BULK, () -> jobIds, this::runBatch);
+    }
+
+    /** Single-day regeneration; runs ahead of queued months. */
+    public GenerationQueue.Ticket<List<ShiftAssignment>> submitDay(LocalDate date, boolean reset, int granularity) {
+        GenerationQueue.RequestKey key = new GenerationQueue.RequestKey("day", date, 1, granularity, reset);
+        return queue.submit(key, GenerationQueue.Priority.INTERACTIVE, List::of,
+                ids -> monthLocks.withGenerationLock(YearMonth.from(date), MonthLockManager.Owner.DAY, () -> { },
+                        () -> scheduleService.generateForDateFromDemand(date, reset, granularity)));
+    }
+
+    public Optional<ScheduleJobView> cancel(Long jobId) {
+        queue.detach(jobId);
+        return jobStatusService.cancel(jobId);
+    }
+
+    public Optional<ScheduleBatchView> cancelBatch(String batchId) {
+        Optional<ScheduleBatchView> batch = jobStatusService.cancelBatch(batchId);
+        batch.ifPresent(b -> b.jobs().forEach(job -> queue.detach(job.id())));
+        return batch;
+    }
+
+    public ScheduleJobView run(Long jobId) {
+        ScheduleJobView result = runLeased(jobId, scheduleService::generateMonthlyForJob);
+        // After the outcome is committed, so late subscribers reading the job see the same state
+        eventHub.close(jobId, result);
+        return result;
+    }
+
+    /**
+     * Runs the months of a batch in order on this thread. The next month's inputs are loaded on the
+     * task executor while the current month generates, and the weekly-rest worked days are handed over
+     * in memory. A month that does not complete stops the batch; later months are cancelled.
+     */
+    public List<ScheduleJobView> runBatch(List<Long> jobIds) {
+        List<ScheduleJobView> results = new ArrayList<>();
+        AtomicReference<CompletableFuture<ScheduleService.PreparedMonth>> next = new AtomicReference<>(prefetch(jobIds, 0));
+        ScheduleService.WeeklyCarry[] carry = new ScheduleService.WeeklyCarry[1];
+        String stopReason = null;
+        for (int i = 0; i < jobIds.size(); i++) {
+            Long jobId = jobIds.get(i);
+            ScheduleJobView result;
+            if (stopReason != null) {
+                result = jobStatusService.skip(jobId, stopReason);
+            } else {
+                int nextIndex = i + 1;
+                result = runLeased(jobId, handle -> {
+                    ScheduleService.PreparedMonth prepared = await(next.getAndSet(prefetch(jobIds, nextIndex)));
+                    carry[0] = scheduleService.generateMonthlyForBatch(handle, prepared, carry[0]);
+                });
+                if (result.phase() != ScheduleJob.Phase.COMPLETED) {
+                    stopReason = String.format("%d年%d月が完了しなかったため中止しました", result.year(), result.month());
+                }
+            }
+            eventHub.close(jobId, result);
+            results.add(result);
+        }
+        return results;
+    }
+
+    /** For jobs the queue refused to take. */
+    public ScheduleJobView reject(Long jobId, String reason) {
+        ScheduleJobView result = jobStatusService.fail(jobId, reason);
+        eventHub.close(jobId, result);
+        return result;
+    }
+
+    /**
+     * Runs one month under its cluster lease. Another node (or another job on this node) holding the month
+     * leaves the job alone when it is the same job, and fails it otherwise.
+     */
+    private ScheduleJobView runLeased(Long jobId, Consumer<GenerationJobHandle> generation) {
+        ScheduleJobView queued = jobStatusService.find(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("ジョブが見つかりません: " + jobId));
+        String key = ScheduleLeaseService.monthKey(queued.year(), queued.month());
+        AtomicReference<GenerationJobHandle> running = new AtomicReference<>();
+        boolean leased = leaseService.tryAcquire(key, jobId, () -> {
+            GenerationJobHandle handle = running.get();
+            if (handle != null) {
+                handle.requestCancel();
+            }
+        });
+        if (!leased) {
+            return heldElsewhere(queued, key);
+        }
+        try {
+            GenerationJobHandle handle = jobStatusService.begin(jobId);
+            if (handle == null) {
+                // Cancelled while still queued
+                return jobStatusService.find(jobId).orElseThrow();
+            }
+            running.set(handle);
+            return execute(handle, () -> generation.accept(handle));
+        } finally {
+            leaseService.release(key);
+        }
+    }
+
+    private ScheduleJobView heldElsewhere(ScheduleJobView queued, String key) {
+        Optional<ScheduleLease> holder = leaseService.holder(key);
+        if (holder.isPresent() && queued.id().equals(holder.get().getJobId())) {
+            logger.info("Schedule job {} is already running on {}", queued.id(), holder.get().getOwner());
+            return jobStatusService.find(queued.id()).orElse(queued);
+        }
+        String owner = holder.map(ScheduleLease::getOwner).orElse("?");
+        Long otherJob = holder.map(ScheduleLease::getJobId).orElse(null);
+        return jobStatusService.fail(queued.id(), String.format("%d年%d月は別のジョブ（#%s, %s）が生成中です",
+                queued.year(), queued.month(), otherJob, owner));
+    }
+
+    private ScheduleJobView execute(GenerationJobHandle handle, Runnable generation) {
+        handle.dayListener(eventHub);
+        try {
+            generation.run();
+            return jobStatusService.complete(handle);
+        } catch (GenerationCancelledException e) {
+            logger.info("Schedule job {} stopped after {} days: {}", handle.jobId(), handle.daysCompleted(), e.getMessage());
+            return jobStatusService.cancelled(handle, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Schedule job {} failed", handle.jobId(), e);
+            return jobStatusService.fail(handle, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private CompletableFuture<ScheduleService.PreparedMonth> prefetch(List<Long> jobIds, int index) {
+        if (index >= jobIds.size()) {
+            return null;
+        }
+        ScheduleJobView job = jobStatusService.find(jobIds.get(index)).orElse(null);
+        if (job == null || job.phase() != ScheduleJob.Phase.QUEUED) {
+            return null;
+        }
+        return CompletableFuture.supplyAsync(
+                () -> scheduleService.prepareMonth(job.year(), job.month(), job.granularity()), prefetchExecutor);
+    }
+
+    // A failed prefetch only costs the overlap: the month then loads its own inputs
+    private ScheduleService.PreparedMonth await(CompletableFuture<ScheduleService.PreparedMonth> future) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.join();
+        } catch (Exception e) {
+            logger.warn("Prefetch for the next batch month failed; loading it inline", e);
+            return null;
+        }
+    }
+}
@@ -1,52 +1,326 @@
 package com.example.shiftv1.schedule;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
+/**
+ * 生成ジョブの記録と実行中ハンドルの管理。
+ * 実行中の進捗はハンドル（メモリ）に置き、ジョブ行はキュー投入・開始・終了と、
+ * 生成のコミット単位ごとのチェックポイント（同じトランザクション内で書く）で更新する。
+ */
 @Component
 public class ScheduleJobStatusService {
-    public static class Status {
-        public volatile boolean running;
-        public volatile boolean done;
-        public volatile long createdCount;
-        public volatile LocalDateTime startedAt;
-        public volatile LocalDateTime finishedAt;
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleJobStatusService.class);
+    private static final int ERROR_MAX_LENGTH = 1000;
+
+    private final ScheduleJobRepository repository;
+    private final GenerationEventHub eventHub;
+    private final ScheduleLeaseService leaseService;
+    private final Map<Long, GenerationJobHandle> live = new ConcurrentHashMap<>();
+
+    public ScheduleJobStatusService(ScheduleJobRepository repository, GenerationEventHub eventHub,
+                                    ScheduleLeaseService leaseService) {
+        this.repository = repository;
+        this.eventHub = eventHub;
+        this.leaseService = leaseService;
     }
 
-    private final Map<String, Status> jobs = new ConcurrentHashMap<>();
+    @Transactional
+    public ScheduleJob create(int year, int month, int granularity, boolean resetMonth, Integer deadlineMinutes) {
+        ScheduleJob job = new ScheduleJob(year, month, granularity, resetMonth);
+        job.setNodeId(leaseService.nodeId());
+        if (deadlineMinutes != null && deadlineMinutes > 0) {
+            job.setDeadlineAt(job.getQueuedAt().plusMinutes(deadlineMinutes));
+        }
+        ScheduleJob saved = repository.save(job);
+        eventHub.open(saved.getId());
+        return saved;
+    }
 
-    private String key(int year, int month) {
-        return year + "-" + month;
+    /**
+     * One QUEUED month job per month from {@code first}, sharing a batch id. Each month gets the deadline
+     * budget again, counted from queueing, since it waits for the months before it.
+     */
+    @Transactional
+    public List<ScheduleJob> createBatch(YearMonth first, int months, int granularity, boolean resetMonth,
+                                         Integer deadlineMinutes) {
+        String batchId = UUID.randomUUID().toString();
+        List<ScheduleJob> jobs = new ArrayList<>();
+        for (int i = 0; i < months; i++) {
+            YearMonth ym = first.plusMonths(i);
+            ScheduleJob job = new ScheduleJob(ym.getYear(), ym.getMonthValue(), granularity, resetMonth);
+            job.setBatchId(batchId);
+            job.setNodeId(leaseService.nodeId());
+            if (deadlineMinutes != null && deadlineMinutes > 0) {
+                job.setDeadlineAt(job.getQueuedAt().plusMinutes((long) deadlineMinutes * (i + 1)));
+            }
+            jobs.add(repository.save(job));
+        }
+        jobs.forEach(job -> eventHub.open(job.getId()));
+        return jobs;
     }
 
-    public void start(int year, int month, long initialCount) {
-        String k = key(year, month);
-        Status s = jobs.computeIfAbsent(k, kk -> new Status());
-        s.running = true;
-        s.done = false;
-        s.createdCount = Math.max(0, initialCount);
-        s.startedAt = LocalDateTime.now();
-        s.finishedAt = null;
+    /** Marks the job as started; returns null when it was cancelled (or finished) before it got a worker. */
+    @Transactional
+    public GenerationJobHandle begin(Long jobId) {
+        ScheduleJob job = repository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("ジョブが見つかりません: " + jobId));
+        if (job.getPhase().isTerminal()) {
+            return null;
+        }
+        job.setPhase(ScheduleJob.Phase.LOADING);
+        job.setStartedAt(LocalDateTime.now());
+        job.setNodeId(leaseService.nodeId());
+        repository.save(job);
+        GenerationJobHandle handle = new GenerationJobHandle(job.getId(), job.getYear(), job.getMonth(),
+                job.getGranularity(), Boolean.TRUE.equals(job.getResetMonth()), job.getDeadlineAt());
+        if (job.getCheckpointDate() != null) {
+            handle.resumeFrom(new GenerationJobHandle.Checkpoint(job.getCheckpointDate(), nz(job.getDaysCompleted()),
+                    job.getCreatedCount() == null ? 0L : job.getCreatedCount(), nz(job.getRotateOffset()),
+                    nz(job.getSeededCount()), nz(job.getDroppedCount())));
+        }
+        handle.checkpointStore(this::writeCheckpoint);
+        live.put(job.getId(), handle);
+        return handle;
     }
 
-    public void updateCount(int year, int month, long count) {
-        Status s = jobs.computeIfAbsent(key(year, month), kk -> new Status());
-        s.createdCount = Math.max(0, count);
+    /**
+     * Puts a failed or cancelled job back in the queue; it resumes after its checkpoint.
+     * Returns empty when the job does not exist or cannot be resumed.
+     */
+    @Transactional
+    public Optional<ScheduleJob> requeue(Long jobId) {
+        Optional<ScheduleJob> found = repository.findById(jobId);
+        if (found.isEmpty() || live.containsKey(jobId)) {
+            return Optional.empty();
+        }
+        ScheduleJob job = found.get();
+        if (job.getPhase() != ScheduleJob.Phase.FAILED && job.getPhase() != ScheduleJob.Phase.CANCELLED) {
+            return Optional.empty();
+        }
+        requeue(job);
+        ScheduleJob saved = repository.save(job);
+        eventHub.open(saved.getId());
+        return Optional.of(saved);
     }
 
-    public void finish(int year, int month, long finalCount) {
-        Status s = jobs.computeIfAbsent(key(year, month), kk -> new Status());
-        s.createdCount = Math.max(0, finalCount);
-        s.running = false;
-        s.done = true;
-        s.finishedAt = LocalDateTime.now();
+    @Transactional
+    public ScheduleJobView complete(GenerationJobHandle handle) {
+        return finish(handle, ScheduleJob.Phase.COMPLETED, null);
     }
 
-    public Status get(int year, int month) {
-        return jobs.getOrDefault(key(year, month), new Status());
+    @Transactional
+    public ScheduleJobView cancelled(GenerationJobHandle handle, String reason) {
+        return finish(handle, ScheduleJob.Phase.CANCELLED, reason);
+    }
+
+    @Transactional
+    public ScheduleJobView fail(GenerationJobHandle handle, String error) {
+        return finish(handle, ScheduleJob.Phase.FAILED, error);
+    }
+
+    /** For jobs that never reached a worker (e.g. the executor rejected them). */
+    @Transactional
+    public ScheduleJobView fail(Long jobId, String error) {
+        ScheduleJob job = repository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("ジョブが見つかりません: " + jobId));
+        job.setPhase(ScheduleJob.Phase.FAILED);
+        job.setFinishedAt(LocalDateTime.now());
+        job.setError(truncate(error));
+        return ScheduleJobView.from(repository.save(job), null);
+    }
+
+    /**
+     * Queued jobs are cancelled right away; running jobs get the flag on their handle and stop at the
+     * next day boundary.
+     */
+    @Transactional
+    public Optional<ScheduleJobView> cancel(Long jobId) {
+        Optional<ScheduleJob> found = repository.findById(jobId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        ScheduleJob job = found.get();
+        GenerationJobHandle handle = live.get(jobId);
+        if (handle != null) {
+            handle.requestCancel();
+        } else if (job.getPhase() == ScheduleJob.Phase.QUEUED) {
+            job.setCancelRequested(Boolean.TRUE);
+            job.setPhase(ScheduleJob.Phase.CANCELLED);
+            job.setFinishedAt(LocalDateTime.now());
+            job = repository.save(job);
+        } else if (!job.getPhase().isTerminal()) {
+            // Running on another node; it picks the flag up at its next checkpoint
+            job.setCancelRequested(Boolean.TRUE);
+            job = repository.save(job);
+        }
+        return Optional.of(ScheduleJobView.from(job, live.get(jobId)));
+    }
+
+    /** Closes out a queued batch month that will not run because an earlier month did not complete. */
+    @Transactional
+    public ScheduleJobView skip(Long jobId, String reason) {
+        ScheduleJob job = repository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("ジョブが見つかりません: " + jobId));
+        if (job.getPhase() == ScheduleJob.Phase.QUEUED) {
+            job.setPhase(ScheduleJob.Phase.CANCELLED);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setError(truncate(reason));
+            job = repository.save(job);
+        }
+        return ScheduleJobView.from(job, live.get(jobId));
+    }
+
+    @Transactional
+    public Optional<ScheduleBatchView> cancelBatch(String batchId) {
+        List<ScheduleJob> jobs = repository.findByBatchIdOrderByYearAscMonthAsc(batchId);
+        if (jobs.isEmpty()) {
+            return Optional.empty();
+        }
+        jobs.forEach(job -> cancel(job.getId()));
+        return batch(batchId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ScheduleBatchView> batch(String batchId) {
+        List<ScheduleJob> jobs = repository.findByBatchIdOrderByYearAscMonthAsc(batchId);
+        if (jobs.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(ScheduleBatchView.of(batchId,
+                jobs.stream().map(job -> ScheduleJobView.from(job, live.get(job.getId()))).toList()));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ScheduleJobView> find(Long jobId) {
+        return repository.findById(jobId).map(job -> ScheduleJobView.from(job, live.get(job.getId())));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScheduleJobView> list(Integer year, Integer month, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, limit));
+        List<ScheduleJob> jobs = (year != null && month != null)
+                ? repository.findByYearAndMonthOrderByIdDesc(year, month, page)
+                : repository.findAllByOrderByIdDesc(page);
+        return jobs.stream().map(job -> ScheduleJobView.from(job, live.get(job.getId()))).toList();
+    }
+
+    /** Latest job for the month, used by /jobs/status polling. */
+    @Transactional(readOnly = true)
+    public Optional<ScheduleJobView> latest(int year, int month) {
+        return repository.findFirstByYearAndMonthOrderByIdDesc(year, month)
+                .map(job -> ScheduleJobView.from(job, live.get(job.getId())));
+    }
+
+    /**
+     * Jobs left unfinished by a previous process, or by a node that stopped heartbeating ({@code orphaned}).
+     * They are re-queued on this node to resume from their checkpoint, or marked FAILED (still resumable by
+     * hand) when {@code resume} is false. Returns the re-queued jobs in year/month order.
+     */
+    @Transactional
+    public List<ScheduleJob> recoverInterrupted(boolean resume, Predicate<ScheduleJob> orphaned) {
+        List<ScheduleJob> stale = repository.findByPhaseIn(EnumSet.of(ScheduleJob.Phase.QUEUED,
+                ScheduleJob.Phase.LOADING, ScheduleJob.Phase.GENERATING, ScheduleJob.Phase.PLACEHOLDERS));
+        List<ScheduleJob> requeued = new ArrayList<>();
+        List<ScheduleJob> recovered = new ArrayList<>();
+        for (ScheduleJob job : stale) {
+            if (live.containsKey(job.getId()) || !orphaned.test(job)) {
+                continue;
+            }
+            recovered.add(job);
+            if (resume) {
+                requeue(job);
+                eventHub.open(job.getId());
+                requeued.add(job);
+            } else {
+                job.setPhase(ScheduleJob.Phase.FAILED);
+                job.setFinishedAt(LocalDateTime.now());
+                job.setError("サーバー再起動により中断されました");
+            }
+        }
+        if (!recovered.isEmpty()) {
+            repository.saveAll(recovered);
+            logger.info("Recovered {} interrupted schedule jobs ({} re-queued)", recovered.size(), requeued.size());
+        }
+        requeued.sort(Comparator.comparing(ScheduleJob::getYear).thenComparing(ScheduleJob::getMonth));
+        return requeued;
+    }
+
+    // Runs inside the generator's unit transaction, so the checkpoint commits with the unit's days
+    private void writeCheckpoint(GenerationJobHandle handle, GenerationJobHandle.Checkpoint checkpoint) {
+        ScheduleJob job = repository.findById(handle.jobId())
+                .orElseThrow(() -> new IllegalArgumentException("ジョブが見つかりません: " + handle.jobId()));
+        if (Boolean.TRUE.equals(job.getCancelRequested())) {
+            // Cancelled from another node
+            handle.requestCancel();
+        }
+        job.setPhase(ScheduleJob.Phase.GENERATING);
+        job.setCheckpointDate(checkpoint.lastDay());
+        job.setDaysTotal(handle.daysTotal());
+        job.setDaysCompleted(checkpoint.daysCompleted());
+        job.setCreatedCount(checkpoint.createdCount());
+        job.setRotateOffset(checkpoint.rotate());
+        job.setSeededCount(checkpoint.seeded());
+        job.setDroppedCount(checkpoint.dropped());
+        repository.save(job);
     }
-}
 
+    private void requeue(ScheduleJob job) {
+        if (job.getDeadlineAt() != null && job.getQueuedAt() != null) {
+            // Same time budget as the original run
+            Duration budget = Duration.between(job.getQueuedAt(), job.getDeadlineAt());
+            job.setDeadlineAt(LocalDateTime.now().plus(budget));
+        }
+        job.setQueuedAt(LocalDateTime.now());
+        job.setNodeId(leaseService.nodeId());
+        job.setPhase(ScheduleJob.Phase.QUEUED);
+        job.setCancelRequested(Boolean.FALSE);
+        job.setFinishedAt(null);
+        job.setError(null);
+    }
+
+    private ScheduleJobView finish(GenerationJobHandle handle, ScheduleJob.Phase phase, String error) {
+        try {
+            ScheduleJob job = repository.findById(handle.jobId())
+                    .orElseThrow(() -> new IllegalArgumentException("ジョブが見つかりません: " + handle.jobId()));
+            job.setPhase(phase);
+            job.setDaysTotal(handle.daysTotal());
+            // Handle counters only advance after a unit commits, so they match the checkpoint
+            job.setDaysCompleted(handle.daysCompleted());
+            job.setCreatedCount(handle.createdCount());
+            job.setCancelRequested(handle.cancelRequested());
+            job.setFinishedAt(LocalDateTime.now());
+            job.setError(truncate(error));
+            return ScheduleJobView.from(repository.save(job), null);
+        } finally {
+            live.remove(handle.jobId());
+        }
+    }
+
+    private static int nz(Integer v) {
+        return v == null ? 0 : v;
+    }
+
+    private static String truncate(String s) {
+        if (s == null || s.length() <= ERROR_MAX_LENGTH) {
+            return s;
+        }
+        return s.substring(0, ERROR_MAX_LENGTH);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.shiftv1.schedule;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record ScheduleJobView(
+        Long id,
+        ScheduleJob.Type type,
+        String batchId,
+        String nodeId,
+        int year,
+        int month,
+        int granularity,
+        boolean resetMonth,
+        ScheduleJob.Phase phase,
+        int daysTotal,
+        int daysCompleted,
+        long createdCount,
+        boolean cancelRequested,
+        LocalDateTime queuedAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        LocalDateTime deadlineAt,
+        Long elapsedMillis,
+        LocalDate checkpointDate,
+        String error
+) {
+    public boolean running() {
+        return phase != ScheduleJob.Phase.QUEUED && !phase.isTerminal();
+    }
+
+    /** Persisted record, overlaid with the live handle while the job is running. */
+    static ScheduleJobView from(ScheduleJob job, GenerationJobHandle live) {
+        ScheduleJob.Phase phase = live != null ? live.phase() : job.getPhase();
+        int daysTotal = live != null ? live.daysTotal() : nz(job.getDaysTotal());
+        int daysCompleted = live != null ? live.daysCompleted() : nz(job.getDaysCompleted());
+        long created = live != null ? live.createdCount() : job.getCreatedCount() == null ? 0L : job.getCreatedCount();
+        boolean cancel = (live != null && live.cancelRequested()) || Boolean.TRUE.equals(job.getCancelRequested());
+        Long elapsed = null;
+        if (job.getStartedAt() != null) {
+            LocalDateTime until = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            elapsed = Duration.between(job.getStartedAt(), until).toMillis();
+        }
+        return new ScheduleJobView(
+                job.getId(),
+                job.getType(),
+                job.getBatchId(),
+                job.getNodeId(),
+                job.getYear(),
+                job.getMonth(),
+                nz(job.getGranularity()),
+                Boolean.TRUE.equals(job.getResetMonth()),
+                phase,
+                daysTotal,
+                daysCompleted,
+                created,
+                cancel,
+                job.getQueuedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.getDeadlineAt(),
+                elapsed,
+                job.getCheckpointDate(),
+                job.getError()
+        );
+    }
+
+    private static int nz(Integer v) {
+        return v == null ? 0 : v;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.shiftv1.schedule;
+
+import jakarta.persistence.*;
+
+/**
+ * 生成の実行権（リース）。同じキー（対象月など）を実行できるのは1ノードだけで、
+ * 保持ノードはハートビートで期限を延ばす。期限切れのリースは他のノードが引き継げる。
+ * 時刻はノード間で比較しやすいようエポックミリ秒で保持する。
+ */
+@Entity
+@Table(name = "schedule_leases", indexes = {
+        @Index(name = "idx_schedule_leases_owner", columnList = "owner")
+})
+public class ScheduleLease {
+
+    @Id
+    @Column(name = "lease_key", length = 64)
+    private String leaseKey;
+
+    @Column(nullable = false, length = 128)
+    private String owner;
+
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @Column(name = "acquired_at", nullable = false)
+    private Long acquiredAt;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private Long heartbeatAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Long expiresAt;
+
+    public ScheduleLease() {
+    }
+
+    // In-memory lease for single-node mode
+    ScheduleLease(String leaseKey, String owner, Long jobId, long expiresAt) {
+        this.leaseKey = leaseKey;
+        this.owner = owner;
+        this.jobId = jobId;
+        this.acquiredAt = System.currentTimeMillis();
+        this.heartbeatAt = this.acquiredAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getLeaseKey() { return leaseKey; }
+    public String getOwner() { return owner; }
+    public Long getJobId() { return jobId; }
+    public Long getAcquiredAt() { return acquiredAt; }
+    public Long getHeartbeatAt() { return heartbeatAt; }
+    public Long getExpiresAt() { return expiresAt; }
+}
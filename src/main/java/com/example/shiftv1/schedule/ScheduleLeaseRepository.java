@@ -0,0 +1,39 @@
+package com.example.shiftv1.schedule;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface ScheduleLeaseRepository extends JpaRepository<ScheduleLease, String> {
+
+    // Atomic on SQLite: exactly one of two concurrent inserts for the same key succeeds. The table hint keeps
+    // Hibernate from dropping every second-level cache region after a native write.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "schedule_leases"))
+    @Query(value = "INSERT OR IGNORE INTO schedule_leases (lease_key, owner, job_id, acquired_at, heartbeat_at, expires_at) "
+            + "VALUES (:key, :owner, :jobId, :now, :now, :expiresAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("key") String key, @Param("owner") String owner, @Param("jobId") Long jobId,
+                       @Param("now") long now, @Param("expiresAt") long expiresAt);
+
+    // Takes over an expired lease, or re-acquires our own for the same job
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ScheduleLease l SET l.owner = :owner, l.jobId = :jobId, l.acquiredAt = :now, l.heartbeatAt = :now, "
+            + "l.expiresAt = :expiresAt WHERE l.leaseKey = :key "
+            + "AND (l.expiresAt < :now OR (l.owner = :owner AND l.jobId = :jobId))")
+    int takeOver(@Param("key") String key, @Param("owner") String owner, @Param("jobId") Long jobId,
+                 @Param("now") long now, @Param("expiresAt") long expiresAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ScheduleLease l SET l.heartbeatAt = :now, l.expiresAt = :expiresAt "
+            + "WHERE l.leaseKey = :key AND l.owner = :owner")
+    int renew(@Param("key") String key, @Param("owner") String owner,
+              @Param("now") long now, @Param("expiresAt") long expiresAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM ScheduleLease l WHERE l.leaseKey = :key AND l.owner = :owner")
+    int release(@Param("key") String key, @Param("owner") String owner);
+}
@@ -0,0 +1,161 @@
+package com.example.shiftv1.schedule;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DB 上のリースで、複数ノードのうち1ノードだけが同じ月を生成するようにする。
+ * 各ノードは自身の生存リース（{@code node:<id>}）と実行中の月のリースをハートビートで延長し、
+ * 延長できなかった（他ノードに引き継がれた）月は実行中のジョブを止める。
+ * {@code shift.cluster.enabled=false}（既定）の単一ノード構成では、同じ規則をメモリ上だけで適用し DB には書かない。
+ */
+@Component
+public class ScheduleLeaseService {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleLeaseService.class);
+    private static final String NODE_PREFIX = "node:";
+
+    private final ScheduleLeaseRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final long leaseMillis;
+    // Month leases held by this node, with what to do when one is lost
+    private final Map<String, Runnable> held = new ConcurrentHashMap<>();
+    private final boolean clusterEnabled;
+    // Single-node mode: the leases themselves
+    private final Map<String, ScheduleLease> local = new ConcurrentHashMap<>();
+
+    public ScheduleLeaseService(ScheduleLeaseRepository repository, TransactionTemplate transactionTemplate,
+                                @Value("${shift.cluster.node-id:}") String nodeId,
+                                @Value("${server.port:8080}") int serverPort,
+                                @Value("${shift.jobs.lease-seconds:30}") long leaseSeconds,
+                                @Value("${shift.cluster.enabled:false}") boolean clusterEnabled) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId(serverPort) : nodeId.trim();
+        this.leaseMillis = leaseSeconds * 1000;
+        this.clusterEnabled = clusterEnabled;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public static String monthKey(int year, int month) {
+        return String.format("month:%04d-%02d", year, month);
+    }
+
+    /**
+     * Takes the lease unless another live node holds it. {@code onLost} runs on the heartbeat thread if the
+     * lease can no longer be renewed.
+     */
+    public boolean tryAcquire(String key, Long jobId, Runnable onLost) {
+        if (!clusterEnabled) {
+            ScheduleLease lease = new ScheduleLease(key, nodeId, jobId, Long.MAX_VALUE);
+            ScheduleLease current = local.putIfAbsent(key, lease);
+            return current == null || Objects.equals(current.getJobId(), jobId);
+        }
+        boolean acquired = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            long now = System.currentTimeMillis();
+            return repository.insertIfAbsent(key, nodeId, jobId, now, now + leaseMillis) == 1
+                    || repository.takeOver(key, nodeId, jobId, now, now + leaseMillis) == 1;
+        }));
+        if (acquired) {
+            held.put(key, onLost);
+        }
+        return acquired;
+    }
+
+    public void release(String key) {
+        if (!clusterEnabled) {
+            local.remove(key);
+            return;
+        }
+        held.remove(key);
+        try {
+            transactionTemplate.executeWithoutResult(tx -> repository.release(key, nodeId));
+        } catch (DataAccessException e) {
+            // Expires on its own
+            logger.warn("Failed to release lease {}", key, e);
+        }
+    }
+
+    public Optional<ScheduleLease> holder(String key) {
+        if (!clusterEnabled) {
+            return Optional.ofNullable(local.get(key));
+        }
+        return transactionTemplate.execute(tx -> repository.findById(key)
+                .filter(lease -> lease.getExpiresAt() >= System.currentTimeMillis()));
+    }
+
+    /** Whether the node has renewed its liveness lease within the lease period. */
+    public boolean isAlive(String node) {
+        return nodeId.equals(node) || (clusterEnabled && holder(NODE_PREFIX + node).isPresent());
+    }
+
+    @Scheduled(fixedDelayString = "${shift.jobs.lease-heartbeat-ms:10000}")
+    public void heartbeat() {
+        if (!clusterEnabled) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                long now = System.currentTimeMillis();
+                String nodeKey = NODE_PREFIX + nodeId;
+                if (repository.renew(nodeKey, nodeId, now, now + leaseMillis) == 0
+                        && repository.insertIfAbsent(nodeKey, nodeId, null, now, now + leaseMillis) == 0) {
+                    repository.takeOver(nodeKey, nodeId, null, now, now + leaseMillis);
+                }
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Failed to renew node lease for {}", nodeId, e);
+        }
+        for (Map.Entry<String, Runnable> entry : held.entrySet()) {
+            String key = entry.getKey();
+            Integer renewed;
+            try {
+                renewed = transactionTemplate.execute(tx -> {
+                    long now = System.currentTimeMillis();
+                    return repository.renew(key, nodeId, now, now + leaseMillis);
+                });
+            } catch (DataAccessException e) {
+                // Retried on the next beat; the lease only lapses after the full period
+                logger.warn("Failed to renew lease {}", key, e);
+                continue;
+            }
+            if (renewed != null && renewed == 0 && held.remove(key, entry.getValue())) {
+                logger.warn("Lease {} was taken over by another node; stopping the local run", key);
+                entry.getValue().run();
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (!clusterEnabled) {
+            return;
+        }
+        held.keySet().forEach(this::release);
+        release(NODE_PREFIX + nodeId);
+    }
+
+    private static String defaultNodeId(int serverPort) {
+        try {
+            return InetAddress.getLocalHost().getHostName() + ":" + serverPort;
+        } catch (UnknownHostException e) {
+            return "localhost:" + serverPort;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.breaks.BreakPeriod;
+import com.example.shiftv1.breaks.BreakPeriodRepository;
+import com.example.shiftv1.exception.BusinessException;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 期間内のシフトを一括削除する。休憩 → シフト割り当て → 予約ステータスの戻し（APPLIED → PENDING）の順に、
+ * それぞれ1本の DELETE / UPDATE 文で処理し、件数をそのまま返す。
+ * 長い期間は {@code shift.db.purge-chunk-days} 日ごとに分けて、書き込みトランザクションを短く保つ。
+ */
+@Service
+public class SchedulePurgeService {
+    private static final Logger logger = LoggerFactory.getLogger(SchedulePurgeService.class);
+    // Caches holding per-month schedule data
+    static final List<String> AFFECTED_CACHES = List.of("monthly-schedules", "schedule-statistics");
+
+    private final BreakPeriodRepository breakRepository;
+    private final ShiftAssignmentRepository assignmentRepository;
+    private final ShiftReservationRepository reservationRepository;
+    private final MonthLockManager monthLocks;
+    private final ScheduleVersions versions;
+    private final EntityManager entityManager;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkDays;
+
+    public SchedulePurgeService(BreakPeriodRepository breakRepository,
+                                ShiftAssignmentRepository assignmentRepository,
+                                ShiftReservationRepository reservationRepository,
+                                MonthLockManager monthLocks,
+                                ScheduleVersions versions,
+                                EntityManager entityManager,
+                                ObjectProvider<CacheManager> cacheManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${shift.db.purge-chunk-days:0}") int chunkDays) {
+        this.breakRepository = breakRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.reservationRepository = reservationRepository;
+        this.monthLocks = monthLocks;
+        this.versions = versions;
+        this.entityManager = entityManager;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkDays = Math.max(0, chunkDays);
+    }
+
+    public record PurgeResult(LocalDate start, LocalDate end, int breaks, int assignments, int reservationsReset,
+                              int chunks) {
+        PurgeResult plus(PurgeResult chunk) {
+            return new PurgeResult(start, chunk.end, breaks + chunk.breaks, assignments + chunk.assignments,
+                    reservationsReset + chunk.reservationsReset, chunks + chunk.chunks);
+        }
+    }
+
+    /**
+     * Purges {@code start..end} with the touched months locked against generation. Fails with
+     * {@link MonthLockManager.MonthLockedException} while one of them is being generated.
+     */
+    public PurgeResult purge(LocalDate start, LocalDate end) {
+        validate(start, end);
+        return monthLocks.withEditLock(monthsOf(start, end), () -> purgeUnlocked(start, end));
+    }
+
+    /** For callers that already hold the month (generation resetting its own month). */
+    PurgeResult purgeUnlocked(LocalDate start, LocalDate end) {
+        validate(start, end);
+        PurgeResult total = new PurgeResult(start, start, 0, 0, 0, 0);
+        long span = chunkDays > 0 ? chunkDays : Long.MAX_VALUE;
+        for (LocalDate from = start; !from.isAfter(end); ) {
+            LocalDate to = from.plusDays(Math.min(span - 1, end.toEpochDay() - from.toEpochDay()));
+            LocalDate chunkStart = from;
+            // Joins the caller's transaction when there is one; otherwise each chunk commits on its own
+            total = total.plus(transactionTemplate.execute(tx -> purgeChunk(chunkStart, to)));
+            from = to.plusDays(1);
+        }
+        evictCaches();
+        logger.info("Purged {} - {}: {} assignments, {} breaks, {} reservations reset ({} chunk(s))",
+                start, end, total.assignments(), total.breaks(), total.reservationsReset(), total.chunks());
+        return total;
+    }
+
+    private PurgeResult purgeChunk(LocalDate start, LocalDate end) {
+        detachPurged(start, end);
+        // Children first: breaks reference the assignments
+        int breaks = breakRepository.deleteAllByAssignmentWorkDateBetween(start, end);
+        int assignments = assignmentRepository.deleteAllByWorkDateBetween(start, end);
+        int reservations = reservationRepository.updateStatusByWorkDateBetween(start, end,
+                ShiftReservation.Status.APPLIED, ShiftReservation.Status.PENDING);
+        // Bulk statements raise no entity events
+        if (breaks + assignments > 0) {
+            versions.bump(ScheduleVersions.scopes(start, end));
+        }
+        return new PurgeResult(start, end, breaks, assignments, reservations, 1);
+    }
+
+    // The bulk statements bypass the persistence context: flush the caller's pending changes, then detach only
+    // the entities they are about to delete or update. Everything else the caller loaded stays managed
+    private void detachPurged(LocalDate start, LocalDate end) {
+        entityManager.flush();
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        List<Object> purged = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            Object entity = entry.getKey();
+            LocalDate day = switch (entity) {
+                case ShiftAssignment assignment -> assignment.getWorkDate();
+                case BreakPeriod breakPeriod when breakPeriod.getAssignment() != null ->
+                        breakPeriod.getAssignment().getWorkDate();
+                case ShiftReservation reservation -> reservation.getWorkDate();
+                default -> null;
+            };
+            if (day != null && !day.isBefore(start) && !day.isAfter(end)) {
+                purged.add(entity);
+            }
+        }
+        purged.forEach(entityManager::detach);
+    }
+
+    private void evictCaches() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Inside a caller's transaction: clear again once it ends, so nothing a reader cached in between survives
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clearCaches();
+                }
+            });
+        }
+        clearCaches();
+    }
+
+    private void clearCaches() {
+        CacheManager manager = cacheManager.getIfAvailable();
+        if (manager == null) {
+            return;
+        }
+        for (String name : AFFECTED_CACHES) {
+            Cache cache = manager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static Set<YearMonth> monthsOf(LocalDate start, LocalDate end) {
+        Set<YearMonth> months = new TreeSet<>();
+        for (YearMonth ym = YearMonth.from(start); !ym.isAfter(YearMonth.from(end)); ym = ym.plusMonths(1)) {
+            months.add(ym);
+        }
+        return months;
+    }
+
+    private static void validate(LocalDate start, LocalDate end) {
+        if (start == null || end == null) {
+            throw new BusinessException("INVALID_RANGE", "削除する期間を指定してください");
+        }
+        if (end.isBefore(start)) {
+            throw new BusinessException("INVALID_RANGE", "終了日は開始日以降を指定してください");
+        }
+    }
+}
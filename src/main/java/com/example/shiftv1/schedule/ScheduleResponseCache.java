@@ -0,0 +1,147 @@
+package com.example.shiftv1.schedule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * 月次スナップショット・グリッドの応答を JSON のバイト列のまま、(リソース, 版数) ごとにキャッシュする。
+ * ETag は版数から作る強い ETag で、版数が変わらない限り同じバイト列を返す。{@code If-None-Match} が一致すれば
+ * 版数を1回読むだけで終わり、応答は組み立てない。{@code Accept: application/cbor} には CBOR のバイト列を、別の ETag で返す。
+ */
+@Component
+public class ScheduleResponseCache {
+    static final String CACHE_NAME = "monthly-schedules";
+
+    private final ScheduleVersions versions;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final TransactionTemplate readOnly;
+
+    public ScheduleResponseCache(ScheduleVersions versions,
+                                 ObjectMapper objectMapper,
+                                 MappingJackson2CborHttpMessageConverter cborConverter,
+                                 ObjectProvider<CacheManager> cacheManager,
+                                 PlatformTransactionManager transactionManager) {
+        this.versions = versions;
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborConverter.getObjectMapper();
+        this.cacheManager = cacheManager;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /** {@code body} is null when the client's copy is current (answer 304). */
+    public record Versioned(String etag, byte[] body, MediaType contentType) {
+        public Versioned(String etag, byte[] body) {
+            this(etag, body, MediaType.APPLICATION_JSON);
+        }
+
+        public boolean notModified() {
+            return body == null;
+        }
+    }
+
+    /** Representations of a cached response; each has its own ETag and cache entry. */
+    public enum Encoding {
+        JSON(MediaType.APPLICATION_JSON, ""),
+        CBOR(MediaType.APPLICATION_CBOR, "+cbor");
+
+        final MediaType mediaType;
+        final String suffix;
+
+        Encoding(MediaType mediaType, String suffix) {
+            this.mediaType = mediaType;
+            this.suffix = suffix;
+        }
+
+        /** CBOR only when asked for explicitly and not ranked below JSON; wildcards and anything unparsable mean JSON. */
+        public static Encoding negotiate(String accept) {
+            if (accept == null || accept.isBlank()) {
+                return JSON;
+            }
+            double cbor = 0;
+            double json = 0;
+            try {
+                for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                    if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                        cbor = Math.max(cbor, type.getQualityValue());
+                    } else if (type.includes(MediaType.APPLICATION_JSON)) {
+                        json = Math.max(json, type.getQualityValue());
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                return JSON;
+            }
+            return cbor > 0 && cbor >= json ? CBOR : JSON;
+        }
+    }
+
+    /**
+     * @param resource identifies the representation apart from its versions, e.g. {@code snapshot:2025-10}
+     * @param scopes   version scopes the payload is built from
+     * @param payload  builds the response object; only called on a cache miss
+     */
+    public Versioned get(String resource, Collection<String> scopes, String ifNoneMatch, Supplier<?> payload) {
+        return get(resource, scopes, ifNoneMatch, Encoding.JSON, payload);
+    }
+
+    public Versioned get(String resource, Collection<String> scopes, String ifNoneMatch, Encoding encoding,
+                         Supplier<?> payload) {
+        // One read-only snapshot for the versions and the data built from them
+        return readOnly.execute(tx -> {
+            String etag = etag(resource + encoding.suffix, versions.token(scopes));
+            if (matches(ifNoneMatch, etag)) {
+                return new Versioned(etag, null, encoding.mediaType);
+            }
+            CacheManager manager = cacheManager.getIfAvailable();
+            Cache cache = manager != null ? manager.getCache(CACHE_NAME) : null;
+            byte[] body = cache != null
+                    ? cache.get(etag, () -> serialize(encoding, payload.get()))
+                    : serialize(encoding, payload.get());
+            return new Versioned(etag, body, encoding.mediaType);
+        });
+    }
+
+    /** The current ETag alone, for responses that are streamed rather than cached. */
+    public String etag(String resource, Collection<String> scopes) {
+        return readOnly.execute(tx -> etag(resource, versions.token(scopes)));
+    }
+
+    private static String etag(String resource, String token) {
+        return "\"" + resource + "@" + token + "\"";
+    }
+
+    // If-None-Match uses the weak comparison: W/ prefixes are ignored, * matches anything
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+    }
+
+    private byte[] serialize(Encoding encoding, Object value) {
+        try {
+            return (encoding == Encoding.CBOR ? cborMapper : objectMapper).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -2,9 +2,8 @@ package com.example.shiftv1.schedule;
 
 import com.example.shiftv1.breaks.BreakPeriod;
 import com.example.shiftv1.breaks.BreakPeriodRepository;
+import com.example.shiftv1.breaks.BreakPeriodRow;
 import com.example.shiftv1.breaks.BreakRules;
-import com.example.shiftv1.config.PairingSettings;
-import com.example.shiftv1.config.PairingSettingsRepository;
 import com.example.shiftv1.config.BreakSettings;
 import com.example.shiftv1.config.BreakSettingsRepository;
 import com.example.shiftv1.demand.DemandInterval;
@@ -23,36 +22,36 @@ import com.example.shiftv1.exception.BusinessException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 import com.example.shiftv1.holiday.HolidayRepository;
 import com.example.shiftv1.config.FreePlaceholderSettings;
 import com.example.shiftv1.constraint.EmployeeConstraint;
 import com.example.shiftv1.constraint.EmployeeConstraintRepository;
 import com.example.shiftv1.skill.Skill;
+import com.example.shiftv1.skill.SkillPattern;
+import com.example.shiftv1.skill.SkillPatternRepository;
 import com.example.shiftv1.skill.SkillRepository;
 
 @Service
 public class ScheduleService {
     private static final Logger logger = LoggerFactory.getLogger(ScheduleService.class);
     private static final int GRID_RANGE_LIMIT_DAYS = 62;
+    static final int GRID_WINDOW_DEFAULT_ROWS = 50;
+    static final int GRID_WINDOW_MAX_ROWS = 200;
     private static final int SHORT_BREAK_INCREMENT_MINUTES = 5;
-    private static final ObjectMapper PAIRING_MAPPER = new ObjectMapper()
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-    private static final TypeReference<List<PairingDefinitionPayload>> PAIRING_TYPE = new TypeReference<>() {
-    };
+    // Key for skill-less (generic) demand in per-skill maps
+    private static final Long GENERIC_SKILL_KEY = 0L;
 
     private final EmployeeRepository employeeRepository;
     private final ShiftAssignmentRepository assignmentRepository;
@@ -64,12 +63,31 @@ public class ScheduleService {
     private final EmployeeConstraintRepository constraintRepository;
     private final BreakPeriodRepository breakRepository;
     private final BreakSettingsRepository breakSettingsRepository;
-    private final ScheduleJobStatusService jobStatusService;
     private final ShiftReservationRepository reservationRepository;
     private final LeaveBalanceRepository leaveBalanceRepository;
     private final LeaveRequestRepository leaveRequestRepository;
     private final EmployeeFixedShiftRepository fixedShiftRepository;
-    private final PairingSettingsRepository pairingSettingsRepository;
+    private final PairingModelCache pairingModelCache;
+    private final SkillPatternRepository skillPatternRepository;
+    private final MonthLockManager monthLocks;
+    private final GroupCommitWriter groupCommitWriter;
+    private final SchedulePurgeService purgeService;
+    private final TransactionTemplate transactionTemplate;
+    // Reads that run beside a writer (batch prefetch) go to the read-only pool
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    // blocks: staff DemandInterval blocks as entered / patterns: re-cut per-skill demand curves
+    // into shifts of the SkillPattern allowed lengths
+    @Value("${shift.demand.mode:blocks}")
+    private String demandMode;
+
+    // day: commit (and checkpoint) after every day / week: after every Saturday and at month end
+    @Value("${shift.jobs.commit-unit:day}")
+    private String commitUnit;
+
+    // Virtual-thread mode also fans the per-day flow computations of the feasibility check out
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
 
     @Value("${shift.placeholder.free.start:00:00}")
     private String cfgFreeStart;
@@ -96,12 +114,16 @@ public class ScheduleService {
             EmployeeConstraintRepository constraintRepository,
             BreakPeriodRepository breakRepository,
             BreakSettingsRepository breakSettingsRepository,
-            ScheduleJobStatusService jobStatusService,
             ShiftReservationRepository reservationRepository,
             LeaveBalanceRepository leaveBalanceRepository,
             LeaveRequestRepository leaveRequestRepository,
-            PairingSettingsRepository pairingSettingsRepository,
-            EmployeeFixedShiftRepository fixedShiftRepository) {
+            PairingModelCache pairingModelCache,
+            EmployeeFixedShiftRepository fixedShiftRepository,
+            SkillPatternRepository skillPatternRepository,
+            MonthLockManager monthLocks,
+            GroupCommitWriter groupCommitWriter,
+            SchedulePurgeService purgeService,
+            TransactionTemplate transactionTemplate) {
         this.employeeRepository = employeeRepository;
         this.assignmentRepository = assignmentRepository;
         this.demandRepository = demandRepository;
@@ -112,12 +134,18 @@ public class ScheduleService {
         this.constraintRepository = constraintRepository;
         this.breakRepository = breakRepository;
         this.breakSettingsRepository = breakSettingsRepository;
-        this.jobStatusService = jobStatusService;
         this.reservationRepository = reservationRepository;
         this.leaveBalanceRepository = leaveBalanceRepository;
         this.leaveRequestRepository = leaveRequestRepository;
-        this.pairingSettingsRepository = pairingSettingsRepository;
+        this.pairingModelCache = pairingModelCache;
         this.fixedShiftRepository = fixedShiftRepository;
+        this.skillPatternRepository = skillPatternRepository;
+        this.monthLocks = monthLocks;
+        this.groupCommitWriter = groupCommitWriter;
+        this.purgeService = purgeService;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     // Legacy wrapper used by older endpoint
@@ -129,333 +157,225 @@ public class ScheduleService {
     // Lightweight generator with skill priority + reservation and per-slot caps
     @Transactional
     public List<ShiftAssignment> generateMonthlyFromDemandSimple(int year, int month, boolean resetMonth) {
+        return generateMonth(YearMonth.of(year, month), resetMonth, SlotAxis.of(SlotAxis.DEFAULT_GRANULARITY),
+                Collections.emptyMap(), GenerationJobHandle.untracked()).created();
+    }
+
+    // Warm start: seed the month from the previous month (weekday aligned) or a template week,
+    // drop seeds that no longer fit constraints/holidays/demand, then fill the remaining gaps.
+    @Transactional
+    public WarmStartResult generateMonthlyWarmStart(int year, int month,
+            WarmStartSource source,
+            LocalDate templateWeekStart,
+            boolean resetMonth) {
         YearMonth ym = YearMonth.of(year, month);
+        WarmStartSource resolved = source == null ? WarmStartSource.PREVIOUS_MONTH : source;
+        LocalDate sourceStart;
+        LocalDate sourceEnd;
+        if (resolved == WarmStartSource.TEMPLATE_WEEK) {
+            if (templateWeekStart == null) {
+                throw new BusinessException("WARM_START_TEMPLATE_REQUIRED", "雛形とする週の日付を指定してください");
+            }
+            sourceStart = weekStartSunday(templateWeekStart);
+            sourceEnd = sourceStart.plusDays(6);
+        } else {
+            YearMonth prev = ym.minusMonths(1);
+            sourceStart = prev.atDay(1);
+            sourceEnd = prev.atEndOfMonth();
+        }
+        Map<LocalDate, List<ShiftAssignment>> sourceByDate = assignmentRepository
+                .findWithEmployeeBetween(sourceStart, sourceEnd)
+                .stream()
+                .filter(this::isWorkingAssignment)
+                .collect(Collectors.groupingBy(ShiftAssignment::getWorkDate));
+        Map<LocalDate, List<SeedShift>> seedsByDate = new HashMap<>();
+        int offered = 0;
+        for (LocalDate day = ym.atDay(1); !day.isAfter(ym.atEndOfMonth()); day = day.plusDays(1)) {
+            LocalDate from = resolved == WarmStartSource.TEMPLATE_WEEK
+                    ? sourceStart.plusDays(day.getDayOfWeek().getValue() % 7)
+                    : alignedPreviousMonthDate(day, ym.atDay(1));
+            List<SeedShift> seeds = sourceByDate.getOrDefault(from, Collections.emptyList()).stream()
+                    .map(sa -> new SeedShift(sa.getEmployee(), sa.getShiftName(), sa.getStartTime(), sa.getEndTime()))
+                    .toList();
+            if (!seeds.isEmpty()) {
+                seedsByDate.put(day, seeds);
+                offered += seeds.size();
+            }
+        }
+        MonthRun run = generateMonth(ym, resetMonth, SlotAxis.of(SlotAxis.DEFAULT_GRANULARITY), seedsByDate,
+                GenerationJobHandle.untracked());
+        logger.info("warm start {} from {} ({} - {}): offered={} seeded={} dropped={}", ym, resolved,
+                sourceStart, sourceEnd, offered, run.seeded(), run.dropped());
+        return new WarmStartResult(resolved, sourceStart, sourceEnd, offered, run.seeded(), run.dropped(),
+                run.created().size());
+    }
+
+    // Same weekday 4 weeks earlier, or 5 weeks for month-end days that would otherwise stay in the target month
+    private LocalDate alignedPreviousMonthDate(LocalDate day, LocalDate monthStart) {
+        LocalDate aligned = day.minusWeeks(4);
+        if (!aligned.isBefore(monthStart)) {
+            aligned = aligned.minusWeeks(1);
+        }
+        return aligned;
+    }
+
+    // Generates in commit units (one day, or up to Saturday in week mode), each in its own transaction
+    // together with the job checkpoint. Inside a caller's transaction the units simply join it.
+    private MonthRun generateMonth(YearMonth ym, boolean resetMonth, SlotAxis axis,
+                                   Map<LocalDate, List<SeedShift>> seedsByDate, GenerationJobHandle job) {
+        return generateMonth(ym, resetMonth, axis, seedsByDate, job, null, null);
+    }
+
+    // Holds the month lock from reset to placeholders, so grid edits never interleave with the units
+    private MonthRun generateMonth(YearMonth ym, boolean resetMonth, SlotAxis axis,
+                                   Map<LocalDate, List<SeedShift>> seedsByDate, GenerationJobHandle job,
+                                   PreparedMonth prepared, WeeklyCarry carry) {
+        return monthLocks.withGenerationLock(ym, MonthLockManager.Owner.GENERATION, job::ensureNotStopped,
+                () -> generateMonthLocked(ym, resetMonth, axis, seedsByDate, job, prepared, carry));
+    }
+
+    private MonthRun generateMonthLocked(YearMonth ym, boolean resetMonth, SlotAxis axis,
+                                         Map<LocalDate, List<SeedShift>> seedsByDate, GenerationJobHandle job,
+                                         PreparedMonth prepared, WeeklyCarry carry) {
+        int year = ym.getYear();
+        int month = ym.getMonthValue();
         LocalDate start = ym.atDay(1);
         LocalDate end = ym.atEndOfMonth();
-        if (resetMonth) {
-            try {
-                breakRepository.deleteByAssignment_WorkDateBetween(start, end);
-            } catch (Exception e) {
-                logger.warn("Failed to delete breaks for {} - {} during reset", start, end, e);
+        GenerationJobHandle.Checkpoint resume = job.resumePoint();
+        job.phase(ScheduleJob.Phase.LOADING);
+        job.daysTotal(ym.lengthOfMonth());
+        job.ensureNotStopped();
+        // A resumed job already reset the month before its first checkpoint
+        if (resetMonth && resume == null) {
+            purgeService.purgeUnlocked(start, end);
+        }
+        MonthPlan plan = transactionTemplate.execute(tx -> loadMonthPlan(start, end, axis, resume, prepared, carry));
+        if (plan == null)
+            return new MonthRun(Collections.emptyList(), 0, 0, null);
+        GenerationState state = plan.state();
+
+        job.phase(ScheduleJob.Phase.GENERATING);
+        List<ShiftAssignment> createdAll = new ArrayList<>();
+        LocalDate first = resume != null ? resume.lastDay().plusDays(1) : start;
+        for (LocalDate unitStart = first; !unitStart.isAfter(end); ) {
+            // Cancel/deadline between units; committed units stay and the job can resume after them
+            job.ensureNotStopped();
+            LocalDate unitEnd = commitUnitEnd(unitStart, end);
+            LocalDate from = unitStart;
+            List<DayOutcome> outcomes = transactionTemplate.execute(tx -> {
+                Map<LocalDate, List<ShiftReservation>> reservationsByDate = reservationRepository
+                        .findByWorkDateBetweenAndStatusIn(from, unitEnd, List.of(ShiftReservation.Status.PENDING))
+                        .stream()
+                        .collect(Collectors.groupingBy(ShiftReservation::getWorkDate));
+                List<DayOutcome> unit = new ArrayList<>();
+                long created = 0;
+                for (LocalDate day = from; !day.isAfter(unitEnd); day = day.plusDays(1)) {
+                    DayResult result = generateDay(day, state,
+                            plan.blocksByDate().getOrDefault(day, Collections.emptyList()),
+                            reservationsByDate.getOrDefault(day, Collections.emptyList()),
+                            seedsByDate.getOrDefault(day, Collections.emptyList()));
+                    unit.add(new DayOutcome(day, result));
+                    created += result.created().size();
+                }
+                job.saveCheckpoint(new GenerationJobHandle.Checkpoint(unitEnd, job.daysCompleted() + unit.size(),
+                        job.createdCount() + created, state.rotate, state.seeded, state.dropped));
+                return unit;
+            });
+            // Progress and day events only after the unit has committed
+            for (DayOutcome outcome : outcomes) {
+                createdAll.addAll(outcome.result().created());
+                job.dayCompleted(outcome.day(), outcome.result().created(), outcome.result().coverage());
             }
-            assignmentRepository.deleteByWorkDateBetween(start, end);
+            unitStart = unitEnd.plusDays(1);
         }
-        List<Employee> employees = fetchOrderedEmployees();
-        if (employees.isEmpty())
-            return Collections.emptyList();
-        Map<Long, List<EmployeeFixedShift>> fixedShiftsByEmployee = loadFixedShiftsByEmployee(employees);
 
-        int rotate = 0;
-        List<ShiftAssignment> createdAll = new ArrayList<>();
-        int granularity = 60;
+        job.ensureNotStopped();
+        job.phase(ScheduleJob.Phase.PLACEHOLDERS);
+        transactionTemplate.executeWithoutResult(tx -> {
+            ensurePatternOffPlaceholders(year, month);
+            ensureWeeklyHolidays(year, month);
+            ensureFreePlaceholders(year, month);
+        });
+        logger.info("generateMonthlyFromDemandSimple finished: {}-{} ({} min slots{}) -> {} assignments", year, month,
+                axis.granularity(), resume != null ? ", resumed after " + resume.lastDay() : "", createdAll.size());
+        return new MonthRun(createdAll, state.seeded, state.dropped, new WeeklyCarry(end, state.workedDaysByEmployee));
+    }
 
-        long baselineCount = 0;
-        try {
-            baselineCount = assignmentRepository.countByWorkDateBetween(start, end);
-        } catch (Exception ignore) {
-        }
-        try {
-            jobStatusService.start(year, month, baselineCount);
-        } catch (Exception ignore) {
-        }
+    /**
+     * Loads the month-independent inputs (employees, rules, patterns, demand) ahead of time, so a batch
+     * can prepare month N+1 while month N is generating. Read-only; worked days are added at handoff.
+     */
+    PreparedMonth prepareMonth(int year, int month, int granularityMinutes) {
+        YearMonth ym = YearMonth.of(year, month);
+        SlotAxis axis = SlotAxis.of(granularityMinutes);
+        return readOnlyTransactionTemplate.execute(tx -> new PreparedMonth(ym, axis,
+                loadMonthInputs(ym.atDay(1), ym.atEndOfMonth(), axis)));
+    }
 
-        // Fairness counters (month-to-date): real worked days per employee
-        Map<Long, Integer> mtdTotalWorkedDays = new HashMap<>();
-        Map<Long, Integer> mtdWeekendHolidayWorkedDays = new HashMap<>();
-        // Preload rules once to avoid per-employee DB hits
-        Map<Long, EmployeeRule> rulesByEmp = loadRulesByEmployee(employees);
+    // Batch step: uses the prepared inputs when they match the job and returns the carry for the next month
+    WeeklyCarry generateMonthlyForBatch(GenerationJobHandle job, PreparedMonth prepared, WeeklyCarry carry) {
+        YearMonth ym = YearMonth.of(job.year(), job.month());
+        SlotAxis axis = SlotAxis.of(job.granularity());
+        PreparedMonth usable = prepared != null && prepared.matches(ym, axis) ? prepared : null;
+        return generateMonth(ym, job.resetMonth(), axis, Collections.emptyMap(), job, usable, carry).carry();
+    }
 
-        Map<LocalDate, List<ShiftReservation>> reservationsByDate = reservationRepository
-                .findByWorkDateBetweenAndStatusIn(start, end, List.of(ShiftReservation.Status.PENDING))
-                .stream()
-                .collect(Collectors.groupingBy(ShiftReservation::getWorkDate));
+    private MonthPlan loadMonthInputs(LocalDate start, LocalDate end, SlotAxis axis) {
+        List<Employee> employees = fetchOrderedEmployees();
+        if (employees.isEmpty())
+            return null;
+        GenerationState state = newGenerationState(employees, true, axis);
+        return new MonthPlan(state, prepareDemandBlocks(start, end, state));
+    }
 
-        // Preload per-employee allowed working days per week (7 - weeklyRestDays)
-        Map<Long, Integer> allowedWorkDaysPerWeek = new HashMap<>();
-        for (var emp : employees) {
-            int rest = Optional.ofNullable(rulesByEmp.get(emp.getId()))
-                    .map(EmployeeRule::getWeeklyRestDays)
-                    .filter(v -> v != null && v >= 0)
-                    .orElse(2);
-            int allowed = Math.max(0, 7 - rest);
-            allowedWorkDaysPerWeek.put(emp.getId(), allowed);
-        }
+    // Employees, rules, demand and the weekly/MTD counters, rebuilt from committed assignments on resume
+    private MonthPlan loadMonthPlan(LocalDate start, LocalDate end, SlotAxis axis,
+                                    GenerationJobHandle.Checkpoint resume, PreparedMonth prepared, WeeklyCarry carry) {
+        MonthPlan plan = prepared != null ? prepared.plan() : loadMonthInputs(start, end, axis);
+        if (plan == null)
+            return null;
+        GenerationState state = plan.state();
         // Track worked days (real assignments only) per employee across spillover weeks
         // (Sun..Sat)
         LocalDate outerStart = weekStartSunday(start);
         LocalDate outerEnd = weekStartSunday(end).plusDays(6);
-        Map<Long, Set<LocalDate>> workedDaysByEmployee = new HashMap<>();
-        for (ShiftAssignment sa : assignmentRepository.findByWorkDateBetween(outerStart, outerEnd)) {
-            boolean isFree = Boolean.TRUE.equals(sa.getIsFree())
-                    || (sa.getShiftName() != null && "FREE".equalsIgnoreCase(sa.getShiftName()));
-            boolean isOff = Boolean.TRUE.equals(sa.getIsOff()) || (sa.getShiftName() != null
-                    && ("休日".equals(sa.getShiftName()) || "OFF".equalsIgnoreCase(sa.getShiftName())));
-            boolean isLeave = Boolean.TRUE.equals(sa.getIsLeave());
-            if (isFree || isOff || isLeave)
+        LocalDate queryFrom = outerStart;
+        if (carry != null && carry.monthEnd().equals(start.minusDays(1))) {
+            // The previous month of a batch hands over its leading-week worked days in memory
+            carry.workedDaysByEmployee().forEach((empId, days) -> {
+                for (LocalDate d : days) {
+                    if (!d.isBefore(outerStart) && d.isBefore(start))
+                        state.workedDaysByEmployee.computeIfAbsent(empId, k -> new HashSet<>()).add(d);
+                }
+            });
+            queryFrom = start;
+        }
+        for (ShiftAssignment sa : assignmentRepository.findByWorkDateBetween(queryFrom, outerEnd)) {
+            if (!isWorkingAssignment(sa))
                 continue;
             Long empId = sa.getEmployee() != null ? sa.getEmployee().getId() : null;
             if (empId == null)
                 continue;
-            workedDaysByEmployee.computeIfAbsent(empId, k -> new HashSet<>()).add(sa.getWorkDate());
-        }
-        PairingRuntime pairingRuntime = loadPairingRuntime();
-        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
-            final boolean isWkHol = isWeekendOrHoliday(day);
-            final boolean dayIsHoliday = isHoliday(day);
-            // Track real assignments counted once per day per employee
-            Set<Long> assignedToday = new HashSet<>();
-            DayContext dayCtx = buildDayContext(day, dayIsHoliday, employees, rulesByEmp);
-            List<DemandInterval> demands = demandRepository.findEffectiveForDate(day, day.getDayOfWeek(), dayIsHoliday);
-            List<DemandBlock> demandBlocks = prepareDemandBlocks(demands, pairingRuntime);
-            if (demandBlocks.isEmpty()) {
-                continue;
-            }
-
-            List<LocalTime> slots = buildSlots(granularity);
-            Map<LocalTime, Integer> requiredBySlot = new HashMap<>();
-            Map<LocalTime, Integer> reservedSkillBySlot = new HashMap<>(); // remaining seats reserved for
-                                                                           // skill-specific
-            for (LocalTime t : slots) {
-                requiredBySlot.put(t, 0);
-                reservedSkillBySlot.put(t, 0);
-            }
-            for (DemandBlock block : demandBlocks) {
-                int seats = block.seats();
-                if (seats <= 0)
-                    continue;
-                List<LocalTime> cov = slotsCoveredBy(block.start(), block.end(), granularity);
-                for (LocalTime t : cov) {
-                    requiredBySlot.compute(t, (k, v) -> (v == null ? 0 : v) + seats);
-                    if (block.skill() != null)
-                        reservedSkillBySlot.compute(t, (k, v) -> (v == null ? 0 : v) + seats);
-                }
-            }
-            // Build demanded skill IDs per slot for reservation by employee
-            Map<LocalTime, Set<Long>> demandedSkillIdsBySlot = new HashMap<>();
-            for (LocalTime t : slots)
-                demandedSkillIdsBySlot.put(t, new HashSet<>());
-            for (DemandBlock block : demandBlocks) {
-                Skill blockSkill = block.skill();
-                if (blockSkill == null)
-                    continue;
-                Long sid = blockSkill.getId();
-                if (sid == null)
-                    continue;
-                for (LocalTime t : slotsCoveredBy(block.start(), block.end(), granularity)) {
-                    demandedSkillIdsBySlot.get(t).add(sid);
-                }
-            }
-
-            Map<LocalTime, Integer> assignedBySlot = new HashMap<>();
-            for (LocalTime t : slots)
-                assignedBySlot.put(t, 0);
-
-            List<ShiftAssignment> fixedAssignments = applyFixedShiftsForDay(
-                    day,
-                    fixedShiftsByEmployee,
-                    dayCtx,
-                    assignedBySlot,
-                    granularity,
-                    workedDaysByEmployee,
-                    assignedToday,
-                    mtdTotalWorkedDays,
-                    mtdWeekendHolidayWorkedDays,
-                    isWkHol);
-            if (!fixedAssignments.isEmpty()) {
-                createdAll.addAll(fixedAssignments);
-                rotate += fixedAssignments.size();
-            }
-
-            List<ShiftReservation> dayReservations = reservationsByDate.getOrDefault(day, Collections.emptyList());
-            List<ShiftAssignment> reservationAssignments = applyReservationsForDay(
-                    day,
-                    dayReservations,
-                    dayCtx,
-                    assignedBySlot,
-                    reservedSkillBySlot,
-                    granularity,
-                    workedDaysByEmployee,
-                    assignedToday,
-                    mtdTotalWorkedDays,
-                    mtdWeekendHolidayWorkedDays,
-                    isWkHol);
-            if (!reservationAssignments.isEmpty()) {
-                createdAll.addAll(reservationAssignments);
-                rotate += reservationAssignments.size();
-            }
-
-            for (DemandBlock block : demandBlocks) {
-                int seats = block.seats();
-                if (seats <= 0)
-                    continue;
-                LocalTime s = block.start();
-                LocalTime e = block.end();
-                Skill needSkill = block.skill();
-                int blockBreakMinutes = block.breakMinutes();
-                String label = buildDemandLabel(needSkill, s, e);
-
-                List<Employee> avail = assignmentRepository.findAvailableEmployeesForTimeSlot(day, s, e)
-                        .stream()
-                        .filter(emp -> !dayCtx.excludeByPatternStrict.getOrDefault(emp.getId(), false))
-                        .filter(emp -> !dayCtx.hardUnavailable.getOrDefault(emp.getId(), false))
-                        .toList();
-                if (needSkill != null) {
-                    Long sid = needSkill.getId();
-                    avail = avail.stream()
-                            .filter(emp -> emp.getSkills() != null
-                                    && emp.getSkills().stream().anyMatch(sk -> Objects.equals(sk.getId(), sid)))
-                            .toList();
-                }
-                if (avail.isEmpty())
-                    continue;
-
-                // For generic demand, preserve skilled employees if critically needed in these
-                // slots
-                if (needSkill == null) {
-                    List<LocalTime> covers = slotsCoveredBy(s, e, granularity);
-                    Map<LocalTime, Integer> skilledAvailCount = new HashMap<>();
-                    for (LocalTime t : covers)
-                        skilledAvailCount.put(t, 0);
-                    for (Employee emp : avail) {
-                        for (LocalTime t : covers) {
-                            Set<Long> ds = demandedSkillIdsBySlot.getOrDefault(t, Collections.emptySet());
-                            boolean empSkilled = emp.getSkills() != null
-                                    && emp.getSkills().stream().anyMatch(sk -> ds.contains(sk.getId()));
-                            if (empSkilled)
-                                skilledAvailCount.compute(t, (k, v) -> (v == null ? 0 : v) + 1);
-                        }
-                    }
-                    List<Employee> filtered = new ArrayList<>();
-                    for (Employee emp : avail) {
-                        boolean reserved = false;
-                        for (LocalTime t : covers) {
-                            int reservedSeats = reservedSkillBySlot.getOrDefault(t, 0);
-                            if (reservedSeats <= 0)
-                                continue;
-                            Set<Long> ds = demandedSkillIdsBySlot.getOrDefault(t, Collections.emptySet());
-                            boolean empSkilled = emp.getSkills() != null
-                                    && emp.getSkills().stream().anyMatch(sk -> ds.contains(sk.getId()));
-                            if (empSkilled) {
-                                int skilledCount = skilledAvailCount.getOrDefault(t, 0);
-                                if (skilledCount <= reservedSeats) {
-                                    reserved = true;
-                                    break;
-                                }
-                            }
-                        }
-                        if (!reserved)
-                            filtered.add(emp);
-                    }
-                    if (!filtered.isEmpty())
-                        avail = filtered; // fallback to original if empty
-                }
-
-                // Enforce weekly rest-days: in a Sunday-Saturday window, limit distinct
-                // workdays to allowed
-                final LocalDate weekStart = weekStartSunday(day);
-                final LocalDate weekEnd = weekStart.plusDays(6);
-                List<Employee> weeklyOk = new ArrayList<>();
-                for (Employee emp : avail) {
-                    Long empId = emp.getId();
-                    int allowedDays = allowedWorkDaysPerWeek.getOrDefault(empId, 5);
-                    Set<LocalDate> days = workedDaysByEmployee.getOrDefault(empId, Collections.emptySet());
-                    int used = 0;
-                    for (LocalDate d0 : days) {
-                        if (!d0.isBefore(weekStart) && !d0.isAfter(weekEnd))
-                            used++;
-                    }
-                    boolean alreadyToday = days.contains(day);
-                    if (used < allowedDays || alreadyToday) {
-                        weeklyOk.add(emp);
-                    }
-                }
-                if (weeklyOk.isEmpty())
-                    continue;
-                avail = weeklyOk;
-
-                List<Employee> rotated = new ArrayList<>(avail);
-                if (!rotated.isEmpty()) {
-                    int r = rotated.size() == 0 ? 0 : (rotate % rotated.size());
-                    if (r != 0)
-                        Collections.rotate(rotated, -r);
-                    // Fairness sort: prioritize employees with fewer MTD worked days
-                    Map<Long, Integer> pos = new HashMap<>();
-                    for (int i = 0; i < rotated.size(); i++)
-                        pos.put(rotated.get(i).getId(), i);
-                    rotated.sort((aEmp, bEmp) -> {
-                        long aScore = fairnessScore(aEmp.getId(), isWkHol, mtdTotalWorkedDays,
-                                mtdWeekendHolidayWorkedDays, assignedToday, pos);
-                        long bScore = fairnessScore(bEmp.getId(), isWkHol, mtdTotalWorkedDays,
-                                mtdWeekendHolidayWorkedDays, assignedToday, pos);
-                        if (dayCtx.softUnavailable.getOrDefault(aEmp.getId(), false))
-                            aScore += 5_000L;
-                        if (dayCtx.preferred.getOrDefault(aEmp.getId(), false))
-                            aScore -= 100L;
-                        if (dayCtx.softUnavailable.getOrDefault(bEmp.getId(), false))
-                            bScore += 5_000L;
-                        if (dayCtx.preferred.getOrDefault(bEmp.getId(), false))
-                            bScore -= 100L;
-                        return Long.compare(aScore, bScore);
-                    });
-                }
-                List<LocalTime> covers = slotsCoveredBy(s, e, granularity);
-                int newly = 0;
-                for (Employee emp : rotated) {
-                    if (newly >= seats)
-                        break;
-                    boolean fits = true;
-                    for (LocalTime t : covers) {
-                        int req = requiredBySlot.getOrDefault(t, 0);
-                        int asn = assignedBySlot.getOrDefault(t, 0);
-                        int reserved = reservedSkillBySlot.getOrDefault(t, 0);
-                        int cap = (needSkill == null) ? Math.max(0, req - reserved) : req;
-                        if (asn >= cap) {
-                            fits = false;
-                            break;
-                        }
-                    }
-                    if (!fits)
-                        continue;
-                    // avail は既に空きのため再照会しない
-                    ShiftAssignment a = new ShiftAssignment(day, label, s, e, emp);
-                    assignmentRepository.save(a);
-                    autoAssignBreaks(a, newly, blockBreakMinutes);
-                    createdAll.add(a);
-                    // Mark today's date as a worked day for weekly limit counting (once per
-                    // employee)
-                    workedDaysByEmployee.computeIfAbsent(emp.getId(), k -> new HashSet<>()).add(day);
-                    // Fairness: count once per day per employee
-                    Long empId = emp.getId();
-                    if (assignedToday.add(empId)) {
-                        mtdTotalWorkedDays.merge(empId, 1, Integer::sum);
-                        if (isWkHol)
-                            mtdWeekendHolidayWorkedDays.merge(empId, 1, Integer::sum);
-                    }
-                    newly++;
-                    for (LocalTime t : covers) {
-                        assignedBySlot.compute(t, (k, v) -> (v == null ? 0 : v) + 1);
-                        if (needSkill != null)
-                            reservedSkillBySlot.compute(t, (k, v) -> Math.max(0, (v == null ? 0 : v) - 1));
-                    }
-                }
-                rotate += newly;
-            }
-            try {
-                jobStatusService.updateCount(year, month, baselineCount + createdAll.size());
-            } catch (Exception ignore) {
+            state.workedDaysByEmployee.computeIfAbsent(empId, k -> new HashSet<>()).add(sa.getWorkDate());
+            if (resume != null && !sa.getWorkDate().isBefore(start) && !sa.getWorkDate().isAfter(resume.lastDay())) {
+                state.mtdTotalWorkedDays.merge(empId, 1, Integer::sum);
+                if (isWeekendOrHoliday(sa.getWorkDate()))
+                    state.mtdWeekendHolidayWorkedDays.merge(empId, 1, Integer::sum);
             }
         }
-
-        ensurePatternOffPlaceholders(year, month);
-        ensureWeeklyHolidays(year, month);
-        ensureFreePlaceholders(year, month);
-        try {
-            jobStatusService.finish(year, month, baselineCount + createdAll.size());
-        } catch (Exception ignore) {
+        if (resume != null) {
+            state.rotate = resume.rotate();
+            state.seeded = resume.seeded();
+            state.dropped = resume.dropped();
         }
-        logger.info("generateMonthlyFromDemandSimple finished: {}-{} -> {} assignments", year, month,
-                createdAll.size());
-        return createdAll;
+        return plan;
+    }
+
+    private LocalDate commitUnitEnd(LocalDate unitStart, LocalDate monthEnd) {
+        if (!"week".equalsIgnoreCase(commitUnit))
+            return unitStart;
+        LocalDate saturday = weekStartSunday(unitStart).plusDays(6);
+        return saturday.isAfter(monthEnd) ? monthEnd : saturday;
     }
 
     private LocalDate weekStartSunday(LocalDate d) {
@@ -466,222 +386,549 @@ public class ScheduleService {
     @Transactional
     public List<ShiftAssignment> generateMonthlyFromDemand(int year, int month, int granularityMinutes,
             boolean resetMonth) {
-        return generateMonthlyFromDemandSimple(year, month, resetMonth);
+        return generateMonth(YearMonth.of(year, month), resetMonth, SlotAxis.of(granularityMinutes),
+                Collections.emptyMap(), GenerationJobHandle.untracked()).created();
     }
 
-    @Async("scheduleExecutor")
-    @Transactional
-    public void generateMonthlyFromDemandAsync(int year, int month, int granularityMinutes, boolean resetMonth) {
-        generateMonthlyFromDemandSimple(year, month, resetMonth);
+    // Tracked run driven by ScheduleJobRunner. Not transactional: each commit unit commits on its own,
+    // so a failure or cancel keeps the days before it. Throws GenerationCancelledException on cancel/deadline.
+    public List<ShiftAssignment> generateMonthlyForJob(GenerationJobHandle job) {
+        return generateMonth(YearMonth.of(job.year(), job.month()), job.resetMonth(), SlotAxis.of(job.granularity()),
+                Collections.emptyMap(), job).created();
     }
 
     @Transactional
     public List<ShiftAssignment> generateForDateFromDemand(LocalDate date, boolean resetDay) {
+        return generateForDateFromDemand(date, resetDay, SlotAxis.DEFAULT_GRANULARITY);
+    }
+
+    @Transactional
+    public List<ShiftAssignment> generateForDateFromDemand(LocalDate date, boolean resetDay, int granularityMinutes) {
+        SlotAxis axis = SlotAxis.of(granularityMinutes);
         if (resetDay) {
-            try {
-                breakRepository.deleteByAssignment_WorkDateBetween(date, date);
-            } catch (Exception e) {
-                logger.warn("Failed to delete breaks for {}", date, e);
-            }
-            assignmentRepository.deleteByWorkDate(date);
+            purgeService.purgeUnlocked(date, date);
         }
-        boolean dateIsHoliday = isHoliday(date);
-        List<DemandInterval> demands = demandRepository.findEffectiveForDate(date, date.getDayOfWeek(), dateIsHoliday);
         List<Employee> employees = fetchOrderedEmployees();
         if (employees.isEmpty())
             return Collections.emptyList();
-        Map<Long, List<EmployeeFixedShift>> fixedShiftsByEmployee = loadFixedShiftsByEmployee(employees);
-        PairingRuntime pairingRuntime = loadPairingRuntime();
-        List<DemandBlock> demandBlocks = prepareDemandBlocks(demands, pairingRuntime);
-        if (demandBlocks.isEmpty())
-            return Collections.emptyList();
+        // Single-day regeneration does not enforce the weekly rest window
+        GenerationState state = newGenerationState(employees, false, axis);
 
         // Fairness: build month-to-date counters from existing assignments before this
         // date
         YearMonth ym = YearMonth.of(date.getYear(), date.getMonthValue());
         LocalDate monthStart = ym.atDay(1);
         LocalDate prev = date.minusDays(1);
-        Map<Long, Integer> mtdTotalWorkedDays = new HashMap<>();
-        Map<Long, Integer> mtdWeekendHolidayWorkedDays = new HashMap<>();
         if (!prev.isBefore(monthStart)) {
             for (ShiftAssignment sa : assignmentRepository.findByWorkDateBetween(monthStart, prev)) {
-                boolean isFree = Boolean.TRUE.equals(sa.getIsFree())
-                        || (sa.getShiftName() != null && "FREE".equalsIgnoreCase(sa.getShiftName()));
-                boolean isOff = Boolean.TRUE.equals(sa.getIsOff()) || (sa.getShiftName() != null
-                        && ("休日".equals(sa.getShiftName()) || "OFF".equalsIgnoreCase(sa.getShiftName())));
-                boolean isLeave = Boolean.TRUE.equals(sa.getIsLeave());
-                if (isFree || isOff || isLeave)
+                if (!isWorkingAssignment(sa))
                     continue;
                 Long empId = sa.getEmployee() != null ? sa.getEmployee().getId() : null;
                 if (empId == null)
                     continue;
-                mtdTotalWorkedDays.merge(empId, 1, Integer::sum);
+                state.mtdTotalWorkedDays.merge(empId, 1, Integer::sum);
                 if (isWeekendOrHoliday(sa.getWorkDate()))
-                    mtdWeekendHolidayWorkedDays.merge(empId, 1, Integer::sum);
+                    state.mtdWeekendHolidayWorkedDays.merge(empId, 1, Integer::sum);
             }
         }
-        final boolean isWkHol = isWeekendOrHoliday(date);
-        Set<Long> assignedToday = new HashSet<>();
-        Map<Long, Set<LocalDate>> workedDaysByEmployee = new HashMap<>();
-        // Preload rules/constraints and build per-day context
-        Map<Long, EmployeeRule> rulesByEmp = loadRulesByEmployee(employees);
-        DayContext dayCtx = buildDayContext(date, dateIsHoliday, employees, rulesByEmp);
         List<ShiftReservation> dayReservations = reservationRepository
                 .findByWorkDateBetweenAndStatusIn(date, date, List.of(ShiftReservation.Status.PENDING));
+        List<ShiftAssignment> created = generateDay(date, state,
+                prepareDemandBlocks(date, date, state).getOrDefault(date, Collections.emptyList()),
+                dayReservations, Collections.emptyList()).created();
+        ensureFreePlaceholders(date.getYear(), date.getMonthValue());
+        return created;
+    }
 
-        List<ShiftAssignment> created = new ArrayList<>();
-        int rotate = 0;
-        int granularity = 60;
-        long baselineCount = 0L;
-        try {
-            baselineCount = assignmentRepository.countByWorkDateBetween(monthStart, ym.atEndOfMonth());
-        } catch (Exception ignore) {
+    // Fast pre-check before generation: per-slot max-flow bound over employee x skill
+    // eligibility (hard constraints, holiday opt-out, strict patterns) plus a weekly
+    // person-day bound from weeklyRestDays. Read-only.
+    @Transactional(readOnly = true)
+    public FeasibilityReport checkFeasibility(int year, int month) {
+        return checkFeasibility(year, month, SlotAxis.DEFAULT_GRANULARITY);
+    }
+
+    @Transactional(readOnly = true)
+    public FeasibilityReport checkFeasibility(int year, int month, int granularityMinutes) {
+        SlotAxis axis = SlotAxis.of(granularityMinutes);
+        long began = System.nanoTime();
+        YearMonth ym = YearMonth.of(year, month);
+        LocalDate start = ym.atDay(1);
+        LocalDate end = ym.atEndOfMonth();
+        List<Employee> employees = fetchOrderedEmployees();
+        GenerationState state = newGenerationState(employees, true, axis);
+        final int granularity = axis.granularity();
+        final int slotCount = axis.slotCount();
+
+        // Days already worked in the spillover parts of the boundary weeks consume weekly quota
+        LocalDate outerStart = weekStartSunday(start);
+        LocalDate outerEnd = weekStartSunday(end).plusDays(6);
+        List<ShiftAssignment> outside = new ArrayList<>();
+        if (outerStart.isBefore(start))
+            outside.addAll(assignmentRepository.findByWorkDateBetween(outerStart, start.minusDays(1)));
+        if (outerEnd.isAfter(end))
+            outside.addAll(assignmentRepository.findByWorkDateBetween(end.plusDays(1), outerEnd));
+        for (ShiftAssignment sa : outside) {
+            if (!isWorkingAssignment(sa) || sa.getEmployee() == null || sa.getEmployee().getId() == null)
+                continue;
+            state.workedDaysByEmployee.computeIfAbsent(sa.getEmployee().getId(), k -> new HashSet<>())
+                    .add(sa.getWorkDate());
+        }
+
+        List<FeasibilityReport.DayShortage> shortDays = new ArrayList<>();
+        Map<LocalDate, Integer> peakByDay = new HashMap<>();
+        Map<Long, Set<LocalDate>> eligibleDaysByEmp = new HashMap<>();
+        Map<Long, Skill> skillsById = new HashMap<>();
+        int requiredTotal = 0;
+        int coverableTotal = 0;
+        Map<LocalDate, List<DemandBlock>> blocksByDate = prepareDemandBlocks(start, end, state);
+        List<FeasibilityDay> days = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            boolean dayIsHoliday = isHoliday(day);
+            List<DemandBlock> blocks = blocksByDate.getOrDefault(day, Collections.emptyList());
+            if (blocks.isEmpty())
+                continue;
+            DayContext dayCtx = buildDayContext(day, dayIsHoliday, employees, state.rulesByEmp);
+            List<Employee> eligible = new ArrayList<>();
+            for (Employee emp : employees) {
+                if (dayCtx.excludeByPatternStrict.getOrDefault(emp.getId(), false)
+                        || dayCtx.hardUnavailable.getOrDefault(emp.getId(), false))
+                    continue;
+                eligible.add(emp);
+                eligibleDaysByEmp.computeIfAbsent(emp.getId(), k -> new HashSet<>()).add(day);
+            }
+
+            // Seats per slot per skill (GENERIC_SKILL_KEY = skill-less demand)
+            List<Map<Long, Integer>> seatsBySlot = new ArrayList<>(slotCount);
+            for (int i = 0; i < slotCount; i++)
+                seatsBySlot.add(new TreeMap<>());
+            for (DemandBlock block : blocks) {
+                Long key = block.skill() != null && block.skill().getId() != null
+                        ? block.skill().getId() : GENERIC_SKILL_KEY;
+                if (block.skill() != null)
+                    skillsById.putIfAbsent(key, block.skill());
+                for (int i = axis.startIndex(block.start()); i < axis.endIndex(block.end()); i++)
+                    seatsBySlot.get(i).merge(key, block.seats(), Integer::sum);
+            }
+            days.add(new FeasibilityDay(day, eligible, seatsBySlot));
+        }
+
+        // Days are independent flow problems over already-loaded entities: solve them side by side
+        List<Map<Map<Long, Integer>, Map<Long, Integer>>> coverageByDay = FanOut.all(
+                days.stream().<Callable<Map<Map<Long, Integer>, Map<Long, Integer>>>>map(d -> () -> {
+                    // Identical slot compositions within a day share one flow computation
+                    Map<Map<Long, Integer>, Map<Long, Integer>> coverage = new HashMap<>();
+                    for (Map<Long, Integer> seats : d.seatsBySlot())
+                        if (!seats.isEmpty())
+                            coverage.computeIfAbsent(seats, k -> maxCoverageBySkill(k, d.eligible()));
+                    return coverage;
+                }).toList(),
+                virtualThreads);
+
+        for (int di = 0; di < days.size(); di++) {
+            LocalDate day = days.get(di).day();
+            List<Map<Long, Integer>> seatsBySlot = days.get(di).seatsBySlot();
+            Map<Map<Long, Integer>, Map<Long, Integer>> coverageCache = coverageByDay.get(di);
+            List<FeasibilityReport.SlotShortage> slotShortages = new ArrayList<>();
+            int dayRequired = 0;
+            int dayCoverable = 0;
+            int peak = 0;
+            for (int i = 0; i < slotCount; i++) {
+                Map<Long, Integer> seats = seatsBySlot.get(i);
+                if (seats.isEmpty())
+                    continue;
+                Map<Long, Integer> coverable = coverageCache.get(seats);
+                int required = 0;
+                int covered = 0;
+                for (Map.Entry<Long, Integer> entry : seats.entrySet()) {
+                    int need = entry.getValue();
+                    int can = coverable.getOrDefault(entry.getKey(), 0);
+                    required += need;
+                    covered += can;
+                    if (can < need) {
+                        Skill skill = skillsById.get(entry.getKey());
+                        slotShortages.add(new FeasibilityReport.SlotShortage(
+                                axis.slotStart(i),
+                                axis.slotEnd(i),
+                                skill != null ? skill.getId() : null,
+                                skill != null ? skill.getCode() : null,
+                                skill != null ? skill.getName() : "汎用",
+                                need,
+                                can));
+                    }
+                }
+                peak = Math.max(peak, required);
+                dayRequired += required;
+                dayCoverable += covered;
+            }
+            peakByDay.put(day, peak);
+            requiredTotal += dayRequired;
+            coverableTotal += dayCoverable;
+            if (!slotShortages.isEmpty()) {
+                shortDays.add(new FeasibilityReport.DayShortage(day, dayRequired, dayCoverable,
+                        List.copyOf(slotShortages)));
+            }
         }
-        List<LocalTime> slots = buildSlots(granularity);
-        Map<LocalTime, Integer> requiredBySlot = new HashMap<>();
-        Map<LocalTime, Integer> reservedSkillBySlot = new HashMap<>();
-        for (LocalTime t : slots) {
-            requiredBySlot.put(t, 0);
-            reservedSkillBySlot.put(t, 0);
+
+        // Weekly bound: each day needs at least its peak headcount; each employee can give at
+        // most (7 - weeklyRestDays) days per Sun..Sat week, minus days already worked outside the month
+        List<FeasibilityReport.WeekShortage> shortWeeks = new ArrayList<>();
+        for (LocalDate weekStart = outerStart; !weekStart.isAfter(end); weekStart = weekStart.plusWeeks(1)) {
+            LocalDate weekEnd = weekStart.plusDays(6);
+            LocalDate from = weekStart.isBefore(start) ? start : weekStart;
+            LocalDate to = weekEnd.isAfter(end) ? end : weekEnd;
+            int needed = 0;
+            for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1))
+                needed += peakByDay.getOrDefault(d, 0);
+            if (needed == 0)
+                continue;
+            int available = 0;
+            for (Employee emp : employees) {
+                Long empId = emp.getId();
+                int allowed = state.allowedWorkDaysPerWeek.getOrDefault(empId, 5);
+                int usedOutside = 0;
+                for (LocalDate d0 : state.workedDaysByEmployee.getOrDefault(empId, Collections.emptySet())) {
+                    if (!d0.isBefore(weekStart) && !d0.isAfter(weekEnd))
+                        usedOutside++;
+                }
+                int eligibleDays = 0;
+                for (LocalDate d0 : eligibleDaysByEmp.getOrDefault(empId, Collections.emptySet())) {
+                    if (!d0.isBefore(from) && !d0.isAfter(to))
+                        eligibleDays++;
+                }
+                available += Math.max(0, Math.min(allowed - usedOutside, eligibleDays));
+            }
+            if (available < needed) {
+                shortWeeks.add(new FeasibilityReport.WeekShortage(weekStart, weekEnd, needed, available));
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - began) / 1_000_000L;
+        boolean feasible = shortDays.isEmpty() && shortWeeks.isEmpty();
+        logger.info("feasibility {}: feasible={} required={} coverable={} shortDays={} shortWeeks={} ({} ms)",
+                ym, feasible, requiredTotal, coverableTotal, shortDays.size(), shortWeeks.size(), elapsedMillis);
+        return new FeasibilityReport(year, month, granularity, feasible, requiredTotal, coverableTotal,
+                elapsedMillis, List.copyOf(shortDays), List.copyOf(shortWeeks));
+    }
+
+    // One day of the feasibility check, ready for the flow computations
+    private record FeasibilityDay(LocalDate day, List<Employee> eligible, List<Map<Long, Integer>> seatsBySlot) {
+    }
+
+    // Bipartite bound for one slot: source -> employee (1) -> demanded skill (if qualified) -> sink (seats)
+    private Map<Long, Integer> maxCoverageBySkill(Map<Long, Integer> seatsBySkill, List<Employee> eligible) {
+        List<Long> skillIds = new ArrayList<>(seatsBySkill.keySet());
+        int employeeCount = eligible.size();
+        int source = 0;
+        int sink = 1 + employeeCount + skillIds.size();
+        MaxFlow flow = new MaxFlow(sink + 1);
+        int[] sinkEdges = new int[skillIds.size()];
+        for (int j = 0; j < skillIds.size(); j++) {
+            sinkEdges[j] = flow.addEdge(1 + employeeCount + j, sink, seatsBySkill.get(skillIds.get(j)));
+        }
+        for (int i = 0; i < employeeCount; i++) {
+            Employee emp = eligible.get(i);
+            flow.addEdge(source, 1 + i, 1);
+            for (int j = 0; j < skillIds.size(); j++) {
+                Long skillId = skillIds.get(j);
+                if (GENERIC_SKILL_KEY.equals(skillId) || hasSkill(emp, skillId))
+                    flow.addEdge(1 + i, 1 + employeeCount + j, 1);
+            }
+        }
+        flow.solve(source, sink);
+        Map<Long, Integer> result = new HashMap<>();
+        for (int j = 0; j < skillIds.size(); j++)
+            result.put(skillIds.get(j), flow.flowOn(sinkEdges[j]));
+        return result;
+    }
+
+    // Month-scoped generator state carried across the day loop
+    private static final class GenerationState {
+        final List<Employee> employees;
+        // Fully loaded employees; reservations and fixed shifts only hold lazy references that may
+        // outlive the session they were loaded in
+        final Map<Long, Employee> employeesById;
+        final Map<Long, EmployeeRule> rulesByEmp;
+        final Map<Long, List<EmployeeFixedShift>> fixedShiftsByEmployee;
+        final PairingModel pairing;
+        // Active skill patterns by skill id; empty unless shift.demand.mode=patterns
+        final Map<Long, List<SkillPattern>> patternsBySkill;
+        final boolean enforceWeeklyRest;
+        final SlotAxis axis;
+        // Allowed working days per week (7 - weeklyRestDays)
+        final Map<Long, Integer> allowedWorkDaysPerWeek = new HashMap<>();
+        final Map<Long, Set<LocalDate>> workedDaysByEmployee = new HashMap<>();
+        // Fairness counters (month-to-date): real worked days per employee
+        final Map<Long, Integer> mtdTotalWorkedDays = new HashMap<>();
+        final Map<Long, Integer> mtdWeekendHolidayWorkedDays = new HashMap<>();
+        int rotate;
+        int seeded;
+        int dropped;
+
+        private GenerationState(List<Employee> employees,
+                                Map<Long, EmployeeRule> rulesByEmp,
+                                Map<Long, List<EmployeeFixedShift>> fixedShiftsByEmployee,
+                                PairingModel pairing,
+                                Map<Long, List<SkillPattern>> patternsBySkill,
+                                boolean enforceWeeklyRest,
+                                SlotAxis axis) {
+            this.employees = employees;
+            this.employeesById = new HashMap<>();
+            for (Employee emp : employees)
+                employeesById.put(emp.getId(), emp);
+            this.rulesByEmp = rulesByEmp;
+            this.fixedShiftsByEmployee = fixedShiftsByEmployee;
+            this.pairing = pairing;
+            this.patternsBySkill = patternsBySkill;
+            this.enforceWeeklyRest = enforceWeeklyRest;
+            this.axis = axis;
+        }
+    }
+
+    private record MonthRun(List<ShiftAssignment> created, int seeded, int dropped, WeeklyCarry carry) {
+    }
+
+    /** Month inputs loaded ahead by a batch run; single use. */
+    static final class PreparedMonth {
+        private final YearMonth month;
+        private final SlotAxis axis;
+        private final MonthPlan plan;
+
+        private PreparedMonth(YearMonth month, SlotAxis axis, MonthPlan plan) {
+            this.month = month;
+            this.axis = axis;
+            this.plan = plan;
+        }
+
+        private boolean matches(YearMonth ym, SlotAxis other) {
+            return month.equals(ym) && axis.granularity() == other.granularity();
+        }
+
+        private MonthPlan plan() {
+            return plan;
+        }
+    }
+
+    /** Worked days per employee from a finished month, for the next month's Sun-Sat weekly-rest window. */
+    record WeeklyCarry(LocalDate monthEnd, Map<Long, Set<LocalDate>> workedDaysByEmployee) {
+    }
+
+    private record DayResult(List<ShiftAssignment> created, DayCoverage coverage) {
+    }
+
+    private record DayOutcome(LocalDate day, DayResult result) {
+    }
+
+    private record MonthPlan(GenerationState state, Map<LocalDate, List<DemandBlock>> blocksByDate) {
+    }
+
+    // Assignment carried over from a previous month / template week, re-validated before use
+    private record SeedShift(Employee employee, String shiftName, LocalTime start, LocalTime end) {
+    }
+
+    private GenerationState newGenerationState(List<Employee> employees, boolean enforceWeeklyRest, SlotAxis axis) {
+        // Preload rules once to avoid per-employee DB hits
+        Map<Long, EmployeeRule> rulesByEmp = loadRulesByEmployee(employees);
+        GenerationState state = new GenerationState(employees, rulesByEmp,
+                loadFixedShiftsByEmployee(employees), pairingModelCache.get(), loadPatternsBySkill(),
+                enforceWeeklyRest, axis);
+        for (var emp : employees) {
+            int rest = Optional.ofNullable(rulesByEmp.get(emp.getId()))
+                    .map(EmployeeRule::getWeeklyRestDays)
+                    .filter(v -> v != null && v >= 0)
+                    .orElse(2);
+            state.allowedWorkDaysPerWeek.put(emp.getId(), Math.max(0, 7 - rest));
+        }
+        return state;
+    }
+
+    private DayResult generateDay(LocalDate day,
+                                  GenerationState state,
+                                  List<DemandBlock> demandBlocks,
+                                  List<ShiftReservation> dayReservations,
+                                  List<SeedShift> seeds) {
+        final boolean isWkHol = isWeekendOrHoliday(day);
+        final boolean dayIsHoliday = isHoliday(day);
+        final SlotAxis axis = state.axis;
+        if (demandBlocks.isEmpty()) {
+            // No demand (e.g. a newly registered holiday): nothing to seed or fill
+            state.dropped += seeds.size();
+            return new DayResult(Collections.emptyList(), DayCoverage.empty(axis.granularity()));
         }
+        // Track real assignments counted once per day per employee
+        Set<Long> assignedToday = new HashSet<>();
+        DayContext dayCtx = buildDayContext(day, dayIsHoliday, state.employees, state.rulesByEmp);
+
+        // Per-slot counters on the compact axis (index = minutes since midnight / granularity)
+        final int slotCount = axis.slotCount();
+        int[] requiredBySlot = new int[slotCount];
+        int[] reservedSkillBySlot = new int[slotCount]; // remaining seats reserved for skill-specific
+        // Slots where each skill is demanded, for reserving skilled employees
+        Map<Long, boolean[]> demandedSlotsBySkill = new HashMap<>();
         for (DemandBlock block : demandBlocks) {
             int seats = block.seats();
             if (seats <= 0)
                 continue;
-            List<LocalTime> cov = slotsCoveredBy(block.start(), block.end(), granularity);
-            for (LocalTime t : cov) {
-                requiredBySlot.compute(t, (k, v) -> (v == null ? 0 : v) + seats);
+            int from = axis.startIndex(block.start());
+            int to = axis.endIndex(block.end());
+            Long sid = block.skill() != null ? block.skill().getId() : null;
+            boolean[] demanded = sid == null ? null
+                    : demandedSlotsBySkill.computeIfAbsent(sid, k -> new boolean[slotCount]);
+            for (int t = from; t < to; t++) {
+                requiredBySlot[t] += seats;
                 if (block.skill() != null)
-                    reservedSkillBySlot.compute(t, (k, v) -> (v == null ? 0 : v) + seats);
-            }
-        }
-        Map<LocalTime, Set<Long>> demandedSkillIdsBySlot = new HashMap<>();
-        for (LocalTime t : slots)
-            demandedSkillIdsBySlot.put(t, new HashSet<>());
-        for (DemandBlock block : demandBlocks) {
-            Skill blockSkill = block.skill();
-            if (blockSkill == null)
-                continue;
-            Long sid = blockSkill.getId();
-            if (sid == null)
-                continue;
-            for (LocalTime t : slotsCoveredBy(block.start(), block.end(), granularity)) {
-                demandedSkillIdsBySlot.get(t).add(sid);
+                    reservedSkillBySlot[t] += seats;
+                if (demanded != null)
+                    demanded[t] = true;
             }
         }
 
-        Map<LocalTime, Integer> assignedBySlot = new HashMap<>();
-        for (LocalTime t : slots)
-            assignedBySlot.put(t, 0);
+        int[] assignedBySlot = new int[slotCount];
 
+        List<ShiftAssignment> created = new ArrayList<>();
         List<ShiftAssignment> fixedAssignments = applyFixedShiftsForDay(
-                date,
-                fixedShiftsByEmployee,
+                day,
+                state,
                 dayCtx,
                 assignedBySlot,
-                granularity,
-                workedDaysByEmployee,
                 assignedToday,
-                mtdTotalWorkedDays,
-                mtdWeekendHolidayWorkedDays,
                 isWkHol);
         if (!fixedAssignments.isEmpty()) {
             created.addAll(fixedAssignments);
-            rotate += fixedAssignments.size();
+            state.rotate += fixedAssignments.size();
         }
 
         List<ShiftAssignment> reservationAssignments = applyReservationsForDay(
-                date,
+                day,
                 dayReservations,
+                state,
                 dayCtx,
                 assignedBySlot,
                 reservedSkillBySlot,
-                granularity,
-                workedDaysByEmployee,
                 assignedToday,
-                mtdTotalWorkedDays,
-                mtdWeekendHolidayWorkedDays,
                 isWkHol);
         if (!reservationAssignments.isEmpty()) {
             created.addAll(reservationAssignments);
-            rotate += reservationAssignments.size();
+            state.rotate += reservationAssignments.size();
         }
 
-        for (DemandBlock block : demandBlocks) {
-            int seats = block.seats();
+        // Remaining seats per block after seeds (index-aligned with demandBlocks)
+        int[] remainingSeats = new int[demandBlocks.size()];
+        for (int i = 0; i < demandBlocks.size(); i++)
+            remainingSeats[i] = demandBlocks.get(i).seats();
+
+        List<ShiftAssignment> seededAssignments = applySeedsForDay(
+                day,
+                seeds,
+                demandBlocks,
+                remainingSeats,
+                state,
+                dayCtx,
+                requiredBySlot,
+                assignedBySlot,
+                reservedSkillBySlot,
+                assignedToday,
+                isWkHol);
+        if (!seededAssignments.isEmpty()) {
+            created.addAll(seededAssignments);
+            state.rotate += seededAssignments.size();
+        }
+
+        for (int bi = 0; bi < demandBlocks.size(); bi++) {
+            DemandBlock block = demandBlocks.get(bi);
+            int seats = remainingSeats[bi];
             if (seats <= 0)
                 continue;
+            int seatOffset = block.seats() - seats;
             LocalTime s = block.start();
             LocalTime e = block.end();
             Skill needSkill = block.skill();
             int blockBreakMinutes = block.breakMinutes();
             String label = buildDemandLabel(needSkill, s, e);
 
-            List<Employee> avail = assignmentRepository.findAvailableEmployeesForTimeSlot(date, s, e)
+            List<Employee> avail = assignmentRepository.findAvailableEmployeesForTimeSlot(day, s, e)
                     .stream()
                     .filter(emp -> !dayCtx.excludeByPatternStrict.getOrDefault(emp.getId(), false))
                     .filter(emp -> !dayCtx.hardUnavailable.getOrDefault(emp.getId(), false))
                     .toList();
             if (needSkill != null) {
                 Long sid = needSkill.getId();
-                avail = avail.stream().filter(emp -> emp.getSkills() != null
-                        && emp.getSkills().stream().anyMatch(sk -> Objects.equals(sk.getId(), sid))).toList();
+                avail = avail.stream()
+                        .filter(emp -> hasSkill(emp, sid))
+                        .toList();
             }
             if (avail.isEmpty())
                 continue;
 
+            // For generic demand, preserve skilled employees if critically needed in these
+            // slots
             if (needSkill == null) {
-                List<LocalTime> covers = slotsCoveredBy(s, e, granularity);
-                Map<LocalTime, Integer> skilledAvailCount = new HashMap<>();
-                for (LocalTime t : covers)
-                    skilledAvailCount.put(t, 0);
+                int from = axis.startIndex(s);
+                int to = axis.endIndex(e);
+                int[] skilledAvailCount = new int[Math.max(0, to - from)];
+                List<List<boolean[]>> demandedMasks = new ArrayList<>(avail.size());
                 for (Employee emp : avail) {
-                    for (LocalTime t : covers) {
-                        Set<Long> ds = demandedSkillIdsBySlot.getOrDefault(t, Collections.emptySet());
-                        boolean empSkilled = emp.getSkills() != null
-                                && emp.getSkills().stream().anyMatch(sk -> ds.contains(sk.getId()));
-                        if (empSkilled)
-                            skilledAvailCount.compute(t, (k, v) -> (v == null ? 0 : v) + 1);
+                    List<boolean[]> masks = new ArrayList<>();
+                    if (emp.getSkills() != null) {
+                        for (Skill sk : emp.getSkills()) {
+                            boolean[] demanded = demandedSlotsBySkill.get(sk.getId());
+                            if (demanded != null)
+                                masks.add(demanded);
+                        }
+                    }
+                    demandedMasks.add(masks);
+                    for (int t = from; t < to; t++) {
+                        if (isDemanded(masks, t))
+                            skilledAvailCount[t - from]++;
                     }
                 }
                 List<Employee> filtered = new ArrayList<>();
-                for (Employee emp : avail) {
+                for (int ei = 0; ei < avail.size(); ei++) {
+                    List<boolean[]> masks = demandedMasks.get(ei);
                     boolean reserved = false;
-                    for (LocalTime t : covers) {
-                        int reservedSeats = reservedSkillBySlot.getOrDefault(t, 0);
+                    for (int t = from; t < to && !masks.isEmpty(); t++) {
+                        int reservedSeats = reservedSkillBySlot[t];
                         if (reservedSeats <= 0)
                             continue;
-                        Set<Long> ds = demandedSkillIdsBySlot.getOrDefault(t, Collections.emptySet());
-                        boolean empSkilled = emp.getSkills() != null
-                                && emp.getSkills().stream().anyMatch(sk -> ds.contains(sk.getId()));
-                        if (empSkilled) {
-                            int skilledCount = skilledAvailCount.getOrDefault(t, 0);
-                            if (skilledCount <= reservedSeats) {
-                                reserved = true;
-                                break;
-                            }
+                        if (isDemanded(masks, t) && skilledAvailCount[t - from] <= reservedSeats) {
+                            reserved = true;
+                            break;
                         }
                     }
                     if (!reserved)
-                        filtered.add(emp);
+                        filtered.add(avail.get(ei));
                 }
                 if (!filtered.isEmpty())
-                    avail = filtered;
+                    avail = filtered; // fallback to original if empty
+            }
+
+            // Enforce weekly rest-days: in a Sunday-Saturday window, limit distinct
+            // workdays to allowed
+            if (state.enforceWeeklyRest) {
+                List<Employee> weeklyOk = new ArrayList<>();
+                for (Employee emp : avail) {
+                    if (withinWeeklyLimit(state, emp.getId(), day))
+                        weeklyOk.add(emp);
+                }
+                if (weeklyOk.isEmpty())
+                    continue;
+                avail = weeklyOk;
             }
 
             List<Employee> rotated = new ArrayList<>(avail);
             if (!rotated.isEmpty()) {
-                int r = rotated.size() == 0 ? 0 : (rotate % rotated.size());
+                int r = rotated.size() == 0 ? 0 : (state.rotate % rotated.size());
                 if (r != 0)
                     Collections.rotate(rotated, -r);
+                // Fairness sort: prioritize employees with fewer MTD worked days
                 Map<Long, Integer> pos = new HashMap<>();
                 for (int i = 0; i < rotated.size(); i++)
                     pos.put(rotated.get(i).getId(), i);
                 rotated.sort((aEmp, bEmp) -> {
-                    long aScore = fairnessScore(aEmp.getId(), isWkHol, mtdTotalWorkedDays, mtdWeekendHolidayWorkedDays,
-                            assignedToday, pos);
-                    long bScore = fairnessScore(bEmp.getId(), isWkHol, mtdTotalWorkedDays, mtdWeekendHolidayWorkedDays,
-                            assignedToday, pos);
+                    long aScore = fairnessScore(aEmp.getId(), isWkHol, state.mtdTotalWorkedDays,
+                            state.mtdWeekendHolidayWorkedDays, assignedToday, pos);
+                    long bScore = fairnessScore(bEmp.getId(), isWkHol, state.mtdTotalWorkedDays,
+                            state.mtdWeekendHolidayWorkedDays, assignedToday, pos);
                     if (dayCtx.softUnavailable.getOrDefault(aEmp.getId(), false))
                         aScore += 5_000L;
                     if (dayCtx.preferred.getOrDefault(aEmp.getId(), false))
@@ -693,52 +940,197 @@ public class ScheduleService {
                     return Long.compare(aScore, bScore);
                 });
             }
-            List<LocalTime> covers = slotsCoveredBy(s, e, granularity);
+            int coverFrom = axis.startIndex(s);
+            int coverTo = axis.endIndex(e);
             int newly = 0;
             for (Employee emp : rotated) {
                 if (newly >= seats)
                     break;
-                boolean fits = true;
-                for (LocalTime t : covers) {
-                    int req = requiredBySlot.getOrDefault(t, 0);
-                    int asn = assignedBySlot.getOrDefault(t, 0);
-                    int reserved = reservedSkillBySlot.getOrDefault(t, 0);
-                    int cap = (needSkill == null) ? Math.max(0, req - reserved) : req;
-                    if (asn >= cap) {
-                        fits = false;
-                        break;
-                    }
-                }
-                if (!fits)
+                if (!fitsSlotCapacity(coverFrom, coverTo, needSkill != null, requiredBySlot, assignedBySlot,
+                        reservedSkillBySlot))
                     continue;
                 // avail は既に空きのため再照会しない
-                ShiftAssignment a = new ShiftAssignment(date, label, s, e, emp);
+                ShiftAssignment a = new ShiftAssignment(day, label, s, e, emp);
                 assignmentRepository.save(a);
-                autoAssignBreaks(a, newly, blockBreakMinutes);
+                autoAssignBreaks(a, seatOffset + newly, blockBreakMinutes);
                 created.add(a);
-                Long empId = emp.getId();
-                if (assignedToday.add(empId)) {
-                    mtdTotalWorkedDays.merge(empId, 1, Integer::sum);
-                    if (isWkHol)
-                        mtdWeekendHolidayWorkedDays.merge(empId, 1, Integer::sum);
-                }
+                recordWorkedDay(state, emp.getId(), day, assignedToday, isWkHol);
                 newly++;
-                for (LocalTime t : covers) {
-                    assignedBySlot.compute(t, (k, v) -> (v == null ? 0 : v) + 1);
-                    if (needSkill != null)
-                        reservedSkillBySlot.compute(t, (k, v) -> Math.max(0, (v == null ? 0 : v) - 1));
-                }
+                occupySlots(coverFrom, coverTo, needSkill != null, assignedBySlot, reservedSkillBySlot);
             }
-            rotate += newly;
+            state.rotate += newly;
+        }
+        return new DayResult(created, DayCoverage.of(axis, requiredBySlot, assignedBySlot));
+    }
+
+    private List<ShiftAssignment> applySeedsForDay(LocalDate day,
+                                                   List<SeedShift> seeds,
+                                                   List<DemandBlock> demandBlocks,
+                                                   int[] remainingSeats,
+                                                   GenerationState state,
+                                                   DayContext dayCtx,
+                                                   int[] requiredBySlot,
+                                                   int[] assignedBySlot,
+                                                   int[] reservedSkillBySlot,
+                                                   Set<Long> assignedToday,
+                                                   boolean isWeekendOrHoliday) {
+        if (seeds == null || seeds.isEmpty()) {
+            return Collections.emptyList();
         }
-        try {
-            jobStatusService.updateCount(date.getYear(), date.getMonthValue(), baselineCount + created.size());
-        } catch (Exception ignore) {
+        // Existing windows of the day (including fixed shifts/reservations just applied)
+        Map<Long, List<ShiftWindow>> windowsByEmp = new HashMap<>();
+        Set<Long> offToday = new HashSet<>();
+        for (ShiftAssignment sa : assignmentRepository.findByWorkDate(day)) {
+            if (sa.getEmployee() == null || sa.getEmployee().getId() == null)
+                continue;
+            Long empId = sa.getEmployee().getId();
+            if (isWorkingAssignment(sa)) {
+                windowsByEmp.computeIfAbsent(empId, k -> new ArrayList<>()).add(ShiftWindow.from(sa));
+            } else if (!isFreeAssignment(sa)) {
+                offToday.add(empId);
+            }
+        }
+        List<ShiftAssignment> created = new ArrayList<>();
+        for (SeedShift seed : seeds) {
+            Employee emp = seed.employee();
+            Long empId = emp != null ? emp.getId() : null;
+            if (empId == null || seed.start() == null || seed.end() == null) {
+                state.dropped++;
+                continue;
+            }
+            if (dayCtx.excludeByPatternStrict.getOrDefault(empId, false)
+                    || dayCtx.hardUnavailable.getOrDefault(empId, false)
+                    || offToday.contains(empId)
+                    || (state.enforceWeeklyRest && !withinWeeklyLimit(state, empId, day))) {
+                state.dropped++;
+                continue;
+            }
+            List<ShiftWindow> windows = windowsByEmp.getOrDefault(empId, Collections.emptyList());
+            if (windows.stream().anyMatch(w -> w.overlaps(seed.start(), seed.end()))) {
+                state.dropped++;
+                continue;
+            }
+            int bi = matchSeedBlock(seed, demandBlocks, remainingSeats);
+            if (bi < 0) {
+                state.dropped++;
+                continue;
+            }
+            DemandBlock block = demandBlocks.get(bi);
+            int from = state.axis.startIndex(block.start());
+            int to = state.axis.endIndex(block.end());
+            if (!fitsSlotCapacity(from, to, block.skill() != null, requiredBySlot, assignedBySlot, reservedSkillBySlot)) {
+                state.dropped++;
+                continue;
+            }
+            ShiftAssignment a = new ShiftAssignment(day, buildDemandLabel(block.skill(), block.start(), block.end()),
+                    block.start(), block.end(), emp);
+            assignmentRepository.save(a);
+            autoAssignBreaks(a, block.seats() - remainingSeats[bi], block.breakMinutes());
+            remainingSeats[bi]--;
+            created.add(a);
+            windowsByEmp.computeIfAbsent(empId, k -> new ArrayList<>()).add(ShiftWindow.from(a));
+            recordWorkedDay(state, empId, day, assignedToday, isWeekendOrHoliday);
+            occupySlots(from, to, block.skill() != null, assignedBySlot, reservedSkillBySlot);
+            state.seeded++;
         }
-        ensureFreePlaceholders(date.getYear(), date.getMonthValue());
         return created;
     }
 
+    // Prefer the block the seed was originally generated from (same window + label),
+    // otherwise any open block with the same window the employee is qualified for
+    private int matchSeedBlock(SeedShift seed, List<DemandBlock> demandBlocks, int[] remainingSeats) {
+        int fallback = -1;
+        for (int i = 0; i < demandBlocks.size(); i++) {
+            DemandBlock block = demandBlocks.get(i);
+            if (remainingSeats[i] <= 0)
+                continue;
+            if (!block.start().equals(seed.start()) || !block.end().equals(seed.end()))
+                continue;
+            if (block.skill() != null && !hasSkill(seed.employee(), block.skill().getId()))
+                continue;
+            if (Objects.equals(buildDemandLabel(block.skill(), block.start(), block.end()), seed.shiftName()))
+                return i;
+            if (fallback < 0)
+                fallback = i;
+        }
+        return fallback;
+    }
+
+    private boolean fitsSlotCapacity(int from,
+                                     int to,
+                                     boolean skillBlock,
+                                     int[] requiredBySlot,
+                                     int[] assignedBySlot,
+                                     int[] reservedSkillBySlot) {
+        for (int t = from; t < to; t++) {
+            int req = requiredBySlot[t];
+            int cap = skillBlock ? req : Math.max(0, req - reservedSkillBySlot[t]);
+            if (assignedBySlot[t] >= cap)
+                return false;
+        }
+        return true;
+    }
+
+    private void occupySlots(int from, int to, boolean skillSeat, int[] assignedBySlot, int[] reservedSkillBySlot) {
+        for (int t = from; t < to; t++) {
+            assignedBySlot[t]++;
+            if (skillSeat && reservedSkillBySlot[t] > 0)
+                reservedSkillBySlot[t]--;
+        }
+    }
+
+    private static boolean isDemanded(List<boolean[]> masks, int slot) {
+        for (boolean[] mask : masks) {
+            if (mask[slot])
+                return true;
+        }
+        return false;
+    }
+
+    private boolean withinWeeklyLimit(GenerationState state, Long empId, LocalDate day) {
+        final LocalDate weekStart = weekStartSunday(day);
+        final LocalDate weekEnd = weekStart.plusDays(6);
+        int allowedDays = state.allowedWorkDaysPerWeek.getOrDefault(empId, 5);
+        Set<LocalDate> days = state.workedDaysByEmployee.getOrDefault(empId, Collections.emptySet());
+        if (days.contains(day))
+            return true;
+        int used = 0;
+        for (LocalDate d0 : days) {
+            if (!d0.isBefore(weekStart) && !d0.isAfter(weekEnd))
+                used++;
+        }
+        return used < allowedDays;
+    }
+
+    // Mark the day as worked for weekly limits and count fairness once per day per employee
+    private void recordWorkedDay(GenerationState state, Long empId, LocalDate day, Set<Long> assignedToday,
+            boolean isWeekendOrHoliday) {
+        state.workedDaysByEmployee.computeIfAbsent(empId, k -> new HashSet<>()).add(day);
+        if (assignedToday.add(empId)) {
+            state.mtdTotalWorkedDays.merge(empId, 1, Integer::sum);
+            if (isWeekendOrHoliday)
+                state.mtdWeekendHolidayWorkedDays.merge(empId, 1, Integer::sum);
+        }
+    }
+
+    private boolean hasSkill(Employee emp, Long skillId) {
+        return emp != null && emp.getSkills() != null
+                && emp.getSkills().stream().anyMatch(sk -> Objects.equals(sk.getId(), skillId));
+    }
+
+    private boolean isFreeAssignment(ShiftAssignment sa) {
+        return Boolean.TRUE.equals(sa.getIsFree())
+                || (sa.getShiftName() != null && "FREE".equalsIgnoreCase(sa.getShiftName()));
+    }
+
+    // Real work only: FREE / OFF(休日) / leave placeholders are excluded
+    private boolean isWorkingAssignment(ShiftAssignment sa) {
+        boolean isOff = Boolean.TRUE.equals(sa.getIsOff()) || (sa.getShiftName() != null
+                && ("休日".equals(sa.getShiftName()) || "OFF".equalsIgnoreCase(sa.getShiftName())));
+        boolean isLeave = Boolean.TRUE.equals(sa.getIsLeave());
+        return !isFreeAssignment(sa) && !isOff && !isLeave;
+    }
+
     @Transactional(readOnly = true)
     public ScheduleGridResponse loadGrid(LocalDate start, LocalDate end) {
         LocalDate[] normalized = normalizeRange(start, end);
@@ -748,13 +1140,13 @@ public class ScheduleService {
         List<ScheduleGridEmployeeDto> employeeDtos = employees.stream()
                 .map(ScheduleGridEmployeeDto::from)
                 .toList();
-        Map<Long, List<BreakPeriod>> breaksByAssignment = breakRepository.findByAssignmentWorkDateBetween(rangeStart, rangeEnd)
+        // Projections: no entities, no dirty checking, no per-row employee loads
+        Map<Long, List<BreakPeriodRow>> breaksByAssignment = breakRepository.findRowsByAssignmentWorkDateBetween(rangeStart, rangeEnd)
                 .stream()
-                .filter(bp -> bp.getAssignment() != null && bp.getAssignment().getId() != null)
-                .collect(Collectors.groupingBy(bp -> bp.getAssignment().getId()));
-        List<ScheduleGridAssignmentDto> assignments = assignmentRepository.findWithEmployeeBetween(rangeStart, rangeEnd)
+                .collect(Collectors.groupingBy(BreakPeriodRow::assignmentId));
+        List<ScheduleGridAssignmentDto> assignments = assignmentRepository.findRowsBetween(rangeStart, rangeEnd)
                 .stream()
-                .map(sa -> ScheduleGridAssignmentDto.from(sa, breaksByAssignment.getOrDefault(sa.getId(), List.of())))
+                .map(sa -> ScheduleGridAssignmentDto.from(sa, breaksByAssignment.getOrDefault(sa.id(), List.of())))
                 .toList();
         Map<String, Object> meta = new HashMap<>();
         meta.put("rangeDays", ChronoUnit.DAYS.between(rangeStart, rangeEnd) + 1);
@@ -763,8 +1155,103 @@ public class ScheduleService {
         return new ScheduleGridResponse(rangeStart, rangeEnd, employeeDtos, assignments, meta);
     }
 
-    @Transactional
+    /** Same rows as {@link #loadGrid} in the parallel-array layout of {@link ScheduleGridColumnar}. */
+    @Transactional(readOnly = true)
+    public ScheduleGridColumnar loadGridColumnar(LocalDate start, LocalDate end) {
+        LocalDate[] normalized = normalizeRange(start, end);
+        List<ScheduleGridEmployeeDto> employees = fetchOrderedEmployees().stream()
+                .map(ScheduleGridEmployeeDto::from)
+                .toList();
+        Map<Long, List<BreakPeriodRow>> breaksByAssignment = breakRepository.findRowsByAssignmentWorkDateBetween(normalized[0], normalized[1])
+                .stream()
+                .collect(Collectors.groupingBy(BreakPeriodRow::assignmentId));
+        return ScheduleGridColumnar.from(normalized[0], normalized[1], employees,
+                assignmentRepository.findRowsBetween(normalized[0], normalized[1]), breaksByAssignment);
+    }
+
+    /**
+     * One page of grid rows: up to {@code limit} employees after {@code after} in display order, filtered by
+     * role and skill in SQL, with their assignments in the range. One extra row is read to tell whether more follow.
+     */
+    @Transactional(readOnly = true)
+    public ScheduleGridWindow loadGridWindow(LocalDate start, LocalDate end, ScheduleGridWindow.Cursor after,
+                                             Integer limit, String role, Long skillId) {
+        LocalDate[] normalized = normalizeRange(start, end);
+        int rows = limit == null ? GRID_WINDOW_DEFAULT_ROWS : limit;
+        if (rows < 1 || rows > GRID_WINDOW_MAX_ROWS) {
+            throw new BusinessException("GRID_WINDOW_LIMIT", "limit は 1〜" + GRID_WINDOW_MAX_ROWS + " の範囲で指定してください");
+        }
+        String roleFilter = role == null || role.isBlank() ? null : role.trim();
+        List<Employee> page = new ArrayList<>(employeeRepository.findWindowAfter(
+                after == null ? Integer.MIN_VALUE : after.afterOrder(),
+                after == null ? Long.MIN_VALUE : after.afterId(),
+                roleFilter, skillId, Limit.of(rows + 1)));
+        ScheduleGridWindow.Cursor next = null;
+        if (page.size() > rows) {
+            page.subList(rows, page.size()).clear();
+            Employee last = page.get(rows - 1);
+            next = new ScheduleGridWindow.Cursor(
+                    last.getDisplayOrder() == null ? Integer.MAX_VALUE : last.getDisplayOrder(), last.getId());
+        }
+        List<ScheduleGridEmployeeDto> employees = page.stream().map(ScheduleGridEmployeeDto::from).toList();
+        List<Long> ids = employees.stream().map(ScheduleGridEmployeeDto::id).toList();
+        List<ScheduleGridAssignmentDto> assignments = List.of();
+        if (!ids.isEmpty()) {
+            Map<Long, List<BreakPeriodRow>> breaksByAssignment = breakRepository
+                    .findRowsByAssignmentWorkDateBetweenForEmployees(normalized[0], normalized[1], ids)
+                    .stream()
+                    .collect(Collectors.groupingBy(BreakPeriodRow::assignmentId));
+            assignments = assignmentRepository.findRowsBetweenForEmployees(normalized[0], normalized[1], ids)
+                    .stream()
+                    .map(sa -> ScheduleGridAssignmentDto.from(sa, breaksByAssignment.getOrDefault(sa.id(), List.of())))
+                    .toList();
+        }
+        // Lets the editor size its scroll area before it has seen every row
+        long total = employeeRepository.countWindow(roleFilter, skillId);
+        return new ScheduleGridWindow(normalized[0], normalized[1], employees, assignments, total,
+                ChronoUnit.DAYS.between(normalized[0], normalized[1]) + 1, next);
+    }
+
+    /**
+     * Applies grid edits with every touched month locked, so the conflict checks cannot race a generation
+     * of the same month. Edits to other months proceed in parallel.
+     */
     public ScheduleGridBulkResult applyGridChanges(ScheduleGridBulkRequest request) {
+        // Read on a reader connection; the write itself shares a commit with other small edits
+        Set<YearMonth> months = touchedMonths(request);
+        return monthLocks.withEditLock(months,
+                () -> groupCommitWriter.write(() -> applyGridChangesLocked(request)));
+    }
+
+    // Months of new dates, target dates and the current dates of updated/deleted assignments
+    private Set<YearMonth> touchedMonths(ScheduleGridBulkRequest request) {
+        Set<YearMonth> months = new HashSet<>();
+        if (request == null) {
+            return months;
+        }
+        Set<Long> existingIds = new HashSet<>();
+        Optional.ofNullable(request.getCreate()).orElseGet(List::of).stream()
+                .map(ScheduleGridBulkRequest.CreatePayload::getWorkDate)
+                .filter(Objects::nonNull)
+                .forEach(d -> months.add(YearMonth.from(d)));
+        for (ScheduleGridBulkRequest.UpdatePayload payload : Optional.ofNullable(request.getUpdate()).orElseGet(List::of)) {
+            if (payload.getWorkDate() != null) {
+                months.add(YearMonth.from(payload.getWorkDate()));
+            }
+            if (payload.getId() != null) {
+                existingIds.add(payload.getId());
+            }
+        }
+        Optional.ofNullable(request.getDelete()).orElseGet(List::of).stream()
+                .filter(Objects::nonNull)
+                .forEach(existingIds::add);
+        if (!existingIds.isEmpty()) {
+            assignmentRepository.findAllById(existingIds).forEach(sa -> months.add(YearMonth.from(sa.getWorkDate())));
+        }
+        return months;
+    }
+
+    private ScheduleGridBulkResult applyGridChangesLocked(ScheduleGridBulkRequest request) {
         if (request == null) {
             throw new BusinessException("GRID_BULK_EMPTY", "更新内容が空です");
         }
@@ -943,7 +1430,7 @@ public class ScheduleService {
             deleteBreaksByType(assignment != null ? assignment.getId() : null, BreakPeriod.BreakType.SHORT);
             return;
         }
-        BreakSettings settings = breakSettingsRepository.findAll().stream().findFirst().orElse(null);
+        BreakSettings settings = breakSettingsRepository.findCurrent().orElse(null);
         if (settings == null || !Boolean.TRUE.equals(settings.getShortBreakEnabled())) {
             deleteBreaksByType(assignment.getId(), BreakPeriod.BreakType.SHORT);
             return;
@@ -1118,7 +1605,8 @@ public class ScheduleService {
         }
     }
 
-    private LocalDate[] normalizeRange(LocalDate start, LocalDate end) {
+    // Shared with the controller: the normalized range is part of the grid ETag
+    LocalDate[] normalizeRange(LocalDate start, LocalDate end) {
         LocalDate base = LocalDate.now();
         LocalDate rangeStart = start != null ? start : weekStartSunday(base);
         LocalDate rangeEnd = end != null ? end : rangeStart.plusDays(6);
@@ -1273,37 +1761,13 @@ public class ScheduleService {
         }
     }
 
-    private List<LocalTime> buildSlots(int granularityMinutes) {
-        List<LocalTime> slots = new ArrayList<>();
-        int steps = Math.max(1, (24 * 60) / granularityMinutes);
-        for (int i = 0; i < steps; i++)
-            slots.add(LocalTime.MIDNIGHT.plusMinutes((long) i * granularityMinutes));
-        return slots;
-    }
-
-    private List<LocalTime> slotsCoveredBy(LocalTime start, LocalTime end, int granularityMinutes) {
-        List<LocalTime> res = new ArrayList<>();
-        List<LocalTime> base = buildSlots(granularityMinutes);
-        LocalTime lastEnd = LocalTime.of(23, 59);
-        for (int i = 0; i < base.size(); i++) {
-            LocalTime s = base.get(i);
-            LocalTime e = (i == base.size() - 1) ? lastEnd : base.get(i + 1);
-            if (start.isBefore(e) && end.isAfter(s))
-                res.add(s);
-        }
-        return res;
-    }
-
     private List<ShiftAssignment> applyFixedShiftsForDay(LocalDate day,
-                                                         Map<Long, List<EmployeeFixedShift>> fixedShiftsByEmployee,
+                                                         GenerationState state,
                                                          DayContext dayCtx,
-                                                         Map<LocalTime, Integer> assignedBySlot,
-                                                         int granularityMinutes,
-                                                         Map<Long, Set<LocalDate>> workedDaysByEmployee,
+                                                         int[] assignedBySlot,
                                                          Set<Long> assignedToday,
-                                                         Map<Long, Integer> mtdTotalWorkedDays,
-                                                         Map<Long, Integer> mtdWeekendHolidayWorkedDays,
                                                          boolean isWeekendOrHoliday) {
+        Map<Long, List<EmployeeFixedShift>> fixedShiftsByEmployee = state.fixedShiftsByEmployee;
         if (fixedShiftsByEmployee == null || fixedShiftsByEmployee.isEmpty()) {
             return Collections.emptyList();
         }
@@ -1330,8 +1794,8 @@ public class ScheduleService {
                     continue;
                 if (dayCtx.hardUnavailable.getOrDefault(empId, false))
                     continue;
-                Employee employee = def.getEmployee();
-                if (employee == null || employee.getId() == null)
+                Employee employee = state.employeesById.get(empId);
+                if (employee == null)
                     continue;
                 List<ShiftAssignment> existingDay = dayAssignmentsCache.computeIfAbsent(empId,
                         k -> assignmentRepository.findByEmployeeAndWorkDate(employee, day));
@@ -1356,17 +1820,9 @@ public class ScheduleService {
                     existingDay.add(assignment);
                 created.add(assignment);
 
-                workedDaysByEmployee.computeIfAbsent(empId, k -> new HashSet<>()).add(day);
-                if (assignedToday.add(empId)) {
-                    mtdTotalWorkedDays.merge(empId, 1, Integer::sum);
-                    if (isWeekendOrHoliday) {
-                        mtdWeekendHolidayWorkedDays.merge(empId, 1, Integer::sum);
-                    }
-                }
-                List<LocalTime> covers = slotsCoveredBy(start, end, granularityMinutes);
-                for (LocalTime slot : covers) {
-                    assignedBySlot.compute(slot, (k, v) -> (v == null ? 0 : v) + 1);
-                }
+                recordWorkedDay(state, empId, day, assignedToday, isWeekendOrHoliday);
+                for (int t = state.axis.startIndex(start); t < state.axis.endIndex(end); t++)
+                    assignedBySlot[t]++;
             }
         }
         return created;
@@ -1374,15 +1830,12 @@ public class ScheduleService {
 
     private List<ShiftAssignment> applyReservationsForDay(LocalDate day,
                                                          List<ShiftReservation> reservations,
+                                                         GenerationState state,
                                                          DayContext dayCtx,
-                                                         Map<LocalTime, Integer> assignedBySlot,
-                                                          Map<LocalTime, Integer> reservedSkillBySlot,
-                                                          int granularityMinutes,
-                                                          Map<Long, Set<LocalDate>> workedDaysByEmployee,
-                                                          Set<Long> assignedToday,
-                                                          Map<Long, Integer> mtdTotalWorkedDays,
-                                                          Map<Long, Integer> mtdWeekendHolidayWorkedDays,
-                                                          boolean isWeekendOrHoliday) {
+                                                         int[] assignedBySlot,
+                                                         int[] reservedSkillBySlot,
+                                                         Set<Long> assignedToday,
+                                                         boolean isWeekendOrHoliday) {
         if (reservations == null || reservations.isEmpty()) {
             return Collections.emptyList();
         }
@@ -1391,8 +1844,9 @@ public class ScheduleService {
             if (reservation == null || !reservation.isPending()) {
                 continue;
             }
-            Employee employee = reservation.getEmployee();
-            if (employee == null || employee.getId() == null) {
+            Employee ref = reservation.getEmployee();
+            Employee employee = ref != null ? state.employeesById.get(ref.getId()) : null;
+            if (employee == null) {
                 continue;
             }
             Long empId = employee.getId();
@@ -1429,20 +1883,9 @@ public class ScheduleService {
             reservationRepository.save(reservation);
             created.add(assignment);
 
-            workedDaysByEmployee.computeIfAbsent(empId, k -> new HashSet<>()).add(day);
-            if (assignedToday.add(empId)) {
-                mtdTotalWorkedDays.merge(empId, 1, Integer::sum);
-                if (isWeekendOrHoliday) {
-                    mtdWeekendHolidayWorkedDays.merge(empId, 1, Integer::sum);
-                }
-            }
-            List<LocalTime> covers = slotsCoveredBy(reservation.getStartTime(), reservation.getEndTime(), granularityMinutes);
-            for (LocalTime slot : covers) {
-                assignedBySlot.compute(slot, (k, v) -> (v == null ? 0 : v) + 1);
-                if (reservation.getSkill() != null) {
-                    reservedSkillBySlot.compute(slot, (k, v) -> Math.max(0, (v == null ? 0 : v) - 1));
-                }
-            }
+            recordWorkedDay(state, empId, day, assignedToday, isWeekendOrHoliday);
+            occupySlots(state.axis.startIndex(reservation.getStartTime()), state.axis.endIndex(reservation.getEndTime()),
+                    reservation.getSkill() != null, assignedBySlot, reservedSkillBySlot);
         }
         return created;
     }
@@ -1866,14 +2309,18 @@ public class ScheduleService {
         Map<Long, EmployeeRule> rulesByEmp = new HashMap<>();
         if (employees == null)
             return rulesByEmp;
+        Map<Long, EmployeeRule> allRules;
+        try {
+            allRules = employeeRuleRepository.findAllByEmployeeId();
+        } catch (Exception e) {
+            return rulesByEmp;
+        }
         for (Employee emp : employees) {
             if (emp == null || emp.getId() == null)
                 continue;
-            try {
-                employeeRuleRepository.findByEmployeeId(emp.getId())
-                        .ifPresent(rule -> rulesByEmp.put(emp.getId(), rule));
-            } catch (Exception ignore) {
-            }
+            EmployeeRule rule = allRules.get(emp.getId());
+            if (rule != null)
+                rulesByEmp.put(emp.getId(), rule);
         }
         return rulesByEmp;
     }
@@ -1901,29 +2348,189 @@ public class ScheduleService {
         try {
             return employeeRepository.findAllOrdered();
         } catch (Exception e) {
-            return employeeRepository.findAll();
+            // Query or second-level cache read failed: fetch from the database, skills included for the fan-out
+            return employeeRepository.findAllWithSkills();
+        }
+    }
+
+    // Demand blocks for every day of [start, end] in one pass: one demand query and one holiday query
+    // for the range, and days with the same effective demand (e.g. every regular Monday) share the
+    // merged/paired/decomposed blocks instead of recomputing them.
+    private Map<LocalDate, List<DemandBlock>> prepareDemandBlocks(LocalDate start, LocalDate end,
+                                                                  GenerationState state) {
+        Set<LocalDate> holidays;
+        try {
+            holidays = new HashSet<>(holidayRepository.findDatesBetween(start, end));
+        } catch (Exception e) {
+            holidays = Collections.emptySet();
+        }
+        List<DemandInterval> templates = new ArrayList<>();
+        Map<LocalDate, List<DemandInterval>> dated = new HashMap<>();
+        for (DemandInterval d : demandRepository.findActiveForRange(start, end)) {
+            if (d.getDate() == null)
+                templates.add(d);
+            else
+                dated.computeIfAbsent(d.getDate(), k -> new ArrayList<>()).add(d);
+        }
+        Map<String, List<DemandBlock>> byComposition = new HashMap<>();
+        Map<LocalDate, List<DemandBlock>> result = new HashMap<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            boolean holiday = holidays.contains(day);
+            List<DemandInterval> effective = new ArrayList<>(dated.getOrDefault(day, Collections.emptyList()));
+            for (DemandInterval d : templates) {
+                boolean holidayOnly = Boolean.TRUE.equals(d.getHolidayOnly());
+                if (holiday ? holidayOnly : (!holidayOnly && d.getDayOfWeek() == day.getDayOfWeek()))
+                    effective.add(d);
+            }
+            if (effective.isEmpty())
+                continue;
+            effective.sort(Comparator.comparing(DemandInterval::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+            // Weekday is part of the key because skill patterns can be weekday-specific
+            String key = day.getDayOfWeek() + effective.stream()
+                    .map(d -> String.valueOf(d.getId()))
+                    .collect(Collectors.joining(",", "|", ""));
+            final LocalDate target = day;
+            result.put(day, byComposition.computeIfAbsent(key,
+                    k -> List.copyOf(prepareDemandBlocks(effective, target, state))));
         }
+        return result;
     }
 
     private List<DemandBlock> prepareDemandBlocks(List<DemandInterval> raw,
-                                                  PairingRuntime pairingRuntime) {
+                                                  LocalDate day,
+                                                  GenerationState state) {
         if (raw == null || raw.isEmpty()) {
             return Collections.emptyList();
         }
         List<MutableDemandBlock> merged = mergeDemands(raw);
-        List<DemandBlock> blocks;
-        if (pairingRuntime.canPair()) {
-            blocks = applyPairing(merged, pairingRuntime);
+        List<DemandBlock> blocks = new ArrayList<>();
+        if (!state.patternsBySkill.isEmpty()) {
+            merged = decomposeByPatterns(merged, day, state, blocks);
+        }
+        if (state.pairing.canPair()) {
+            blocks.addAll(applyPairing(merged, state.pairing));
         } else {
-            blocks = merged.stream()
+            merged.stream()
                     .filter(b -> b.seats() > 0)
                     .map(MutableDemandBlock::toDemandBlock)
-                    .collect(Collectors.toCollection(ArrayList::new));
+                    .forEach(blocks::add);
         }
         sortDemandBlocks(blocks);
         return blocks;
     }
 
+    private Map<Long, List<SkillPattern>> loadPatternsBySkill() {
+        if (!"patterns".equalsIgnoreCase(demandMode == null ? "" : demandMode.trim())) {
+            return Collections.emptyMap();
+        }
+        Map<Long, List<SkillPattern>> map = new HashMap<>();
+        for (SkillPattern p : skillPatternRepository.findByActiveTrue()) {
+            if (p.getSkill() == null || p.getSkill().getId() == null)
+                continue;
+            map.computeIfAbsent(p.getSkill().getId(), k -> new ArrayList<>()).add(p);
+        }
+        return map;
+    }
+
+    // Shift construction: for skills with a pattern applying on this day, sum the demand blocks into a
+    // per-slot curve and re-cut it into shifts of the allowed lengths (greedy covering, see
+    // ShiftDecomposer). Synthesized blocks go to out; the blocks of other skills are returned untouched.
+    private List<MutableDemandBlock> decomposeByPatterns(List<MutableDemandBlock> merged,
+                                                         LocalDate day,
+                                                         GenerationState state,
+                                                         List<DemandBlock> out) {
+        final SlotAxis axis = state.axis;
+        final int granularity = axis.granularity();
+        final int slotCount = axis.slotCount();
+        Map<Long, List<MutableDemandBlock>> bySkill = new LinkedHashMap<>();
+        Map<Long, List<SkillPattern>> patternsBySkill = new HashMap<>();
+        List<MutableDemandBlock> untouched = new ArrayList<>();
+        for (MutableDemandBlock block : merged) {
+            List<SkillPattern> patterns = block.skillId() == null ? List.of()
+                    : state.patternsBySkill.getOrDefault(block.skillId(), List.of()).stream()
+                            .filter(p -> p.getDayOfWeek() == null || p.getDayOfWeek() == day.getDayOfWeek())
+                            // Weekday-specific patterns take precedence over every-day ones
+                            .sorted(Comparator.comparing((SkillPattern p) -> p.getDayOfWeek() == null)
+                                    .thenComparing(SkillPattern::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                            .toList();
+            if (patterns.isEmpty()) {
+                untouched.add(block);
+                continue;
+            }
+            bySkill.computeIfAbsent(block.skillId(), k -> new ArrayList<>()).add(block);
+            patternsBySkill.put(block.skillId(), patterns);
+        }
+        for (Map.Entry<Long, List<MutableDemandBlock>> entry : bySkill.entrySet()) {
+            Skill skill = entry.getValue().get(0).skill();
+            int[] remaining = new int[slotCount];
+            for (MutableDemandBlock block : entry.getValue()) {
+                for (int t = axis.startIndex(block.start()); t < axis.endIndex(block.end()); t++)
+                    remaining[t] += block.seats();
+            }
+            int before = out.size();
+            for (SkillPattern pattern : patternsBySkill.get(entry.getKey())) {
+                List<Integer> lengths = patternLengthsInSlots(pattern, granularity);
+                int from = pattern.getStartTime() == null ? 0 : axis.startIndex(pattern.getStartTime());
+                int to = pattern.getEndTime() == null || pattern.getEndTime().equals(LocalTime.MIDNIGHT) ? slotCount
+                        : axis.endIndex(pattern.getEndTime());
+                if (lengths.isEmpty() || from >= to)
+                    continue;
+                for (ShiftDecomposer.Piece piece : ShiftDecomposer.decompose(remaining, from, to, lengths))
+                    out.add(toSynthesizedBlock(piece, skill, axis));
+                Arrays.fill(remaining, from, to, 0);
+            }
+            // Demand outside every pattern window stays as literal runs
+            for (ShiftDecomposer.Piece piece : ShiftDecomposer.decompose(remaining, 0, slotCount, List.of()))
+                out.add(toSynthesizedBlock(piece, skill, axis));
+            if (logger.isDebugEnabled()) {
+                logger.debug("shift construction {} skill={}: {} demand blocks -> {} shifts",
+                        day, entry.getKey(), entry.getValue().size(), out.size() - before);
+            }
+        }
+        return untouched;
+    }
+
+    private DemandBlock toSynthesizedBlock(ShiftDecomposer.Piece piece, Skill skill, SlotAxis axis) {
+        LocalTime start = axis.slotStart(piece.startSlot());
+        LocalTime end = axis.slotEnd(piece.endSlot() - 1);
+        return new DemandBlock(start, end, skill, piece.count(), BreakRules.normalizeMinutes(null, start, end));
+    }
+
+    // allowedLengthsCsv is in hours; lengths that are not a multiple of the slot size are ignored.
+    // priorityHint picks the preferred entry of the list (FIRST/MIDDLE/LAST, ANY = longest), which
+    // wins whenever two lengths cover the curve equally well; the rest follow longest first.
+    private List<Integer> patternLengthsInSlots(SkillPattern pattern, int granularity) {
+        List<Integer> listed = new ArrayList<>();
+        String csv = pattern.getAllowedLengthsCsv();
+        if (csv != null) {
+            for (String token : csv.split(",")) {
+                try {
+                    int minutes = (int) Math.round(Double.parseDouble(token.trim()) * 60);
+                    if (minutes > 0 && minutes % granularity == 0 && !listed.contains(minutes / granularity))
+                        listed.add(minutes / granularity);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        if (listed.isEmpty())
+            return listed;
+        SkillPattern.PriorityHint hint = pattern.getPriorityHint() == null
+                ? SkillPattern.PriorityHint.ANY : pattern.getPriorityHint();
+        Integer preferred = switch (hint) {
+            case FIRST -> listed.get(0);
+            case LAST -> listed.get(listed.size() - 1);
+            case MIDDLE -> listed.get(listed.size() / 2);
+            case ANY -> null;
+        };
+        List<Integer> ordered = new ArrayList<>(listed);
+        ordered.sort(Comparator.reverseOrder());
+        if (preferred != null) {
+            ordered.remove(preferred);
+            ordered.add(0, preferred);
+        }
+        return ordered;
+    }
+
     private List<MutableDemandBlock> mergeDemands(List<DemandInterval> raw) {
         Map<String, MutableDemandBlock> merged = new LinkedHashMap<>();
         for (DemandInterval d : raw) {
@@ -1949,30 +2556,36 @@ public class ScheduleService {
         return (id == null ? "GENERIC" : id.toString()) + "|" + start + "|" + end;
     }
 
-    private List<DemandBlock> applyPairing(List<MutableDemandBlock> baseBlocks, PairingRuntime runtime) {
+    private List<DemandBlock> applyPairing(List<MutableDemandBlock> baseBlocks, PairingModel model) {
         Map<Long, List<MutableDemandBlock>> bySkill = new LinkedHashMap<>();
+        // Merged blocks are unique per (skill, window), so presets resolve by hash lookup
+        Map<PairingKey, MutableDemandBlock> byWindow = new HashMap<>();
         for (MutableDemandBlock block : baseBlocks) {
             bySkill.computeIfAbsent(block.skillId(), k -> new ArrayList<>()).add(block);
+            byWindow.put(new PairingKey(block.skillId(), block.start(), block.end()), block);
         }
         List<DemandBlock> result = new ArrayList<>();
-        for (List<MutableDemandBlock> blocks : bySkill.values()) {
-            result.addAll(applyPairingForSkill(blocks, runtime));
+        for (Map.Entry<Long, List<MutableDemandBlock>> entry : bySkill.entrySet()) {
+            result.addAll(applyPairingForSkill(entry.getKey(), entry.getValue(), byWindow, model));
         }
         return result;
     }
 
-    private List<DemandBlock> applyPairingForSkill(List<MutableDemandBlock> blocks, PairingRuntime runtime) {
+    private List<DemandBlock> applyPairingForSkill(Long skillId,
+                                                   List<MutableDemandBlock> blocks,
+                                                   Map<PairingKey, MutableDemandBlock> byWindow,
+                                                   PairingModel model) {
         List<DemandBlock> result = new ArrayList<>();
-        for (PairingPreset preset : runtime.presets()) {
-            MutableDemandBlock morning = findMatching(blocks, preset.morning(), runtime.toleranceMinutes());
-            MutableDemandBlock afternoon = findMatching(blocks, preset.afternoon(), runtime.toleranceMinutes());
+        for (PairingModel.Preset preset : model.presets()) {
+            MutableDemandBlock morning = lookupPairingBlock(skillId, blocks, byWindow, preset.morning(), model);
+            MutableDemandBlock afternoon = lookupPairingBlock(skillId, blocks, byWindow, preset.afternoon(), model);
             if (morning == null || afternoon == null)
                 continue;
             int pairs = Math.min(morning.seats(), afternoon.seats());
             if (pairs <= 0)
                 continue;
-            int pairBreakMinutes = BreakRules.normalizeMinutes(null, preset.full().start(), preset.full().end());
-            result.add(new DemandBlock(preset.full().start(), preset.full().end(), morning.skill(), pairs, pairBreakMinutes));
+            result.add(new DemandBlock(preset.full().start(), preset.full().end(), morning.skill(), pairs,
+                    preset.fullBreakMinutes()));
             morning.decrement(pairs);
             afternoon.decrement(pairs);
         }
@@ -1984,7 +2597,19 @@ public class ScheduleService {
         return result;
     }
 
-    private MutableDemandBlock findMatching(List<MutableDemandBlock> blocks, TimeWindow target, int tolerance) {
+    private MutableDemandBlock lookupPairingBlock(Long skillId,
+                                                  List<MutableDemandBlock> blocks,
+                                                  Map<PairingKey, MutableDemandBlock> byWindow,
+                                                  PairingModel.TimeWindow target,
+                                                  PairingModel model) {
+        if (!model.exactMatching())
+            return findMatching(blocks, target, model.toleranceMinutes());
+        MutableDemandBlock block = byWindow.get(new PairingKey(skillId, target.start(), target.end()));
+        return block != null && block.seats() > 0 ? block : null;
+    }
+
+    // Tolerance matching cannot use the exact index; scans the blocks of one skill
+    private MutableDemandBlock findMatching(List<MutableDemandBlock> blocks, PairingModel.TimeWindow target, int tolerance) {
         if (target == null)
             return null;
         for (MutableDemandBlock block : blocks) {
@@ -1996,7 +2621,7 @@ public class ScheduleService {
         return null;
     }
 
-    private boolean matchesWindow(LocalTime start, LocalTime end, TimeWindow target, int toleranceMinutes) {
+    private boolean matchesWindow(LocalTime start, LocalTime end, PairingModel.TimeWindow target, int toleranceMinutes) {
         if (target == null)
             return false;
         if (toleranceMinutes <= 0) {
@@ -2027,84 +2652,6 @@ public class ScheduleService {
         return (skill != null && skill.getPriority() != null) ? skill.getPriority() : 0;
     }
 
-    private PairingRuntime loadPairingRuntime() {
-        PairingSettings settings = null;
-        try {
-            settings = pairingSettingsRepository.findAll().stream().findFirst().orElse(null);
-        } catch (Exception e) {
-            logger.warn("Failed to load pairing settings", e);
-            return PairingRuntime.disabled();
-        }
-        if (settings == null || !Boolean.TRUE.equals(settings.getEnabled())) {
-            return PairingRuntime.disabled();
-        }
-        int tolerance = Optional.ofNullable(settings.getPairToleranceMinutes()).orElse(0);
-        tolerance = Math.max(0, tolerance);
-        List<PairingPreset> presets = new ArrayList<>();
-        for (PairingDefinitionPayload payload : parsePairingDefinitions(settings.getSkillPairings())) {
-            PairingPreset preset = toPreset(payload);
-            if (preset != null) {
-                presets.add(preset);
-            }
-        }
-        if (presets.isEmpty()) {
-            PairingPreset legacy = toPreset(settings.getFullWindow(), settings.getMorningWindow(),
-                    settings.getAfternoonWindow(), "既定");
-            if (legacy != null) {
-                presets.add(legacy);
-            }
-        }
-        if (presets.isEmpty()) {
-            return PairingRuntime.disabled();
-        }
-        return new PairingRuntime(true, tolerance, List.copyOf(presets));
-    }
-
-    private List<PairingDefinitionPayload> parsePairingDefinitions(String raw) {
-        if (raw == null || raw.isBlank())
-            return Collections.emptyList();
-        try {
-            List<PairingDefinitionPayload> payloads = PAIRING_MAPPER.readValue(raw, PAIRING_TYPE);
-            return payloads == null ? Collections.emptyList() : payloads;
-        } catch (Exception e) {
-            logger.warn("Failed to parse pairing definitions", e);
-            return Collections.emptyList();
-        }
-    }
-
-    private PairingPreset toPreset(PairingDefinitionPayload payload) {
-        if (payload == null)
-            return null;
-        return toPreset(payload.fullWindow(), payload.morningWindow(), payload.afternoonWindow(), payload.name());
-    }
-
-    private PairingPreset toPreset(String fullWindow, String morningWindow, String afternoonWindow, String name) {
-        TimeWindow full = parseWindow(fullWindow);
-        TimeWindow morning = parseWindow(morningWindow);
-        TimeWindow afternoon = parseWindow(afternoonWindow);
-        if (full == null || morning == null || afternoon == null) {
-            return null;
-        }
-        return new PairingPreset(name == null || name.isBlank() ? "Pair" : name.trim(), full, morning, afternoon);
-    }
-
-    private TimeWindow parseWindow(String raw) {
-        if (raw == null || raw.isBlank())
-            return null;
-        String[] parts = raw.split("-");
-        if (parts.length != 2)
-            return null;
-        try {
-            LocalTime start = LocalTime.parse(parts[0].trim());
-            LocalTime end = LocalTime.parse(parts[1].trim());
-            if (!start.isBefore(end))
-                return null;
-            return new TimeWindow(start, end);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     private String buildDemandLabel(Skill skill, LocalTime start, LocalTime end) {
         String label;
         if (skill != null) {
@@ -2178,24 +2725,7 @@ public class ScheduleService {
         }
     }
 
-    private record PairingRuntime(boolean enabled, int toleranceMinutes, List<PairingPreset> presets) {
-        static PairingRuntime disabled() {
-            return new PairingRuntime(false, 0, List.of());
-        }
-
-        boolean canPair() {
-            return enabled && presets != null && !presets.isEmpty();
-        }
-    }
-
-    private record PairingPreset(String name, TimeWindow full, TimeWindow morning, TimeWindow afternoon) {
-    }
-
-    private record TimeWindow(LocalTime start, LocalTime end) {
-    }
-
-    private record PairingDefinitionPayload(String name, String fullWindow, String morningWindow,
-                                            String afternoonWindow) {
+    private record PairingKey(Long skillId, LocalTime start, LocalTime end) {
     }
 
     // Utilities
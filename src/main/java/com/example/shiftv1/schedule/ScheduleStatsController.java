@@ -20,13 +20,16 @@ public class ScheduleStatsController {
     private final ShiftAssignmentRepository assignmentRepository;
     private final com.example.shiftv1.employee.EmployeeRepository employeeRepository;
     private final com.example.shiftv1.employee.EmployeeRuleRepository employeeRuleRepository;
+    private final SingleFlight singleFlight;
 
     public ScheduleStatsController(ShiftAssignmentRepository assignmentRepository,
                                    com.example.shiftv1.employee.EmployeeRepository employeeRepository,
-                                   com.example.shiftv1.employee.EmployeeRuleRepository employeeRuleRepository) {
+                                   com.example.shiftv1.employee.EmployeeRuleRepository employeeRuleRepository,
+                                   SingleFlight singleFlight) {
         this.assignmentRepository = assignmentRepository;
         this.employeeRepository = employeeRepository;
         this.employeeRuleRepository = employeeRuleRepository;
+        this.singleFlight = singleFlight;
     }
 
     @GetMapping("/monthly")
@@ -39,9 +42,9 @@ public class ScheduleStatsController {
             LocalDate start = target.atDay(1);
             LocalDate end = target.atEndOfMonth();
 
-            List<ShiftAssignment> assignments = assignmentRepository.findByWorkDateBetween(start, end);
-
-            MonthlyStatsResponse stats = calculateMonthlyStats(assignments, target);
+            MonthlyStatsResponse stats = singleFlight.get("monthly-stats", target.toString(),
+                    List.of(ScheduleVersions.scope(target)),
+                    () -> calculateMonthlyStats(assignmentRepository.findRowsBetween(start, end), target));
             return ResponseEntity.ok(ApiResponse.success("月次統計を取得しました", stats));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(ApiResponse.failure("月次統計の取得に失敗しました"));
@@ -58,11 +61,11 @@ public class ScheduleStatsController {
             LocalDate start = target.atDay(1);
             LocalDate end = target.atEndOfMonth();
 
-            List<ShiftAssignment> assignments = assignmentRepository.findByWorkDateBetween(start, end);
+            List<ShiftAssignmentRow> assignments = assignmentRepository.findRowsBetween(start, end);
 
             Map<String, Long> workloadByEmployee = assignments.stream()
                     .collect(Collectors.groupingBy(
-                            assignment -> assignment.getEmployee().getName(),
+                            assignment -> assignment.employeeName(),
                             Collectors.counting()
                     ));
 
@@ -88,15 +91,16 @@ public class ScheduleStatsController {
             LocalDate end = target.atEndOfMonth();
 
             // Preload assignments in month
-            java.util.List<ShiftAssignment> all = assignmentRepository.findByWorkDateBetween(start, end);
-            java.util.Map<LocalDate, java.util.List<ShiftAssignment>> byDate = all.stream()
-                    .collect(java.util.stream.Collectors.groupingBy(ShiftAssignment::getWorkDate));
+            java.util.List<ShiftAssignmentRow> all = assignmentRepository.findRowsBetween(start, end);
+            java.util.Map<LocalDate, java.util.List<ShiftAssignmentRow>> byDate = all.stream()
+                    .collect(java.util.stream.Collectors.groupingBy(ShiftAssignmentRow::workDate));
 
             // Prepare weeks aligned to Sunday
             int startDow = start.getDayOfWeek().getValue() % 7; // SUNDAY->0
             LocalDate cursor = start.minusDays(startDow);
             java.util.List<java.util.Map<String, Object>> weeks = new java.util.ArrayList<>();
             java.util.List<com.example.shiftv1.employee.Employee> emps = employeeRepository.findAll();
+            java.util.Map<Long, com.example.shiftv1.employee.EmployeeRule> rules = employeeRuleRepository.findAllByEmployeeId();
 
             while (!cursor.isAfter(end)) {
                 LocalDate weekStart = cursor;
@@ -107,16 +111,16 @@ public class ScheduleStatsController {
                 java.util.List<java.util.Map<String, Object>> summaries = new java.util.ArrayList<>();
                 for (com.example.shiftv1.employee.Employee emp : emps) {
                     Long empId = emp.getId();
-                    int targetRest = employeeRuleRepository.findByEmployeeId(empId)
+                    int targetRest = java.util.Optional.ofNullable(rules.get(empId))
                             .map(com.example.shiftv1.employee.EmployeeRule::getWeeklyRestDays)
                             .filter(v -> v != null && v >= 0)
                             .orElse(2);
                     java.util.List<String> offDates = new java.util.ArrayList<>();
                     int offCount = 0;
                     for (LocalDate d = rangeStart; !d.isAfter(rangeEnd); d = d.plusDays(1)) {
-                        java.util.List<ShiftAssignment> dayList = byDate.getOrDefault(d, java.util.Collections.emptyList());
-                        boolean hasOff = dayList.stream().anyMatch(sa -> java.util.Objects.equals(sa.getEmployee().getId(), empId) &&
-                                (Boolean.TRUE.equals(sa.getIsOff()) || (sa.getShiftName() != null && ("休日".equals(sa.getShiftName()) || "OFF".equalsIgnoreCase(sa.getShiftName())))));
+                        java.util.List<ShiftAssignmentRow> dayList = byDate.getOrDefault(d, java.util.Collections.emptyList());
+                        boolean hasOff = dayList.stream().anyMatch(sa -> java.util.Objects.equals(sa.employeeId(), empId) &&
+                                (Boolean.TRUE.equals(sa.isOff()) || (sa.shiftName() != null && ("休日".equals(sa.shiftName()) || "OFF".equalsIgnoreCase(sa.shiftName())))));
                         if (hasOff) { offCount++; offDates.add(d.toString()); }
                     }
                     java.util.Map<String, Object> m = new java.util.HashMap<>();
@@ -154,19 +158,19 @@ public class ScheduleStatsController {
             LocalDate start = target.atDay(1);
             LocalDate end = target.atEndOfMonth();
 
-            List<ShiftAssignment> assignments = assignmentRepository.findByWorkDateBetween(start, end);
+            List<ShiftAssignmentRow> assignments = assignmentRepository.findRowsBetween(start, end);
 
             Map<Long, Long> workDaysByEmployeeId = assignments.stream()
                     .filter(a -> {
                         Boolean free = null; Boolean off = null;
-                        try { free = a.getIsFree(); off = a.getIsOff(); } catch (Exception ignored) {}
+                        try { free = a.isFree(); off = a.isOff(); } catch (Exception ignored) {}
                         if (Boolean.TRUE.equals(free) || Boolean.TRUE.equals(off)) return false;
-                        String name = a.getShiftName();
+                        String name = a.shiftName();
                         return !(name != null && ("FREE".equalsIgnoreCase(name) || "休日".equals(name) || "OFF".equalsIgnoreCase(name)));
                     })
                     .collect(Collectors.groupingBy(
-                            a -> a.getEmployee().getId(),
-                            Collectors.mapping(ShiftAssignment::getWorkDate, Collectors.collectingAndThen(Collectors.toSet(), set -> (long) set.size()))
+                            a -> a.employeeId(),
+                            Collectors.mapping(ShiftAssignmentRow::workDate, Collectors.collectingAndThen(Collectors.toSet(), set -> (long) set.size()))
                     ));
 
             int daysInMonth = target.lengthOfMonth();
@@ -196,11 +200,11 @@ public class ScheduleStatsController {
             LocalDate start = target.atDay(1);
             LocalDate end = target.atEndOfMonth();
 
-            List<ShiftAssignment> assignments = assignmentRepository.findByWorkDateBetween(start, end);
+            List<ShiftAssignmentRow> assignments = assignmentRepository.findRowsBetween(start, end);
 
             Map<String, Long> distribution = assignments.stream()
                     .collect(Collectors.groupingBy(
-                            ShiftAssignment::getShiftName,
+                            ShiftAssignmentRow::shiftName,
                             Collectors.counting()
                     ));
 
@@ -210,16 +214,16 @@ public class ScheduleStatsController {
         }
     }
 
-    private MonthlyStatsResponse calculateMonthlyStats(List<ShiftAssignment> assignments, YearMonth target) {
+    private MonthlyStatsResponse calculateMonthlyStats(List<ShiftAssignmentRow> assignments, YearMonth target) {
         long totalShifts = assignments.size();
         long uniqueEmployees = assignments.stream()
-                .map(assignment -> assignment.getEmployee().getId())
+                .map(assignment -> assignment.employeeId())
                 .distinct()
                 .count();
         
         Map<String, Long> shiftsByType = assignments.stream()
                 .collect(Collectors.groupingBy(
-                        ShiftAssignment::getShiftName,
+                        ShiftAssignmentRow::shiftName,
                         Collectors.counting()
                 ));
         
@@ -261,15 +265,15 @@ public class ScheduleStatsController {
             LocalDate start = target.atDay(1);
             LocalDate end = target.atEndOfMonth();
 
-            List<ShiftAssignment> assignments = assignmentRepository.findByWorkDateBetween(start, end);
+            List<ShiftAssignmentRow> assignments = assignmentRepository.findRowsBetween(start, end);
             Map<LocalDate, Long> cnt = assignments.stream()
                     .filter(a -> {
-                        Boolean free = null; try { free = a.getIsFree(); } catch (Exception ignored) {}
+                        Boolean free = null; try { free = a.isFree(); } catch (Exception ignored) {}
                         if (Boolean.TRUE.equals(free)) return true;
-                        String name = a.getShiftName();
+                        String name = a.shiftName();
                         return name != null && "FREE".equalsIgnoreCase(name);
                     })
-                    .collect(Collectors.groupingBy(ShiftAssignment::getWorkDate, Collectors.counting()));
+                    .collect(Collectors.groupingBy(ShiftAssignmentRow::workDate, Collectors.counting()));
 
             java.util.List<FreeDailyResponse> list = java.util.stream.IntStream.rangeClosed(1, target.lengthOfMonth())
                     .mapToObj(d -> target.atDay(d))
@@ -293,15 +297,15 @@ public class ScheduleStatsController {
             LocalDate start = target.atDay(1);
             LocalDate end = target.atEndOfMonth();
 
-            List<ShiftAssignment> assignments = assignmentRepository.findByWorkDateBetween(start, end);
+            List<ShiftAssignmentRow> assignments = assignmentRepository.findRowsBetween(start, end);
             Map<LocalDate, Long> cnt = assignments.stream()
                     .filter(a -> {
-                        Boolean off = null; try { off = a.getIsOff(); } catch (Exception ignored) {}
+                        Boolean off = null; try { off = a.isOff(); } catch (Exception ignored) {}
                         if (Boolean.TRUE.equals(off)) return true;
-                        String name = a.getShiftName();
+                        String name = a.shiftName();
                         return name != null && ("休日".equals(name) || "OFF".equalsIgnoreCase(name));
                     })
-                    .collect(Collectors.groupingBy(ShiftAssignment::getWorkDate, Collectors.counting()));
+                    .collect(Collectors.groupingBy(ShiftAssignmentRow::workDate, Collectors.counting()));
 
             java.util.List<OffDailyResponse> list = java.util.stream.IntStream.rangeClosed(1, target.lengthOfMonth())
                     .mapToObj(d -> target.atDay(d))
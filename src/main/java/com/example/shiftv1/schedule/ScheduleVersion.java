@@ -0,0 +1,26 @@
+package com.example.shiftv1.schedule;
+
+import jakarta.persistence.*;
+
+/**
+ * 表示データの版数。月ごと（{@code 2025-10} など）と従業員マスタ（{@code employees}）にそれぞれ1行あり、
+ * その範囲を書き換えたトランザクションが同じコミットで1つ進める。GET の ETag と応答キャッシュのキーになる。
+ * DB に置くので、複数ノード・再起動をまたいでも同じ版数は同じ内容を指す。
+ */
+@Entity
+@Table(name = "schedule_versions")
+public class ScheduleVersion {
+
+    @Id
+    @Column(name = "scope", length = 32)
+    private String scope;
+
+    @Column(nullable = false)
+    private Long version;
+
+    public ScheduleVersion() {
+    }
+
+    public String getScope() { return scope; }
+    public Long getVersion() { return version; }
+}
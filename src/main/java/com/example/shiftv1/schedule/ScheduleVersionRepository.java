@@ -0,0 +1,21 @@
+package com.example.shiftv1.schedule;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface ScheduleVersionRepository extends JpaRepository<ScheduleVersion, String> {
+
+    String TABLE = "schedule_versions";
+    String INCREMENT = "INSERT INTO schedule_versions (scope, version) VALUES (:scope, 1) "
+            + "ON CONFLICT (scope) DO UPDATE SET version = version + 1";
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLE))
+    @Query(value = INCREMENT, nativeQuery = true)
+    int increment(@Param("scope") String scope);
+}
@@ -0,0 +1,203 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.breaks.BreakPeriod;
+import com.example.shiftv1.demand.DemandInterval;
+import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.holiday.Holiday;
+import com.example.shiftv1.skill.Skill;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 月ごとの版数（{@link ScheduleVersion}）を管理する。シフト割り当て・休憩・従業員・需要（需要インターバル・祝日・スキル）の
+ * 書き込みを Hibernate のイベントで拾い、書いたトランザクションのコミット直前に、触れた範囲の版数を1回ずつ進める。
+ * 生成・グリッド編集・変更申請の承認・プレースホルダ補完・有給変換のどの経路でも漏れない。
+ * エンティティを経由しない一括 DELETE / UPDATE は {@link #bump(Collection)} を呼ぶ。
+ */
+@Component
+public class ScheduleVersions implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    public static final String EMPLOYEES = "employees";
+    // Inputs of demand aggregation: intervals, the holiday calendar and skill names
+    public static final String DEMAND = "demand";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ScheduleVersionRepository repository;
+    // Scopes written by each open session, flushed once per transaction
+    private final Map<SessionImplementor, Set<String>> pending = new ConcurrentHashMap<>();
+
+    public ScheduleVersions(EntityManagerFactory entityManagerFactory, ScheduleVersionRepository repository) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    public static String scope(YearMonth month) {
+        return month.toString();
+    }
+
+    public static Set<String> scopes(LocalDate start, LocalDate end) {
+        Set<String> scopes = new TreeSet<>();
+        for (YearMonth ym = YearMonth.from(start); !ym.isAfter(YearMonth.from(end)); ym = ym.plusMonths(1)) {
+            scopes.add(scope(ym));
+        }
+        return scopes;
+    }
+
+    /**
+     * Current versions as one token, e.g. {@code 2025-10.17;employees.3}. Read it in the same read-only
+     * transaction as the data it describes, so both come from one snapshot.
+     */
+    public String token(Collection<String> scopes) {
+        Map<String, Long> versions = repository.findAllById(scopes).stream()
+                .collect(Collectors.toMap(ScheduleVersion::getScope, ScheduleVersion::getVersion));
+        return scopes.stream()
+                .sorted()
+                .map(scope -> scope + "." + versions.getOrDefault(scope, 0L))
+                .collect(Collectors.joining(";"));
+    }
+
+    /** For set-based statements that bypass entity events; runs in the caller's write transaction. */
+    public void bump(Collection<String> scopes) {
+        scopes.forEach(repository::increment);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        touch(event.getSession(), event.getEntity(), null, event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        touch(event.getSession(), event.getEntity(), event.getOldState(), event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        touch(event.getSession(), event.getEntity(), null, event.getPersister());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        touchOwner(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        touchOwner(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        touchOwner(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void touchOwner(AbstractCollectionEvent event) {
+        if (event.getAffectedOwnerOrNull() instanceof Employee) {
+            enqueue(event.getSession(), Set.of(EMPLOYEES));
+        }
+    }
+
+    private void touch(EventSource session, Object entity, Object[] oldState, EntityPersister persister) {
+        Set<String> scopes = new LinkedHashSet<>();
+        if (entity instanceof ShiftAssignment assignment) {
+            addMonth(scopes, assignment.getWorkDate());
+            // A date moved to another month changes both months
+            if (oldState != null) {
+                int index = Arrays.asList(persister.getPropertyNames()).indexOf("workDate");
+                if (index >= 0 && oldState[index] instanceof LocalDate previous) {
+                    addMonth(scopes, previous);
+                }
+            }
+        } else if (entity instanceof BreakPeriod period && period.getAssignment() != null) {
+            addMonth(scopes, period.getAssignment().getWorkDate());
+        } else if (entity instanceof Employee) {
+            scopes.add(EMPLOYEES);
+        } else if (entity instanceof DemandInterval || entity instanceof Holiday || entity instanceof Skill) {
+            scopes.add(DEMAND);
+        }
+        if (!scopes.isEmpty()) {
+            enqueue(session, scopes);
+        }
+    }
+
+    private static void addMonth(Set<String> scopes, LocalDate date) {
+        if (date != null) {
+            scopes.add(scope(YearMonth.from(date)));
+        }
+    }
+
+    private void enqueue(EventSource session, Set<String> scopes) {
+        pending.computeIfAbsent(session, s -> {
+            // Once per session and transaction: bump just before commit, in the same transaction as the writes
+            s.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::flush);
+            s.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, done) -> pending.remove(s));
+            return ConcurrentHashMap.newKeySet();
+        }).addAll(scopes);
+    }
+
+    private void flush(SessionImplementor session) {
+        Set<String> scopes = pending.remove(session);
+        if (scopes == null) {
+            return;
+        }
+        for (String scope : new TreeSet<>(scopes)) {
+            // The query space keeps the cleanup to this table, as with ScheduleVersionRepository.increment
+            session.createNativeMutationQuery(ScheduleVersionRepository.INCREMENT)
+                    .setParameter("scope", scope)
+                    .setHint(HibernateHints.HINT_NATIVE_SPACES, ScheduleVersionRepository.TABLE)
+                    .executeUpdate();
+        }
+    }
+}
@@ -9,15 +9,24 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.Table;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Entity
+@NamedEntityGraph(name = ShiftAssignment.WITH_EMPLOYEE_SKILLS,
+        attributeNodes = @NamedAttributeNode(value = "employee", subgraph = "employee"),
+        subgraphs = @NamedSubgraph(name = "employee", attributeNodes = @NamedAttributeNode("skills")))
 @Table(name = "shift_assignments")
 public class ShiftAssignment {
 
+    /** Fetch plan for readers that need each employee's skills along with the assignment. */
+    public static final String WITH_EMPLOYEE_SKILLS = "ShiftAssignment.withEmployeeSkills";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -1,14 +1,21 @@
 package com.example.shiftv1.schedule;
 
 import com.example.shiftv1.employee.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ShiftAssignmentRepository extends JpaRepository<ShiftAssignment, Long> {
@@ -24,9 +31,10 @@ public interface ShiftAssignmentRepository extends JpaRepository<ShiftAssignment
     List<ShiftAssignment> findByWorkDate(LocalDate workDate);
 
     /**
-     * 指定日付のシフト割り当てを従業員情報を含めて取得（N+1回避・LAZY対策）
+     * 指定日付のシフト割り当てを従業員・スキルを含めて取得（N+1回避・LAZY対策）
      */
-    @Query("SELECT sa FROM ShiftAssignment sa JOIN FETCH sa.employee WHERE sa.workDate = :workDate")
+    @EntityGraph(ShiftAssignment.WITH_EMPLOYEE_SKILLS)
+    @Query("SELECT sa FROM ShiftAssignment sa WHERE sa.workDate = :workDate")
     List<ShiftAssignment> findByWorkDateFetchEmployee(@Param("workDate") LocalDate workDate);
 
     /**
@@ -44,14 +52,46 @@ public interface ShiftAssignmentRepository extends JpaRepository<ShiftAssignment
      */
     List<ShiftAssignment> findByEmployeeAndWorkDate(Employee employee, LocalDate workDate);
 
-    @Query("SELECT sa FROM ShiftAssignment sa JOIN FETCH sa.employee WHERE sa.workDate BETWEEN :startDate AND :endDate ORDER BY sa.workDate ASC, sa.employee.id ASC")
+    @EntityGraph(ShiftAssignment.WITH_EMPLOYEE_SKILLS)
+    @Query("SELECT sa FROM ShiftAssignment sa WHERE sa.workDate BETWEEN :startDate AND :endDate ORDER BY sa.workDate ASC, sa.employee.id ASC")
     List<ShiftAssignment> findWithEmployeeBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+    /**
+     * 指定日付範囲のシフト割り当てを射影で取得（エンティティを作らない一覧・集計用）
+     */
+    @Query("SELECT " + ShiftAssignmentRow.SELECT + " FROM ShiftAssignment sa JOIN sa.employee e "
+            + "WHERE sa.workDate BETWEEN :startDate AND :endDate ORDER BY sa.workDate ASC, e.id ASC")
+    List<ShiftAssignmentRow> findRowsBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 指定日付範囲・指定従業員のシフト割り当てを射影で取得（グリッドのウィンドウ表示用）
+     */
+    @Query("SELECT " + ShiftAssignmentRow.SELECT + " FROM ShiftAssignment sa JOIN sa.employee e "
+            + "WHERE sa.workDate BETWEEN :startDate AND :endDate AND e.id IN :employeeIds ORDER BY sa.workDate ASC, e.id ASC")
+    List<ShiftAssignmentRow> findRowsBetweenForEmployees(@Param("startDate") LocalDate startDate,
+                                                         @Param("endDate") LocalDate endDate,
+                                                         @Param("employeeIds") Collection<Long> employeeIds);
+
+    /**
+     * findRowsBetween と同じ行を前方向のみのカーソルで1件ずつ取得（読み取りトランザクション内で使い、必ず close する）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + ShiftAssignmentRow.SELECT + " FROM ShiftAssignment sa JOIN sa.employee e "
+            + "WHERE sa.workDate BETWEEN :startDate AND :endDate ORDER BY sa.workDate ASC, e.id ASC, sa.id ASC")
+    Stream<ShiftAssignmentRow> streamRowsBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
     /**
      * 指定日付範囲のシフト割り当てを削除
      */
     void deleteByWorkDateBetween(LocalDate startDate, LocalDate endDate);
 
+    /**
+     * 指定日付範囲のシフト割り当てを1本の DELETE 文で削除し、削除件数を返す（休憩は先に削除しておくこと）
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ShiftAssignment sa WHERE sa.workDate BETWEEN :startDate AND :endDate")
+    int deleteAllByWorkDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
     /**
      * 指定日付のシフト割り当てを削除
      */
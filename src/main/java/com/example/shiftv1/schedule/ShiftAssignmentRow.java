@@ -0,0 +1,40 @@
+package com.example.shiftv1.schedule;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * 一覧・集計用のシフト割り当て（読み取り専用の射影）。必要な列と従業員の ID・名前だけを1本の SELECT で取り、
+ * エンティティを永続化コンテキストに載せない（ダーティチェック・従業員の遅延ロード・スキルの EAGER 取得が起きない）。
+ */
+public record ShiftAssignmentRow(
+        Long id,
+        Long employeeId,
+        String employeeName,
+        LocalDate workDate,
+        String shiftName,
+        LocalTime startTime,
+        LocalTime endTime,
+        Boolean isFree,
+        Boolean isOff,
+        Boolean isLeave) {
+
+    // Column list for constructor expressions: "SELECT " + SELECT + " FROM ShiftAssignment sa JOIN sa.employee e ..."
+    static final String SELECT = "new com.example.shiftv1.schedule.ShiftAssignmentRow(sa.id, e.id, e.name, "
+            + "sa.workDate, sa.shiftName, sa.startTime, sa.endTime, sa.isFree, sa.isOff, sa.isLeave)";
+
+    /** Same shape from a loaded entity, for callers that already hold one. */
+    public static ShiftAssignmentRow of(ShiftAssignment assignment) {
+        return new ShiftAssignmentRow(
+                assignment.getId(),
+                assignment.getEmployee() != null ? assignment.getEmployee().getId() : null,
+                assignment.getEmployee() != null ? assignment.getEmployee().getName() : null,
+                assignment.getWorkDate(),
+                assignment.getShiftName(),
+                assignment.getStartTime(),
+                assignment.getEndTime(),
+                assignment.getIsFree(),
+                assignment.getIsOff(),
+                assignment.getIsLeave());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.shiftv1.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * スロット単位の需要曲線を許容シフト長の組み合わせに分解する（左からの貪欲被覆）。
+ * 最初の不足スロットを必ず覆うシフトを1本ずつ置き、はみ出し（不要スロット）が最小、
+ * 次に営業時間外へのはみ出しが最小、次に長さの優先順、最後に開始が遅い方を選ぶ。
+ */
+final class ShiftDecomposer {
+
+    /** 分解結果: [startSlot, endSlot) の同一シフトを count 本。 */
+    record Piece(int startSlot, int endSlot, int count) {
+    }
+
+    private ShiftDecomposer() {
+    }
+
+    /**
+     * @param demand  スロットごとの必要人数（この配列は変更しない）
+     * @param from    分解対象の開始スロット（含む）
+     * @param to      分解対象の終了スロット（含まない）
+     * @param lengths 許容シフト長（スロット数）。先頭ほど優先
+     */
+    static List<Piece> decompose(int[] demand, int from, int to, List<Integer> lengths) {
+        int[] residual = demand.clone();
+        Map<Long, Integer> counts = new TreeMap<>();
+        for (int t = from; t < to; t++) {
+            while (residual[t] > 0) {
+                int[] placed = place(demand, residual, t, from, to, lengths);
+                for (int s = placed[0]; s < placed[1]; s++)
+                    residual[s]--;
+                counts.merge(((long) placed[0] << 32) | placed[1], 1, Integer::sum);
+            }
+        }
+        List<Piece> pieces = new ArrayList<>(counts.size());
+        for (Map.Entry<Long, Integer> e : counts.entrySet()) {
+            long key = e.getKey();
+            pieces.add(new Piece((int) (key >>> 32), (int) key, e.getValue()));
+        }
+        return pieces;
+    }
+
+    // Chooses one shift [start, end) covering slot t
+    private static int[] place(int[] demand, int[] residual, int t, int from, int to, List<Integer> lengths) {
+        int bestStart = -1;
+        int bestEnd = -1;
+        int bestWaste = Integer.MAX_VALUE;
+        int bestOutside = Integer.MAX_VALUE;
+        for (int length : lengths) {
+            if (length <= 0 || length > to - from)
+                continue;
+            int lo = Math.max(from, t - length + 1);
+            int hi = Math.min(t, to - length);
+            if (lo > hi)
+                continue;
+            int waste = 0;
+            int outside = 0;
+            for (int i = hi; i < hi + length; i++) {
+                if (residual[i] <= 0)
+                    waste++;
+                if (demand[i] <= 0)
+                    outside++;
+            }
+            // Latest start first so ties keep the shift as late as possible; slide the window one slot left
+            // at a time instead of recounting it, so finer slots do not cost length^2 per shift
+            for (int s = hi; s >= lo; s--) {
+                if (s < hi) {
+                    int in = s;
+                    int out = s + length;
+                    waste += (residual[in] <= 0 ? 1 : 0) - (residual[out] <= 0 ? 1 : 0);
+                    outside += (demand[in] <= 0 ? 1 : 0) - (demand[out] <= 0 ? 1 : 0);
+                }
+                if (waste < bestWaste || (waste == bestWaste && outside < bestOutside)) {
+                    bestWaste = waste;
+                    bestOutside = outside;
+                    bestStart = s;
+                    bestEnd = s + length;
+                }
+            }
+        }
+        if (bestStart < 0) {
+            // No allowed length fits the window: keep the uncovered run as a literal block
+            int end = t;
+            while (end < to && residual[end] > 0)
+                end++;
+            return new int[] { t, end };
+        }
+        return new int[] { bestStart, bestEnd };
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.shiftv1.schedule;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -17,4 +20,10 @@ public interface ShiftReservationRepository extends JpaRepository<ShiftReservati
     List<ShiftReservation> findByWorkDateBetween(LocalDate start, LocalDate end);
 
     void deleteByWorkDateBetween(LocalDate start, LocalDate end);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ShiftReservation r SET r.status = :to WHERE r.workDate BETWEEN :start AND :end AND r.status = :from")
+    int updateStatusByWorkDateBetween(@Param("start") LocalDate start, @Param("end") LocalDate end,
+                                      @Param("from") ShiftReservation.Status from,
+                                      @Param("to") ShiftReservation.Status to);
 }
@@ -0,0 +1,97 @@
+package com.example.shiftv1.schedule;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 重い読み取り（需要/供給サマリー・需要集計・月次統計）の同時実行をまとめる。正規化したパラメータと
+ * データの版数（{@link ScheduleVersions}）をキーに、同じキーの同時リクエストは1回の計算結果を共有し、
+ * 結果は短い TTL（{@code shift.cache.specs.read-results}）の間だけ使い回す。
+ * 結果はリクエスト間で共有されるので、呼び出し側で変更しないこと。
+ */
+@Component
+public class SingleFlight {
+    static final String CACHE_NAME = "read-results";
+
+    private final ScheduleVersions versions;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final TransactionTemplate readOnly;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlight(ScheduleVersions versions,
+                        ObjectProvider<CacheManager> cacheManager,
+                        PlatformTransactionManager transactionManager) {
+        this.versions = versions;
+        this.cacheManager = cacheManager;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /**
+     * @param endpoint identifies the computation, e.g. {@code demand-supply}
+     * @param params   normalized parameters; equal requests must produce equal strings
+     * @param scopes   version scopes the result depends on
+     * @param compute  runs in a read-only transaction, once per key however many callers wait on it;
+     *                 it may read other keys but must not wait on its own
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String endpoint, String params, Collection<String> scopes, Supplier<T> compute) {
+        // Versions in their own short transaction: callers waiting on a computation hold no connection
+        String key = endpoint + "|" + params + "@" + readOnly.execute(tx -> versions.token(scopes));
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager != null ? manager.getCache(CACHE_NAME) : null;
+        if (cache == null) {
+            return readOnly.execute(tx -> compute.get());
+        }
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        // Coalesce outside the cache's own locks, so a computation may read other keys
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return (T) await(running);
+        }
+        try {
+            // The previous leader may have stored the result just before we registered
+            cached = cache.get(key);
+            T value = cached != null ? (T) cached.get() : readOnly.execute(tx -> compute.get());
+            if (cached == null) {
+                cache.put(key, value);
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
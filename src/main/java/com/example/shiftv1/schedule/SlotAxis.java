@@ -0,0 +1,80 @@
+package com.example.shiftv1.schedule;
+
+import java.time.LocalTime;
+
+/**
+ * 1日を等間隔スロット（5/15/30/60分）に分けた分単位の時間軸。
+ * スロットは添字で扱い、生成中の席数・割当数などは slotCount 長の int[] 1本で保持する。
+ */
+final class SlotAxis {
+
+    static final int DEFAULT_GRANULARITY = 60;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int[] SUPPORTED = { 5, 15, 30, 60 };
+    private static final SlotAxis[] AXES = new SlotAxis[SUPPORTED.length];
+
+    static {
+        for (int i = 0; i < SUPPORTED.length; i++)
+            AXES[i] = new SlotAxis(SUPPORTED[i]);
+    }
+
+    private final int granularity;
+    private final int slotCount;
+
+    private SlotAxis(int granularity) {
+        this.granularity = granularity;
+        this.slotCount = MINUTES_PER_DAY / granularity;
+    }
+
+    static boolean isSupported(int granularityMinutes) {
+        for (int g : SUPPORTED) {
+            if (g == granularityMinutes)
+                return true;
+        }
+        return false;
+    }
+
+    static SlotAxis of(int granularityMinutes) {
+        for (int i = 0; i < SUPPORTED.length; i++) {
+            if (SUPPORTED[i] == granularityMinutes)
+                return AXES[i];
+        }
+        throw new IllegalArgumentException("granularity は 5 / 15 / 30 / 60 のいずれかを指定してください");
+    }
+
+    int granularity() {
+        return granularity;
+    }
+
+    int slotCount() {
+        return slotCount;
+    }
+
+    /** First slot touched by a window starting at {@code start}. */
+    int startIndex(LocalTime start) {
+        int minutes = toMinutes(start);
+        // The last slot ends at 23:59, so a window starting there touches nothing
+        if (minutes >= MINUTES_PER_DAY - 1)
+            return slotCount;
+        return minutes / granularity;
+    }
+
+    /** Slot after the last one touched by a window ending at {@code end} (exclusive). */
+    int endIndex(LocalTime end) {
+        int minutes = toMinutes(end);
+        return Math.min(slotCount, (minutes + granularity - 1) / granularity);
+    }
+
+    LocalTime slotStart(int index) {
+        return LocalTime.MIDNIGHT.plusMinutes((long) index * granularity);
+    }
+
+    /** End of a slot boundary; the day end is represented as 23:59 like the rest of the scheduler. */
+    LocalTime slotEnd(int index) {
+        return index + 1 >= slotCount ? LocalTime.of(23, 59) : slotStart(index + 1);
+    }
+
+    private static int toMinutes(LocalTime time) {
+        return time == null ? 0 : time.getHour() * 60 + time.getMinute();
+    }
+}
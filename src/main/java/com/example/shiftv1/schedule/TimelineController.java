@@ -39,8 +39,8 @@ public class TimelineController {
             @RequestParam(name = "date") LocalDate date,
             @RequestParam(name = "granularity", defaultValue = "60") Integer granularityMinutes,
             @RequestParam(name = "skillId", required = false) Long skillId) {
-        if (granularityMinutes != 15 && granularityMinutes != 60) {
-            return ResponseEntity.badRequest().body(ApiResponse.failure("granularity は 15 または 60 を指定してください"));
+        if (granularityMinutes == null || !SlotAxis.isSupported(granularityMinutes)) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure("granularity は 5 / 15 / 30 / 60 のいずれかを指定してください"));
         }
         // Fetch with employee to avoid LAZY loading issues and N+1 queries
         List<ShiftAssignment> dayAssignments = assignmentRepository.findByWorkDateFetchEmployee(date);
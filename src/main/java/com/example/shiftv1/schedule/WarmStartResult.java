@@ -0,0 +1,12 @@
+package com.example.shiftv1.schedule;
+
+import java.time.LocalDate;
+
+public record WarmStartResult(WarmStartSource source,
+                              LocalDate sourceStart,
+                              LocalDate sourceEnd,
+                              int offered,
+                              int seeded,
+                              int dropped,
+                              int created) {
+}
@@ -0,0 +1,25 @@
+package com.example.shiftv1.schedule;
+
+import java.util.Locale;
+
+/**
+ * ウォームスタート生成のシード元。
+ */
+public enum WarmStartSource {
+    /** 前月の割当を同じ曜日に揃えて流用する */
+    PREVIOUS_MONTH,
+    /** 指定した1週間（日〜土）の割当を各週に展開する */
+    TEMPLATE_WEEK;
+
+    public static WarmStartSource parse(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return PREVIOUS_MONTH;
+        }
+        String normalized = raw.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        return switch (normalized) {
+            case "PREVIOUS", "PREV", "PREVIOUS_MONTH" -> PREVIOUS_MONTH;
+            case "TEMPLATE", "WEEK", "TEMPLATE_WEEK" -> TEMPLATE_WEEK;
+            default -> throw new IllegalArgumentException("source は previous または template を指定してください");
+        };
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -35,7 +36,7 @@ public class SkillController {
         if (StringUtils.hasText(query)) {
             source = skillRepository.findByCodeContainingIgnoreCaseOrNameContainingIgnoreCase(query.trim(), query.trim());
         } else {
-            source = skillRepository.findAll();
+            source = new ArrayList<>(skillRepository.findAllCached());
         }
         source.sort(Comparator.comparing((Skill s) -> Optional.ofNullable(s.getPriority()).orElse(5))
                 .thenComparing(s -> Optional.ofNullable(s.getCode()).orElse("")));
@@ -80,7 +81,7 @@ public class SkillController {
     @GetMapping("/employees")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> listEmployeesBySkill(
             @RequestParam("skillId") Long skillId) {
-        List<Map<String, Object>> data = employeeRepository.findAll().stream()
+        List<Map<String, Object>> data = employeeRepository.findAllWithSkills().stream()
                 .filter(e -> e.getSkills() != null && e.getSkills().stream().anyMatch(s -> s.getId().equals(skillId)))
                 .map(e -> {
                     Map<String, Object> m = new java.util.HashMap<>();
@@ -1,5 +1,6 @@
 package com.example.shiftv1.skill;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 
@@ -11,4 +12,10 @@ public interface SkillRepository extends JpaRepository<Skill, Long> {
     Optional<Skill> findByCode(String code);
     Optional<Skill> findByCodeIgnoreCase(String code);
     List<Skill> findByCodeContainingIgnoreCaseOrNameContainingIgnoreCase(String code, String name);
+
+    /** Cached and shared: read-only list, copy it before sorting. */
+    @Cacheable(cacheNames = "skills", key = "'all'")
+    default List<Skill> findAllCached() {
+        return List.copyOf(findAll());
+    }
 }
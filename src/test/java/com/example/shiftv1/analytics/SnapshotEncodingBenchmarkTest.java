@@ -0,0 +1,113 @@
+package com.example.shiftv1.analytics;
+
+import com.example.shiftv1.common.ApiResponse;
+import com.example.shiftv1.config.BinaryEncodingConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 需要/供給サマリー（31日・5分粒度）を JSON と CBOR で直列化したときの時間とサイズを比較するベンチマーク。
+ * 実行: mvn test -Dtest=SnapshotEncodingBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SnapshotEncodingBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotEncodingBenchmarkTest.class);
+
+    private static final int DAYS = 31;
+    private static final int GRANULARITY = 5;
+    private static final int SKILLS = 8;
+    private static final int ROUNDS = 200;
+
+    @Test
+    void monthlySnapshotAtFiveMinutes_cborEncodesFasterThanJson() throws Exception {
+        // Configured like the application's mappers (Boot writes dates as ISO strings)
+        ObjectMapper json = builder().build();
+        ObjectMapper cbor = BinaryEncodingConfig.cborMapper(builder());
+        ApiResponse<DemandSupplyAnalyticsService.DemandSupplySnapshot> body =
+                ApiResponse.success("需要/供給サマリーを取得しました", snapshot());
+
+        Result jsonResult = measure(json, body);
+        Result cborResult = measure(cbor, body);
+        logger.info("demand-supply {} days x {} min, {} skills: {}", DAYS, GRANULARITY, SKILLS, String.format(
+                "JSON %,d bytes %.2f ms, CBOR %,d bytes %.2f ms (x%.1f faster, %.0f%% of the size)",
+                jsonResult.bytes(), jsonResult.millis(), cborResult.bytes(), cborResult.millis(),
+                jsonResult.millis() / cborResult.millis(), 100.0 * cborResult.bytes() / jsonResult.bytes()));
+        assertThat(cborResult.millis()).isLessThan(jsonResult.millis());
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private record Result(int bytes, double millis) {
+    }
+
+    private static Result measure(ObjectMapper mapper, Object value) throws Exception {
+        int bytes = 0;
+        // Warm-up
+        for (int i = 0; i < ROUNDS; i++) {
+            bytes = mapper.writeValueAsBytes(value).length;
+        }
+        long began = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            bytes = mapper.writeValueAsBytes(value).length;
+        }
+        return new Result(bytes, (System.nanoTime() - began) / 1e6 / ROUNDS);
+    }
+
+    // Series are sums over the range: whole seats for demand, partial coverage (break overlaps) for supply
+    private static DemandSupplyAnalyticsService.DemandSupplySnapshot snapshot() {
+        int slots = 24 * 60 / GRANULARITY;
+        Random random = new Random(42);
+        List<String> labels = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            int from = i * GRANULARITY;
+            int to = from + GRANULARITY;
+            labels.add(String.format("%02d:%02d-%02d:%02d", from / 60, from % 60, to / 60 % 24, to % 60));
+        }
+        List<DemandSupplyAnalyticsService.SkillSeries> skills = new ArrayList<>();
+        double[][] totals = new double[6][slots];
+        for (int s = 0; s < SKILLS; s++) {
+            double[] demand = new double[slots];
+            double[] supply = new double[slots];
+            double[] breaks = new double[slots];
+            double[] netGap = new double[slots];
+            double[] breakGap = new double[slots];
+            double[] assignGap = new double[slots];
+            for (int i = 0; i < slots; i++) {
+                boolean open = i >= 8 * 60 / GRANULARITY && i < 21 * 60 / GRANULARITY;
+                demand[i] = open ? DAYS * (1 + random.nextInt(4)) : 0;
+                breaks[i] = open ? random.nextInt(DAYS * 3) / 3.0 : 0;
+                supply[i] = open ? demand[i] + random.nextInt(DAYS) - DAYS / 2.0 + breaks[i] / 7.0 : 0;
+                netGap[i] = supply[i] - breaks[i] - demand[i];
+                breakGap[i] = -breaks[i];
+                assignGap[i] = supply[i] - demand[i];
+                double[] values = {demand[i], supply[i], breaks[i], netGap[i], breakGap[i], assignGap[i]};
+                for (int t = 0; t < values.length; t++) {
+                    totals[t][i] += values[t];
+                }
+            }
+            skills.add(new DemandSupplyAnalyticsService.SkillSeries((long) s + 1, "S" + s, "スキル" + s,
+                    demand, supply, breaks, netGap, breakGap, assignGap));
+        }
+        LocalDate start = LocalDate.of(2025, 10, 1);
+        return new DemandSupplyAnalyticsService.DemandSupplySnapshot(start, start.plusDays(DAYS - 1), GRANULARITY, DAYS,
+                labels, skills,
+                new DemandSupplyAnalyticsService.Totals(totals[0], totals[1], totals[2], totals[3], totals[4], totals[5]),
+                new DemandSupplyAnalyticsService.FreePoolSeries(totals[1].clone(), totals[2].clone(), totals[3].clone()),
+                Map.of("skillCount", SKILLS));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.shiftv1.config;
+
+import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.employee.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 読み取り専用トランザクションの後に書き込むリクエスト（open-in-view のセッション内）が、最初の読み取りで借りた
+ * 読み取り専用接続を使い回さず、書き込み用の接続で書けることを確認する。テストトランザクションは使わない。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/open-session-test.db",
+        "shift.jobs.resume-on-startup=false"})
+@AutoConfigureMockMvc(addFilters = false)
+class OpenSessionReadThenWriteTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void updateEmployee_writesAfterAReadOnlyLookupInTheSameRequest() throws Exception {
+        Employee employee = employeeRepository.save(new Employee("接続確認" + System.nanoTime(), null));
+        try {
+            // findById (read-only, reader pool) then save (writer) in one open-in-view session
+            mockMvc.perform(put("/api/employees/{id}", employee.getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"接続確認済み\",\"role\":\"確認\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.name").value("接続確認済み"));
+
+            assertThat(employeeRepository.findById(employee.getId()))
+                    .get()
+                    .extracting(Employee::getName)
+                    .isEqualTo("接続確認済み");
+        } finally {
+            employeeRepository.deleteById(employee.getId());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.analytics.DemandSupplyAnalyticsService;
+import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.employee.EmployeeRepository;
+import com.example.shiftv1.skill.Skill;
+import com.example.shiftv1.skill.SkillRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 従業員のスキルを読む各経路（生成スナップショット・タイムライン・分析・CSV 出力）の SQL 文数が
+ * 人数によらず一定であることを、2通りの人数で確認する。
+ */
+@SpringBootTest
+@Transactional
+class EmployeeSkillFetchPlanTest {
+
+    private static final LocalDate DAY = LocalDate.of(2033, 5, 9);
+    private static final int HIRES_PER_STEP = 6;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private TimelineController timelineController;
+
+    @Autowired
+    private DemandSupplyAnalyticsService analyticsService;
+
+    @Autowired
+    private ScheduleCsvExporter csvExporter;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private SkillRepository skillRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PairingModelCache pairingModelCache;
+
+    private Skill skill;
+    private int hired;
+
+    @BeforeEach
+    void setUp() {
+        skill = skillRepository.save(new Skill("FETCH_PLAN", "取得計画スキル", null));
+    }
+
+    @Test
+    void generationSnapshot_loadsEmployeesWithSkillsInFixedStatements() {
+        assertFixedStatementCount(6, () -> assertThat(scheduleService.prepareMonth(DAY.getYear(), DAY.getMonthValue(), 60))
+                .isNotNull());
+        assertThat(employeeRepository.findAllOrdered()).allMatch(e -> Hibernate.isInitialized(e.getSkills()));
+    }
+
+    @Test
+    void timeline_filteredBySkillRunsFixedStatements() {
+        assertFixedStatementCount(4, () -> assertThat(timelineController.getDayGrid(DAY, 60, skill.getId())
+                .getStatusCode().is2xxSuccessful()).isTrue());
+    }
+
+    @Test
+    void analytics_readsAssignmentsWithEmployeesAndSkillsInFixedStatements() {
+        assertFixedStatementCount(7, () -> assertThat(analyticsService.summarize(DAY, DAY, 60, Set.of(skill.getId())))
+                .isNotNull());
+    }
+
+    @Test
+    void csvExport_readsRowsAndOneBatchedSkillLookup() {
+        assertFixedStatementCount(2, () -> assertThat(csvExporter.export(YearMonth.from(DAY))).isNotNull());
+    }
+
+    // Same statement count at two headcounts, so nothing is loaded per employee
+    private void assertFixedStatementCount(long expected, Runnable action) {
+        hire(HIRES_PER_STEP);
+        assertThat(statementsFor(action)).as("statements with %d new employees", hired).isEqualTo(expected);
+        hire(HIRES_PER_STEP);
+        assertThat(statementsFor(action)).as("statements with %d new employees", hired).isEqualTo(expected);
+    }
+
+    private void hire(int count) {
+        for (int i = 0; i < count; i++) {
+            Employee employee = new Employee("取得計画" + hired++, null);
+            employee.getSkills().add(skill);
+            employeeRepository.save(employee);
+            assignmentRepository.save(new ShiftAssignment(DAY, "Manual", LocalTime.of(9, 0), LocalTime.of(18, 0),
+                    employee));
+        }
+        entityManager.flush();
+    }
+
+    // Cold caches and an empty persistence context, so every skill set has to come from the database
+    private long statementsFor(Runnable action) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        entityManager.clear();
+        sessionFactory.getCache().evictAllRegions();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        pairingModelCache.invalidate();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
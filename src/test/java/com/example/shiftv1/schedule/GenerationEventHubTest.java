@@ -0,0 +1,118 @@
+package com.example.shiftv1.schedule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 生成スレッドから見た SSE 配信: 遅いクライアントがいても dayFinished はすぐ戻り、キューがあふれたクライアントは外される。
+ */
+class GenerationEventHubTest {
+
+    private static final long JOB_ID = 1L;
+
+    private final GenerationEventHub hub = new GenerationEventHub(new ObjectMapper());
+    private final GenerationJobHandle job = new GenerationJobHandle(JOB_ID, 2030, 1, 60, false, null);
+
+    @AfterEach
+    void shutdown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void slowSubscriber_neverBlocksGenerationAndStillGetsEveryDay() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(unblock);
+        hub.open(JOB_ID);
+        hub.subscribe(view(), slow);
+
+        long began = System.nanoTime();
+        publishDays(31);
+        hub.close(JOB_ID, view());
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began)).isLessThan(2_000);
+        assertThat(slow.events).isEmpty();
+
+        unblock.countDown();
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.failed).isFalse();
+        assertThat(slow.events).hasSize(32);
+        assertThat(slow.events.get(31)).contains("event:done");
+    }
+
+    @Test
+    void subscriberTooFarBehind_isDroppedWithoutBlockingGeneration() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(unblock);
+        hub.open(JOB_ID);
+        hub.subscribe(view(), slow);
+
+        long began = System.nanoTime();
+        publishDays(GenerationEventHub.SUBSCRIBER_QUEUE_CAPACITY + 10);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began)).isLessThan(2_000);
+        assertThat(hub.subscriberCount(JOB_ID)).isZero();
+
+        unblock.countDown();
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.failed).isTrue();
+        assertThat(slow.events).hasSizeLessThanOrEqualTo(1);
+    }
+
+    private void publishDays(int days) {
+        for (int i = 0; i < days; i++) {
+            hub.dayFinished(job, LocalDate.of(2030, 1, 1).plusDays(i), List.of(), null);
+        }
+    }
+
+    private static ScheduleJobView view() {
+        return new ScheduleJobView(JOB_ID, null, null, null, 2030, 1, 60, false, ScheduleJob.Phase.GENERATING,
+                0, 0, 0, false, null, null, null, null, null, null, null);
+    }
+
+    /** Records what would reach the client; optionally blocks in send like a client that stopped reading. */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch unblock;
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile boolean failed;
+
+        RecordingEmitter(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (unblock != null) {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            events.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed = true;
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.shiftv1.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 15分粒度の月次生成のスロット処理（需要の展開・シフト分解・充足フロー・カバレッジ集計）が
+ * 60分粒度の1.5倍以内に収まることを確認するベンチマーク。DB を使わず、メモリ上の処理だけを計る。
+ * 実行: mvn test -Dtest=GenerationGranularityBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GenerationGranularityBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(GenerationGranularityBenchmarkTest.class);
+
+    private static final int DAYS = 31;
+    private static final int EMPLOYEES = 40;
+    private static final int WARM_UP = 200;
+    private static final int ROUNDS = 9;
+    private static final int MONTHS_PER_ROUND = 50;
+    // 30分単位で増減する需要（60分では丸めが発生する）: start, end, seats
+    private static final Object[][] DEMAND = {
+            { LocalTime.of(9, 30), LocalTime.of(13, 30), 2 },
+            { LocalTime.of(13, 0), LocalTime.of(18, 30), 2 },
+            { LocalTime.of(17, 30), LocalTime.of(21, 0), 1 },
+    };
+    private static final int[] SHIFT_MINUTES = { 480, 240 };
+
+    @Test
+    void generateMonthly_15MinuteSlotsStayWithinOneAndHalfTimesOf60() {
+        SlotAxis hourlyAxis = SlotAxis.of(60);
+        SlotAxis quarterAxis = SlotAxis.of(15);
+        long sink = 0;
+        for (int i = 0; i < WARM_UP; i++) {
+            sink += month(hourlyAxis) + month(quarterAxis);
+        }
+
+        long[] hourly = new long[ROUNDS];
+        long[] quarter = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long began = System.nanoTime();
+            for (int m = 0; m < MONTHS_PER_ROUND; m++)
+                sink += month(hourlyAxis);
+            hourly[i] = (System.nanoTime() - began) / MONTHS_PER_ROUND;
+            began = System.nanoTime();
+            for (int m = 0; m < MONTHS_PER_ROUND; m++)
+                sink += month(quarterAxis);
+            quarter[i] = (System.nanoTime() - began) / MONTHS_PER_ROUND;
+        }
+        long hourlyMedian = median(hourly);
+        long quarterMedian = median(quarter);
+        double ratio = quarterMedian / (double) Math.max(1, hourlyMedian);
+        logger.info("slot work per month ({} days, {} employees): 60min={} us, 15min={} us, ratio={} (checksum {})",
+                DAYS, EMPLOYEES, hourlyMedian / 1_000, quarterMedian / 1_000, String.format("%.2f", ratio), sink);
+        assertThat(ratio).isLessThanOrEqualTo(1.5);
+    }
+
+    // The per-slot part of one month: the same steps ScheduleService runs per day once its inputs are loaded
+    private static long month(SlotAxis axis) {
+        int slotCount = axis.slotCount();
+        List<Integer> lengths = Arrays.stream(SHIFT_MINUTES).map(m -> m / axis.granularity()).boxed().toList();
+        long checksum = 0;
+        for (int day = 0; day < DAYS; day++) {
+            int[] required = new int[slotCount];
+            for (Object[] demand : DEMAND) {
+                int seats = (Integer) demand[2] + (day % 7 == 5 ? 1 : 0);
+                for (int t = axis.startIndex((LocalTime) demand[0]); t < axis.endIndex((LocalTime) demand[1]); t++)
+                    required[t] += seats;
+            }
+
+            int[] assigned = new int[slotCount];
+            for (ShiftDecomposer.Piece piece : ShiftDecomposer.decompose(required, 0, slotCount, lengths)) {
+                for (int t = piece.startSlot(); t < piece.endSlot(); t++)
+                    assigned[t] = Math.min(required[t], assigned[t] + piece.count());
+            }
+
+            // Identical slot demands within a day share one flow computation
+            Map<Integer, Integer> coverable = new HashMap<>();
+            for (int t = 0; t < slotCount; t++) {
+                if (required[t] > 0)
+                    checksum += coverable.computeIfAbsent(required[t], GenerationGranularityBenchmarkTest::maxCoverage);
+            }
+
+            checksum += Math.round(DayCoverage.of(axis, required, assigned).coverageRatio() * 1_000);
+        }
+        return checksum;
+    }
+
+    // source -> employee (1) -> demanded skill -> sink (seats), as in the feasibility check
+    private static int maxCoverage(int seats) {
+        int source = 0;
+        int skill = EMPLOYEES + 1;
+        int sink = skill + 1;
+        MaxFlow flow = new MaxFlow(sink + 1);
+        int seatEdge = flow.addEdge(skill, sink, seats);
+        for (int i = 1; i <= EMPLOYEES; i++) {
+            flow.addEdge(source, i, 1);
+            flow.addEdge(i, skill, 1);
+        }
+        flow.solve(source, sink);
+        return flow.flowOn(seatEdge);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
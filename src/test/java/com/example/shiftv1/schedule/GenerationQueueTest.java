@@ -0,0 +1,65 @@
+package com.example.shiftv1.schedule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 生成キュー: 待機中の同一リクエストはまとめ、対話的な要求を先に実行し、満杯なら Retry-After 付きで断る。
+ */
+class GenerationQueueTest {
+
+    @Test
+    void generationQueue_coalescesPendingDuplicatesRunsInteractiveFirstAndRejectsWhenFull() throws Exception {
+        GenerationQueue queue = new GenerationQueue(new SimpleMeterRegistry(), 1, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        try {
+            // 唯一のワーカーを塞いでおく
+            queue.submit(null, GenerationQueue.Priority.BULK, List::of, ids -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            GenerationQueue.RequestKey month = new GenerationQueue.RequestKey("month", LocalDate.of(2031, 4, 1), 1, 60, true);
+            GenerationQueue.RequestKey day = new GenerationQueue.RequestKey("day", LocalDate.of(2031, 4, 2), 1, 60, false);
+            GenerationQueue.Ticket<String> first = queue.submit(month, GenerationQueue.Priority.BULK,
+                    () -> List.of(1L), ids -> { order.add("month"); return "month"; });
+            GenerationQueue.Ticket<String> duplicate = queue.submit(month, GenerationQueue.Priority.BULK,
+                    () -> List.of(2L), ids -> { order.add("duplicate"); return "duplicate"; });
+            GenerationQueue.Ticket<String> interactive = queue.submit(day, GenerationQueue.Priority.INTERACTIVE,
+                    List::of, ids -> { order.add("day"); return "day"; });
+
+            assertThat(duplicate.coalesced()).isTrue();
+            assertThat(duplicate.jobIds()).containsExactly(1L);
+            assertThat(queue.depth()).isEqualTo(2);
+            assertThatThrownBy(() -> queue.submit(null, GenerationQueue.Priority.BULK, List::of, ids -> null))
+                    .isInstanceOf(GenerationQueue.QueueFullException.class)
+                    .satisfies(e -> assertThat(((GenerationQueue.QueueFullException) e).getRetryAfterSeconds()).isPositive());
+
+            release.countDown();
+            assertThat(first.result().get(10, TimeUnit.SECONDS)).isEqualTo("month");
+            assertThat(duplicate.result().get(10, TimeUnit.SECONDS)).isEqualTo("month");
+            assertThat(interactive.result().get(10, TimeUnit.SECONDS)).isEqualTo("day");
+            assertThat(order).containsExactly("day", "month");
+        } finally {
+            release.countDown();
+            queue.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.Shiftv1Application;
+import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.employee.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * グリッド一括保存（/grid/bulk 相当）を同時に投げたときのスループットを、
+ * 従来構成（DELETE ジャーナル・synchronous=FULL・1件ずつコミット）と WAL + 単一ライターのグループコミットで比較するベンチマーク。
+ * 実行: mvn test -Dtest=GridBulkWriteBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GridBulkWriteBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(GridBulkWriteBenchmarkTest.class);
+
+    private static final Path DB = Path.of("target", "grid-bulk-benchmark.db");
+    private static final YearMonth TARGET = YearMonth.of(2032, 7);
+    private static final int CLIENTS = 32;
+    private static final int SAVES_PER_CLIENT = 20;
+
+    @Test
+    void concurrentGridSaves_groupCommitOnWalOutrunsOneCommitPerSave() throws Exception {
+        double before = measure("--shift.db.journal-mode=DELETE", "--shift.db.synchronous=FULL",
+                "--shift.db.group-commit.max-batch=1");
+        double after = measure();
+        logger.info("grid bulk {} clients x {} saves: per-save commit={} saves/s, WAL+group commit={} saves/s (x{})",
+                CLIENTS, SAVES_PER_CLIENT, Math.round(before), Math.round(after), String.format("%.1f", after / before));
+        assertThat(after).isGreaterThan(before);
+    }
+
+    private static double measure(String... overrides) throws Exception {
+        Files.createDirectories(DB.getParent());
+        for (String suffix : List.of("", "-wal", "-shm", "-journal")) {
+            Files.deleteIfExists(Path.of(DB + suffix));
+        }
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:sqlite:" + DB,
+                "--shift.jobs.resume-on-startup=false",
+                "--logging.level.com.example.shiftv1=WARN"));
+        // Command-line arguments, so they win over application.properties
+        args.addAll(List.of(overrides));
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Shiftv1Application.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new))) {
+            ScheduleService scheduleService = context.getBean(ScheduleService.class);
+            List<Employee> employees = context.getBean(EmployeeRepository.class).findAll();
+            // Warm-up
+            save(scheduleService, employees.get(0), TARGET.minusMonths(1).atDay(1));
+
+            long began = System.nanoTime();
+            List<Future<Integer>> results = new ArrayList<>();
+            try (ExecutorService clients = Executors.newFixedThreadPool(CLIENTS)) {
+                for (int c = 0; c < CLIENTS; c++) {
+                    int client = c;
+                    results.add(clients.submit(() -> {
+                        int created = 0;
+                        for (int i = 0; i < SAVES_PER_CLIENT; i++) {
+                            // Every save gets its own employee/day cell, so none conflicts with another
+                            int cell = client * SAVES_PER_CLIENT + i;
+                            Employee employee = employees.get(cell % employees.size());
+                            LocalDate day = TARGET.atDay(1).plusDays(cell / employees.size());
+                            created += save(scheduleService, employee, day);
+                        }
+                        return created;
+                    }));
+                }
+            }
+            long elapsed = System.nanoTime() - began;
+            int created = 0;
+            for (Future<Integer> result : results) {
+                created += result.get();
+            }
+            assertThat(created).isEqualTo(CLIENTS * SAVES_PER_CLIENT);
+            return created / (elapsed / 1e9);
+        }
+    }
+
+    private static int save(ScheduleService scheduleService, Employee employee, LocalDate day) {
+        ScheduleGridBulkRequest.CreatePayload payload = new ScheduleGridBulkRequest.CreatePayload();
+        payload.setEmployeeId(employee.getId());
+        payload.setWorkDate(day);
+        payload.setShiftName("Manual");
+        payload.setStartTime(LocalTime.of(9, 0));
+        payload.setEndTime(LocalTime.of(18, 0));
+        ScheduleGridBulkRequest request = new ScheduleGridBulkRequest();
+        request.setCreate(List.of(payload));
+        return scheduleService.applyGridChanges(request).created();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.shiftv1.schedule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 書き込みのグループコミット: 待っている書き込みは1回のコミットにまとめ、失敗した書き込みだけを切り離し、SQLITE_BUSY は再試行する。
+ * トランザクションマネージャはコミット・ロールバックを数えるだけの実装を使う。
+ */
+class GroupCommitWriterTest {
+
+    @Test
+    void groupCommitWriter_commitsQueuedWritesTogetherIsolatesFailuresAndRetriesBusy() throws Exception {
+        AtomicInteger commits = new AtomicInteger();
+        AtomicInteger rollbacks = new AtomicInteger();
+        PlatformTransactionManager counting = new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+                commits.incrementAndGet();
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+                rollbacks.incrementAndGet();
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GroupCommitWriter writer = new GroupCommitWriter(counting, registry, 32, 3, 1);
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            // ライタースレッドを塞いでいる間に届いた書き込みは1回のコミットにまとまる
+            Future<Object> blocker = callers.submit(() -> writer.write(() -> {
+                busy.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            assertThat(busy.await(10, TimeUnit.SECONDS)).isTrue();
+            List<Future<Integer>> writes = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                int value = i;
+                writes.add(callers.submit(() -> writer.write(() -> value)));
+            }
+            Future<Object> failing = callers.submit(() -> writer.write(() -> {
+                throw new IllegalStateException("invalid edit");
+            }));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (writer.pending() < 5 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(writer.pending()).isEqualTo(5);
+            release.countDown();
+
+            blocker.get(10, TimeUnit.SECONDS);
+            for (int i = 0; i < 4; i++) {
+                assertThat(writes.get(i).get(10, TimeUnit.SECONDS)).isEqualTo(i);
+            }
+            assertThatThrownBy(() -> failing.get(10, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThat(registry.get("shift.db.write.group.size").summary().max()).isEqualTo(5);
+            // blocker + the four good writes again on their own; the shared group and the bad write roll back
+            assertThat(commits).hasValue(5);
+            assertThat(rollbacks).hasValue(2);
+
+            AtomicInteger attempts = new AtomicInteger();
+            assertThat(callers.submit(() -> writer.write(() -> {
+                if (attempts.incrementAndGet() < 3) {
+                    throw new CannotAcquireLockException("[SQLITE_BUSY] The database file is locked");
+                }
+                return "saved";
+            })).get(10, TimeUnit.SECONDS)).isEqualTo("saved");
+            assertThat(attempts).hasValue(3);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            writer.shutdown();
+        }
+    }
+}
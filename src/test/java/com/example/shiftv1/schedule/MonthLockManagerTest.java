@@ -0,0 +1,105 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.employee.EmployeeRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 月単位ロック: 生成中の月へのグリッド編集はすぐに断り、他の月の編集はそのまま通す。
+ * 待ち時間のタイマーは起動時に登録済みのものを使い回す。
+ */
+@SpringBootTest
+@Transactional
+class MonthLockManagerTest {
+
+    private static final YearMonth GENERATING = YearMonth.of(2031, 5);
+
+    @Autowired
+    private MonthLockManager monthLockManager;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void applyGridChanges_waitsOnlyForTheMonthBeingGenerated() throws Exception {
+        Employee employee = employeeRepository.findAll().get(0);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // 別スレッドで 2031年5月の生成中を再現する
+        Thread generation = new Thread(() -> monthLockManager.withGenerationLock(GENERATING,
+                MonthLockManager.Owner.GENERATION, () -> { }, () -> {
+                    locked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                }));
+        generation.start();
+        try {
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(monthLockManager.isLocked(GENERATING)).isTrue();
+
+            assertThatThrownBy(() -> scheduleService.applyGridChanges(gridCreate(employee, GENERATING.atDay(12))))
+                    .isInstanceOf(MonthLockManager.MonthLockedException.class);
+            assertThat(scheduleService.applyGridChanges(gridCreate(employee, LocalDate.of(2031, 6, 12))).created())
+                    .isEqualTo(1);
+        } finally {
+            release.countDown();
+            generation.join(10_000);
+        }
+        assertThat(scheduleService.applyGridChanges(gridCreate(employee, GENERATING.atDay(12))).created())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void waitTimers_areRegisteredUpFrontAndReusedPerAcquisition() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MonthLockManager locks = new MonthLockManager(registry, 1);
+        // One timer per owner and outcome before any lock is taken
+        assertThat(registry.find("shift.locks.month.wait").timers()).hasSize(9);
+        Timer acquired = registry.get("shift.locks.month.wait")
+                .tag("owner", "generation").tag("outcome", "acquired").timer();
+
+        for (int i = 0; i < 3; i++) {
+            locks.withGenerationLock(GENERATING, MonthLockManager.Owner.GENERATION, () -> { }, () -> null);
+        }
+        locks.withEditLock(List.of(GENERATING), () -> null);
+
+        assertThat(acquired.count()).isEqualTo(3);
+        assertThat(registry.get("shift.locks.month.wait")
+                .tag("owner", "grid_edit").tag("outcome", "acquired").timer().count()).isEqualTo(1);
+        assertThat(registry.find("shift.locks.month.wait").timers()).hasSize(9);
+    }
+
+    private static ScheduleGridBulkRequest gridCreate(Employee employee, LocalDate workDate) {
+        ScheduleGridBulkRequest.CreatePayload payload = new ScheduleGridBulkRequest.CreatePayload();
+        payload.setEmployeeId(employee.getId());
+        payload.setWorkDate(workDate);
+        payload.setShiftName("Manual");
+        payload.setStartTime(LocalTime.of(9, 0));
+        payload.setEndTime(LocalTime.of(18, 0));
+        ScheduleGridBulkRequest request = new ScheduleGridBulkRequest();
+        request.setCreate(List.of(payload));
+        return request;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.config.PairingSettings;
+import com.example.shiftv1.config.PairingSettingsRepository;
+import com.example.shiftv1.constraint.EmployeeConstraintRepository;
+import com.example.shiftv1.demand.DemandInterval;
+import com.example.shiftv1.demand.DemandIntervalRepository;
+import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.employee.EmployeeRepository;
+import com.example.shiftv1.skill.Skill;
+import com.example.shiftv1.skill.SkillRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ペアリング設定による需要枠の結合: 生成はコンパイル済みモデルを使い、PairingModelCache.invalidate() までは
+ * 設定の変更を反映しない。
+ */
+@SpringBootTest
+@Transactional
+class PairingModelGenerationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2031, 9, 11);
+    private static final String SHIFT_NAME = "需要枠(ペアスキル)";
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ShiftAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeConstraintRepository constraintRepository;
+
+    @Autowired
+    private DemandIntervalRepository demandRepository;
+
+    @Autowired
+    private SkillRepository skillRepository;
+
+    @Autowired
+    private PairingSettingsRepository pairingSettingsRepository;
+
+    @Autowired
+    private PairingModelCache pairingModelCache;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        constraintRepository.deleteAll();
+    }
+
+    @AfterEach
+    void resetModel() {
+        // The cache outlives the rolled-back transaction
+        pairingModelCache.invalidate();
+    }
+
+    @Test
+    void generateForDateFromDemand_usesPairingModelUntilInvalidated() {
+        Skill skill = skillRepository.save(new Skill("PAIRED", "ペアスキル", null));
+        for (Employee emp : employeeRepository.findAll().subList(0, 2)) {
+            emp.getSkills().add(skill);
+            employeeRepository.save(emp);
+        }
+        saveDemand(skill, LocalTime.of(9, 0), LocalTime.of(13, 0));
+        saveDemand(skill, LocalTime.of(13, 0), LocalTime.of(18, 0));
+        PairingSettings settings = pairingSettingsRepository.findAll().stream().findFirst()
+                .orElseGet(PairingSettings::new);
+        settings.setEnabled(true);
+        settings.setPairToleranceMinutes(0);
+        settings.setFullWindow("09:00-18:00");
+        settings.setMorningWindow("09:00-13:00");
+        settings.setAfternoonWindow("13:00-18:00");
+        settings.setSkillPairings(null);
+        pairingSettingsRepository.save(settings);
+
+        pairingModelCache.invalidate();
+        scheduleService.generateForDateFromDemand(DAY, true);
+        assertThat(shifts()).containsExactly("09:00-18:00");
+
+        // 無効化前はコンパイル済みモデルがそのまま使われ、無効化後に設定変更が反映される
+        settings.setEnabled(false);
+        pairingSettingsRepository.save(settings);
+        scheduleService.generateForDateFromDemand(DAY, true);
+        assertThat(shifts()).containsExactly("09:00-18:00");
+
+        pairingModelCache.invalidate();
+        scheduleService.generateForDateFromDemand(DAY, true);
+        assertThat(shifts()).containsExactlyInAnyOrder("09:00-13:00", "13:00-18:00");
+    }
+
+    private void saveDemand(Skill skill, LocalTime start, LocalTime end) {
+        DemandInterval demand = new DemandInterval(start, end, 1);
+        demand.setDate(DAY);
+        demand.setSkill(skill);
+        demandRepository.save(demand);
+    }
+
+    private List<String> shifts() {
+        return assignmentRepository.findByWorkDate(DAY).stream()
+                .filter(a -> SHIFT_NAME.equals(a.getShiftName()))
+                .map(a -> a.getStartTime() + "-" + a.getEndTime())
+                .toList();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.demand.DemandInterval;
+import com.example.shiftv1.demand.DemandIntervalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ジョブ生成の途中で落ちたとき、コミット済みの単位（日）はチェックポイントごと残り、落ちた単位だけが巻き戻ることを確認する。
+ * 各単位が実際にコミットされるよう、テストトランザクションは使わず、作ったデータは後片付けで消す。
+ */
+@SpringBootTest
+class ScheduleJobCheckpointTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2033, 6);
+    private static final LocalDate FAILING_DAY = MONTH.atDay(5);
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ScheduleJobStatusService jobStatusService;
+
+    @Autowired
+    private ScheduleJobRepository jobRepository;
+
+    @Autowired
+    private ShiftAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private DemandIntervalRepository demandRepository;
+
+    @Autowired
+    private SchedulePurgeService purgeService;
+
+    private final List<DemandInterval> demands = new ArrayList<>();
+    private Long jobId;
+
+    @AfterEach
+    void cleanUp() {
+        purgeService.purge(MONTH.atDay(1), MONTH.atEndOfMonth());
+        demandRepository.deleteAll(demands);
+        if (jobId != null) {
+            jobRepository.deleteById(jobId);
+        }
+    }
+
+    @Test
+    void failureInAUnit_keepsEarlierCommittedDaysAndTheirCheckpoint() {
+        for (LocalDate day = MONTH.atDay(1); !day.isAfter(FAILING_DAY); day = day.plusDays(1)) {
+            DemandInterval demand = new DemandInterval(LocalTime.of(9, 0), LocalTime.of(18, 0), 2);
+            demand.setDate(day);
+            demands.add(demandRepository.save(demand));
+        }
+        jobId = jobStatusService.create(MONTH.getYear(), MONTH.getMonthValue(), 60, true, null).getId();
+        GenerationJobHandle handle = jobStatusService.begin(jobId);
+        // Fail the 5th day's unit after its rows are written, inside its transaction
+        GenerationJobHandle.CheckpointStore store = handle.checkpointStore();
+        AtomicLong writtenBeforeFailure = new AtomicLong();
+        handle.checkpointStore((job, checkpoint) -> {
+            if (checkpoint.lastDay().equals(FAILING_DAY)) {
+                writtenBeforeFailure.set(assignmentRepository.countByWorkDateBetween(FAILING_DAY, FAILING_DAY));
+                throw new IllegalStateException("simulated crash");
+            }
+            store.save(job, checkpoint);
+        });
+
+        assertThatThrownBy(() -> scheduleService.generateMonthlyForJob(handle))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("simulated crash");
+        jobStatusService.fail(handle, "simulated crash");
+
+        // 1〜4日目はコミット済み、5日目は書いた分ごと巻き戻る（それぞれ新しいトランザクションで確認）
+        assertThat(writtenBeforeFailure.get()).isPositive();
+        for (LocalDate day = MONTH.atDay(1); day.isBefore(FAILING_DAY); day = day.plusDays(1)) {
+            assertThat(assignmentRepository.countByWorkDateBetween(day, day)).as("rows on %s", day).isPositive();
+        }
+        assertThat(assignmentRepository.countByWorkDateBetween(FAILING_DAY, MONTH.atEndOfMonth())).isZero();
+        ScheduleJob stored = jobRepository.findById(jobId).orElseThrow();
+        assertThat(stored.getCheckpointDate()).isEqualTo(FAILING_DAY.minusDays(1));
+        assertThat(stored.getDaysCompleted()).isEqualTo(4);
+        assertThat(stored.getPhase()).isEqualTo(ScheduleJob.Phase.FAILED);
+    }
+}
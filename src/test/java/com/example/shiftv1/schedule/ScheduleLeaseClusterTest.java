@@ -0,0 +1,116 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.Shiftv1Application;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 同じ DB ファイルを共有する2つのアプリケーションコンテキストで、月のリースが1ノードにしか渡らないことを確認する。
+ */
+class ScheduleLeaseClusterTest {
+
+    private static final Path DB = Path.of("target", "lease-cluster-test.db");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        Files.createDirectories(DB.getParent());
+        Files.deleteIfExists(DB);
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() throws Exception {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        Files.deleteIfExists(DB);
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId) {
+        // Command-line arguments, so they win over application.properties
+        return new SpringApplicationBuilder(Shiftv1Application.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:sqlite:" + DB,
+                        "--shift.cluster.enabled=true",
+                        "--shift.cluster.node-id=" + nodeId,
+                        "--shift.jobs.lease-seconds=1",
+                        // Heartbeats and sweeps are driven by the test
+                        "--shift.jobs.lease-heartbeat-ms=3600000",
+                        "--shift.jobs.orphan-sweep-ms=3600000",
+                        "--shift.jobs.resume-on-startup=false");
+    }
+
+    @Test
+    void monthLease_isExclusiveAcrossNodesAndReclaimedAfterExpiry() throws Exception {
+        ScheduleLeaseService leasesA = nodeA.getBean(ScheduleLeaseService.class);
+        ScheduleLeaseService leasesB = nodeB.getBean(ScheduleLeaseService.class);
+        ScheduleJobStatusService jobsA = nodeA.getBean(ScheduleJobStatusService.class);
+        ScheduleJobStatusService jobsB = nodeB.getBean(ScheduleJobStatusService.class);
+
+        leasesA.heartbeat();
+        ScheduleJob job = jobsA.create(2031, 8, 60, false, null);
+        // 状態はどちらのノードからも見える
+        assertThat(jobsB.find(job.getId())).get()
+                .satisfies(view -> assertThat(view.nodeId()).isEqualTo("node-a"));
+
+        String key = ScheduleLeaseService.monthKey(2031, 8);
+        AtomicBoolean lostOnA = new AtomicBoolean();
+        assertThat(leasesA.tryAcquire(key, job.getId(), () -> lostOnA.set(true))).isTrue();
+        assertThat(leasesB.tryAcquire(key, 999L, () -> { })).isFalse();
+        assertThat(leasesB.holder(key)).get()
+                .satisfies(lease -> assertThat(lease.getOwner()).isEqualTo("node-a"));
+        assertThat(leasesB.isAlive("node-a")).isTrue();
+
+        // node-a が止まった想定: ハートビートが来ないまま期限を過ぎる
+        Thread.sleep(1500);
+        assertThat(leasesB.isAlive("node-a")).isFalse();
+        assertThat(leasesB.tryAcquire(key, job.getId(), () -> { })).isTrue();
+
+        // 引き継がれたことに node-a も次のハートビートで気づく
+        leasesA.heartbeat();
+        assertThat(lostOnA).isTrue();
+        assertThat(leasesA.tryAcquire(key, job.getId(), () -> { })).isFalse();
+
+        leasesB.release(key);
+        assertThat(leasesA.tryAcquire(key, job.getId(), () -> { })).isTrue();
+        leasesA.release(key);
+    }
+
+    @Test
+    void orphanedJobs_areRecoveredOnlyFromNodesThatStoppedHeartbeating() throws Exception {
+        ScheduleLeaseService leasesA = nodeA.getBean(ScheduleLeaseService.class);
+        ScheduleLeaseService leasesB = nodeB.getBean(ScheduleLeaseService.class);
+        ScheduleJobStatusService jobsA = nodeA.getBean(ScheduleJobStatusService.class);
+        ScheduleJobStatusService jobsB = nodeB.getBean(ScheduleJobStatusService.class);
+
+        leasesA.heartbeat();
+        ScheduleJob job = jobsA.create(2031, 9, 60, false, null);
+        assertThat(jobsB.recoverInterrupted(false, j -> job.getId().equals(j.getId()) && !leasesB.isAlive(j.getNodeId())))
+                .isEmpty();
+        assertThat(jobsB.find(job.getId())).get()
+                .satisfies(view -> assertThat(view.phase()).isEqualTo(ScheduleJob.Phase.QUEUED));
+
+        Thread.sleep(1500);
+        jobsB.recoverInterrupted(false, j -> job.getId().equals(j.getId()) && !leasesB.isAlive(j.getNodeId()));
+        assertThat(jobsA.find(job.getId())).get()
+                .satisfies(view -> assertThat(view.phase()).isEqualTo(ScheduleJob.Phase.FAILED));
+    }
+}
@@ -1,25 +1,59 @@
 package com.example.shiftv1.schedule;
 
+import com.example.shiftv1.breaks.BreakPeriod;
+import com.example.shiftv1.breaks.BreakPeriodRepository;
+import com.example.shiftv1.common.ApiResponse;
 import com.example.shiftv1.config.ShiftConfig;
 import com.example.shiftv1.config.ShiftConfigRepository;
 import com.example.shiftv1.constraint.EmployeeConstraint;
 import com.example.shiftv1.constraint.EmployeeConstraintRepository;
+import com.example.shiftv1.demand.DemandInterval;
+import com.example.shiftv1.demand.DemandIntervalRepository;
 import com.example.shiftv1.employee.Employee;
 import com.example.shiftv1.employee.EmployeeRepository;
+import com.example.shiftv1.exception.BusinessException;
+import com.example.shiftv1.holiday.Holiday;
+import com.example.shiftv1.holiday.HolidayRepository;
+import com.example.shiftv1.skill.Skill;
+import com.example.shiftv1.skill.SkillRepository;
 import com.example.shiftv1.schedule.ScheduleGridBulkRequest;
 import com.example.shiftv1.schedule.ScheduleGridBulkResult;
 import com.example.shiftv1.schedule.ScheduleGridResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -27,6 +61,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -45,11 +80,71 @@ class ScheduleServiceTest {
     private ShiftConfigRepository shiftConfigRepository;
 
     @Autowired
-    private com.example.shiftv1.holiday.HolidayRepository holidayRepository;
+    private HolidayRepository holidayRepository;
 
     @Autowired
     private EmployeeConstraintRepository constraintRepository;
 
+    @Autowired
+    private DemandIntervalRepository demandRepository;
+
+    @Autowired
+    private SkillRepository skillRepository;
+
+    @Autowired
+    private ScheduleJobStatusService jobStatusService;
+
+    @Autowired
+    private ScheduleJobRunner jobRunner;
+
+    @Autowired
+    private MonthLockManager monthLockManager;
+
+    @Autowired
+    private SchedulePurgeService purgeService;
+
+    @Autowired
+    private ScheduleVersions scheduleVersions;
+
+    @Autowired
+    private BreakPeriodRepository breakRepository;
+
+    @Autowired
+    private ShiftReservationRepository reservationRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectProvider<CacheManager> cacheManagerProvider;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ScheduleCsvExporter csvExporter;
+
+    @Autowired
+    private ScheduleGridStreamWriter gridStreamWriter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ScheduleController scheduleController;
+
+    @Autowired
+    private HttpMessageConverters messageConverters;
+
     private final LocalTime DEFAULT_START = LocalTime.of(9, 0);
     private final LocalTime DEFAULT_END = LocalTime.of(18, 0);
 
@@ -222,6 +317,216 @@ class ScheduleServiceTest {
                 .anyMatch(a -> a.workDate().equals(day) && a.employeeId().equals(employee.getId()));
     }
 
+    @Test
+    void gridAndCsvExport_readProjectionsWithoutLoadingAssignmentEntities() {
+        Skill skill = skillRepository.save(new Skill("PROJ", "射影確認スキル", null));
+        Employee employee = employeeRepository.findAll().get(0);
+        employee.getSkills().add(skill);
+        LocalDate day = LocalDate.of(2033, 3, 14);
+        ShiftAssignment assignment = assignmentRepository.save(
+                new ShiftAssignment(day, "Manual", DEFAULT_START, DEFAULT_END, employee));
+        breakRepository.save(new BreakPeriod(assignment, BreakPeriod.BreakType.LUNCH,
+                LocalTime.of(12, 0), LocalTime.of(13, 0)));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ScheduleGridResponse grid = scheduleService.loadGrid(day, day);
+        ScheduleCsvExporter.CsvFile csv = csvExporter.export(YearMonth.from(day));
+
+        assertThat(grid.assignments()).singleElement().satisfies(a -> {
+            assertThat(a.employeeId()).isEqualTo(employee.getId());
+            assertThat(a.breaks()).singleElement()
+                    .satisfies(b -> assertThat(b.start()).isEqualTo(LocalTime.of(12, 0)));
+        });
+        assertThat(csv.rows()).isEqualTo(1);
+        assertThat(new String(csv.data(), java.nio.charset.StandardCharsets.UTF_8)).contains("射影確認スキル");
+        // Rows and breaks arrive as DTOs: nothing for the persistence context to manage or dirty-check
+        assertThat(statistics.getEntityStatistics(ShiftAssignment.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(BreakPeriod.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    void gridStream_writesTheSameDocumentAsTheMaterializedGrid() throws Exception {
+        List<Employee> employees = employeeRepository.findAll().subList(0, 3);
+        LocalDate start = LocalDate.of(2033, 8, 1);
+        for (int d = 0; d < 4; d++) {
+            for (Employee employee : employees) {
+                ShiftAssignment assignment = assignmentRepository.save(new ShiftAssignment(
+                        start.plusDays(d), "Manual", DEFAULT_START, DEFAULT_END, employee));
+                // Some assignments with no break, some with two, to exercise the cursor merge
+                if ((d + employee.getId()) % 3 != 0) {
+                    breakRepository.save(new BreakPeriod(assignment, BreakPeriod.BreakType.LUNCH,
+                            LocalTime.of(12, 0), LocalTime.of(13, 0)));
+                }
+                if ((d + employee.getId()) % 3 == 1) {
+                    breakRepository.save(new BreakPeriod(assignment, BreakPeriod.BreakType.SHORT,
+                            LocalTime.of(15, 0), LocalTime.of(15, 15)));
+                }
+            }
+        }
+        entityManager.flush();
+        LocalDate end = start.plusDays(3);
+
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        gridStreamWriter.write(start, end, out);
+        JsonNode streamed = objectMapper.readTree(out.toByteArray());
+        JsonNode materialized = objectMapper.readTree(objectMapper.writeValueAsBytes(
+                ApiResponse.success(ScheduleGridStreamWriter.MESSAGE, scheduleService.loadGrid(start, end))));
+
+        assertThat(streamed.get("data").get("assignments")).hasSize(12);
+        assertThat(streamed).isEqualTo(materialized);
+    }
+
+    @Test
+    void gridColumnar_decodesToTheObjectGridInAFractionOfTheBytes() throws Exception {
+        List<Employee> employees = employeeRepository.findAll();
+        LocalDate start = LocalDate.of(2033, 9, 1);
+        LocalDate end = start.plusDays(13);
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            for (Employee employee : employees) {
+                boolean off = (day.getDayOfMonth() + employee.getId()) % 7 == 0;
+                ShiftAssignment assignment = new ShiftAssignment(day, off ? "休日" : "Manual",
+                        off ? LocalTime.MIDNIGHT : DEFAULT_START, off ? LocalTime.MIDNIGHT : DEFAULT_END, employee);
+                assignment.setIsOff(off);
+                assignmentRepository.save(assignment);
+                if (!off) {
+                    breakRepository.save(new BreakPeriod(assignment, BreakPeriod.BreakType.LUNCH,
+                            LocalTime.of(12, 0), LocalTime.of(13, 0)));
+                    breakRepository.save(new BreakPeriod(assignment, BreakPeriod.BreakType.SHORT,
+                            LocalTime.of(15, 0), LocalTime.of(15, 15)));
+                }
+            }
+        }
+        entityManager.flush();
+
+        ScheduleGridResponse objects = scheduleService.loadGrid(start, end);
+        ScheduleGridColumnar columnar = scheduleService.loadGridColumnar(start, end);
+
+        ScheduleGridColumnar.Assignments a = columnar.assignments();
+        ScheduleGridColumnar.Breaks b = columnar.breaks();
+        assertThat(a.idDelta()).hasSize(objects.assignments().size());
+        long id = 0;
+        long breakId = 0;
+        int breakIndex = 0;
+        for (int i = 0; i < a.idDelta().length; i++) {
+            ScheduleGridAssignmentDto expected = objects.assignments().get(i);
+            id += a.idDelta()[i];
+            assertThat(id).isEqualTo(expected.id());
+            assertThat(columnar.employees().get(a.employeeIndex()[i]).id()).isEqualTo(expected.employeeId());
+            assertThat(start.plusDays(a.dayIndex()[i])).isEqualTo(expected.workDate());
+            assertThat(LocalTime.MIDNIGHT.plusMinutes(a.startMinute()[i])).isEqualTo(expected.startTime());
+            assertThat(LocalTime.MIDNIGHT.plusMinutes(a.endMinute()[i])).isEqualTo(expected.endTime());
+            assertThat(columnar.labels().get(a.labelId()[i])).isEqualTo(expected.shiftName());
+            assertThat(columnar.kinds().get(a.kind()[i])).isEqualTo(expected.isOff() ? "OFF" : "WORK");
+            assertThat(b.count()[i]).isEqualTo(expected.breaks().size());
+            int cursor = a.startMinute()[i];
+            for (ScheduleGridAssignmentDto.BreakDto expectedBreak : expected.breaks()) {
+                breakId += b.idDelta()[breakIndex];
+                int from = cursor + b.offset()[breakIndex];
+                cursor = from + b.length()[breakIndex];
+                assertThat(breakId).isEqualTo(expectedBreak.id());
+                assertThat(columnar.breakTypes().get(b.type()[breakIndex])).isEqualTo(expectedBreak.type().name());
+                assertThat(LocalTime.MIDNIGHT.plusMinutes(from)).isEqualTo(expectedBreak.start());
+                assertThat(LocalTime.MIDNIGHT.plusMinutes(cursor)).isEqualTo(expectedBreak.end());
+                breakIndex++;
+            }
+        }
+        assertThat(breakIndex).isEqualTo(b.idDelta().length);
+
+        int objectBytes = objectMapper.writeValueAsBytes(objects).length;
+        int columnarBytes = objectMapper.writeValueAsBytes(columnar).length;
+        assertThat(columnarBytes * 5).isLessThan(objectBytes);
+    }
+
+    @Test
+    void gridWindow_pagesEmployeesByKeysetWithFiltersAndTotals() {
+        Skill skill = skillRepository.save(new Skill("WINDOW", "窓確認スキル", null));
+        Integer[] orders = {5, 1, 5, null, 3, 1, 5};
+        Set<Long> skilledIds = new HashSet<>();
+        for (int i = 0; i < orders.length; i++) {
+            Employee employee = new Employee("窓確認" + i, "窓確認ロール");
+            employee.setDisplayOrder(orders[i]);
+            if (i % 2 == 0) {
+                employee.getSkills().add(skill);
+            }
+            employeeRepository.save(employee);
+            if (i % 2 == 0) {
+                skilledIds.add(employee.getId());
+            }
+        }
+        LocalDate day = LocalDate.of(2033, 11, 7);
+        for (Employee employee : employeeRepository.findAll()) {
+            assignmentRepository.save(new ShiftAssignment(day, "Manual", DEFAULT_START, DEFAULT_END, employee));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> expected = employeeRepository.findAllOrdered().stream()
+                .filter(e -> "窓確認ロール".equals(e.getRole()))
+                .map(Employee::getId)
+                .toList();
+
+        List<Long> seen = new ArrayList<>();
+        ScheduleGridWindow.Cursor after = null;
+        int pages = 0;
+        do {
+            ScheduleGridWindow window = scheduleService.loadGridWindow(day, day, after, 3, "窓確認ロール", null);
+            assertThat(window.totalEmployees()).isEqualTo(orders.length);
+            assertThat(window.employees()).hasSizeLessThanOrEqualTo(3);
+            Set<Long> pageIds = window.employees().stream().map(ScheduleGridEmployeeDto::id).collect(Collectors.toSet());
+            assertThat(window.assignments()).hasSize(pageIds.size())
+                    .allMatch(a -> pageIds.contains(a.employeeId()));
+            window.employees().forEach(e -> seen.add(e.id()));
+            after = window.next();
+            pages++;
+        } while (after != null);
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo(3);
+
+        ScheduleGridWindow skilled = scheduleService.loadGridWindow(day, day, null, 10, "窓確認ロール", skill.getId());
+        assertThat(skilled.totalEmployees()).isEqualTo(4);
+        assertThat(skilled.next()).isNull();
+        assertThat(skilled.employees()).extracting(ScheduleGridEmployeeDto::id)
+                .containsExactlyElementsOf(expected.stream().filter(skilledIds::contains).toList());
+
+        assertThatThrownBy(() -> scheduleService.loadGridWindow(day, day, null, 0, null, null))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void cborEncoding_isOnlyChosenWhenAskedForAndMatchesTheJsonDocument() throws Exception {
+        assertThat(ScheduleResponseCache.Encoding.negotiate(null)).isEqualTo(ScheduleResponseCache.Encoding.JSON);
+        assertThat(ScheduleResponseCache.Encoding.negotiate("*/*")).isEqualTo(ScheduleResponseCache.Encoding.JSON);
+        assertThat(ScheduleResponseCache.Encoding.negotiate("application/cbor, */*;q=0.1"))
+                .isEqualTo(ScheduleResponseCache.Encoding.CBOR);
+        assertThat(ScheduleResponseCache.Encoding.negotiate("application/json, application/cbor;q=0.5"))
+                .isEqualTo(ScheduleResponseCache.Encoding.JSON);
+        assertThat(ScheduleResponseCache.Encoding.negotiate("not a media type")).isEqualTo(ScheduleResponseCache.Encoding.JSON);
+
+        // Content negotiation elsewhere (analytics, demand aggregate): JSON stays first for clients accepting anything
+        List<HttpMessageConverter<?>> converters = messageConverters.getConverters();
+        int json = converters.indexOf(converters.stream().filter(MappingJackson2HttpMessageConverter.class::isInstance).findFirst().orElseThrow());
+        MappingJackson2CborHttpMessageConverter cborConverter = converters.stream()
+                .filter(MappingJackson2CborHttpMessageConverter.class::isInstance)
+                .map(MappingJackson2CborHttpMessageConverter.class::cast)
+                .findFirst().orElseThrow();
+        assertThat(json).isLessThan(converters.indexOf(cborConverter));
+
+        Employee employee = employeeRepository.findAll().get(0);
+        LocalDate day = LocalDate.of(2033, 10, 3);
+        assignmentRepository.save(new ShiftAssignment(day, "Manual", DEFAULT_START, DEFAULT_END, employee));
+        var jsonGrid = scheduleController.getGrid(day, day, null, null, "application/json");
+        var cborGrid = scheduleController.getGrid(day, day, null, null, "application/cbor");
+
+        assertThat(cborGrid.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(cborGrid.getHeaders().getETag()).isNotEqualTo(jsonGrid.getHeaders().getETag());
+        assertThat(cborGrid.getHeaders().getVary()).contains("Accept");
+        JsonNode decoded = cborConverter.getObjectMapper().readTree((byte[]) cborGrid.getBody());
+        assertThat(decoded).isEqualTo(objectMapper.readTree((byte[]) jsonGrid.getBody()));
+        assertThat(decoded.get("data").get("startDate").asText()).isEqualTo(day.toString());
+    }
+
     @Test
     void applyGridChanges_supportsCreateUpdateDelete() {
         Employee employee = employeeRepository.findAll().get(0);
@@ -258,4 +563,314 @@ class ScheduleServiceTest {
         assertThat(deleteResult.deleted()).isEqualTo(1);
         assertThat(assignmentRepository.findById(created.getId())).isEmpty();
     }
+
+    @Test
+    void generateMonthlyWarmStart_reusesPreviousMonthAndDropsInvalidSeeds() {
+        List<Employee> employees = employeeRepository.findAll();
+        Employee kept = employees.get(0);
+        Employee blocked = employees.get(1);
+        LocalDate keptDay = LocalDate.of(2031, 3, 4);
+        LocalDate blockedDay = LocalDate.of(2031, 3, 5);
+        for (LocalDate day : List.of(keptDay, blockedDay)) {
+            DemandInterval demand = new DemandInterval(DEFAULT_START, DEFAULT_END, 1);
+            demand.setDate(day);
+            demandRepository.save(demand);
+        }
+        // 前月の同じ曜日（4週前）に割当を用意する
+        assignmentRepository.save(new ShiftAssignment(keptDay.minusWeeks(4), "需要枠(汎用)", DEFAULT_START, DEFAULT_END, kept));
+        assignmentRepository.save(new ShiftAssignment(blockedDay.minusWeeks(4), "需要枠(汎用)", DEFAULT_START, DEFAULT_END, blocked));
+        constraintRepository.save(new EmployeeConstraint(blocked, blockedDay,
+                EmployeeConstraint.ConstraintType.VACATION, "休暇"));
+
+        WarmStartResult result = scheduleService.generateMonthlyWarmStart(2031, 3,
+                WarmStartSource.PREVIOUS_MONTH, null, true);
+
+        assertThat(result.seeded()).isGreaterThanOrEqualTo(1);
+        assertThat(result.dropped()).isGreaterThanOrEqualTo(1);
+        assertThat(assignmentRepository.findByEmployeeAndWorkDate(kept, keptDay))
+                .anyMatch(a -> a.getStartTime().equals(DEFAULT_START) && a.getEndTime().equals(DEFAULT_END));
+        assertThat(assignmentRepository.findByEmployeeAndWorkDate(blocked, blockedDay))
+                .noneMatch(a -> !Boolean.TRUE.equals(a.getIsOff()) && !Boolean.TRUE.equals(a.getIsFree()));
+    }
+
+    @Test
+    void checkFeasibility_reportsSkillWithoutQualifiedEmployees() {
+        Skill rare = skillRepository.save(new Skill("FEAS_RARE", "希少スキル", null));
+        LocalDate day = LocalDate.of(2031, 6, 10);
+        DemandInterval demand = new DemandInterval(DEFAULT_START, DEFAULT_END, 2);
+        demand.setDate(day);
+        demand.setSkill(rare);
+        demandRepository.save(demand);
+
+        FeasibilityReport report = scheduleService.checkFeasibility(2031, 6);
+
+        assertThat(report.feasible()).isFalse();
+        assertThat(report.days())
+                .filteredOn(d -> d.date().equals(day))
+                .singleElement()
+                .satisfies(d -> assertThat(d.slots())
+                        .isNotEmpty()
+                        .allMatch(slot -> rare.getId().equals(slot.skillId()) && slot.coverable() == 0));
+        assertThat(assignmentRepository.countByWorkDateBetween(day, day)).isZero();
+    }
+
+    @Test
+    void checkFeasibility_fanOutOnVirtualThreadsMatchesSequentialReport() {
+        Skill rare = skillRepository.save(new Skill("FEAS_FAN", "並列確認スキル", null));
+        for (LocalDate day = LocalDate.of(2031, 7, 1); day.getMonthValue() == 7; day = day.plusDays(1)) {
+            DemandInterval generic = new DemandInterval(DEFAULT_START, DEFAULT_END, day.getDayOfMonth() % 4 + 1);
+            generic.setDate(day);
+            demandRepository.save(generic);
+            DemandInterval skilled = new DemandInterval(LocalTime.of(13, 0), LocalTime.of(15, 30), 1);
+            skilled.setDate(day);
+            skilled.setSkill(rare);
+            demandRepository.save(skilled);
+        }
+
+        FeasibilityReport sequential = scheduleService.checkFeasibility(2031, 7, 30);
+        ReflectionTestUtils.setField(scheduleService, "virtualThreads", true);
+        FeasibilityReport parallel;
+        try {
+            parallel = scheduleService.checkFeasibility(2031, 7, 30);
+        } finally {
+            ReflectionTestUtils.setField(scheduleService, "virtualThreads", false);
+        }
+
+        assertThat(parallel.feasible()).isEqualTo(sequential.feasible());
+        assertThat(parallel.requiredSeatSlots()).isEqualTo(sequential.requiredSeatSlots());
+        assertThat(parallel.coverableSeatSlots()).isEqualTo(sequential.coverableSeatSlots());
+        assertThat(parallel.days()).isEqualTo(sequential.days()).isNotEmpty();
+        assertThat(parallel.weeks()).isEqualTo(sequential.weeks());
+    }
+
+    @Test
+    void scheduleJob_recordsPerDayProgressAndStopsAtNextDayWhenCancelled() {
+        ScheduleJob finished = jobStatusService.create(2031, 2, 60, true, null);
+        ScheduleJobView done = jobRunner.run(finished.getId());
+        assertThat(done.phase()).isEqualTo(ScheduleJob.Phase.COMPLETED);
+        assertThat(done.daysTotal()).isEqualTo(28);
+        assertThat(done.daysCompleted()).isEqualTo(28);
+        assertThat(done.finishedAt()).isNotNull();
+
+        // キュー中に取り消したジョブは実行されない
+        ScheduleJob queued = jobStatusService.create(2031, 4, 60, true, null);
+        assertThat(jobStatusService.cancel(queued.getId())).get()
+                .extracting(ScheduleJobView::phase).isEqualTo(ScheduleJob.Phase.CANCELLED);
+        assertThat(jobRunner.run(queued.getId()).phase()).isEqualTo(ScheduleJob.Phase.CANCELLED);
+        assertThat(assignmentRepository.countByWorkDateBetween(LocalDate.of(2031, 4, 1), LocalDate.of(2031, 4, 30))).isZero();
+
+        // 実行中のジョブは次の日の境界で止まる
+        ScheduleJob running = jobStatusService.create(2031, 5, 60, true, null);
+        GenerationJobHandle handle = jobStatusService.begin(running.getId());
+        assertThat(jobStatusService.cancel(running.getId())).get()
+                .extracting(ScheduleJobView::cancelRequested).isEqualTo(true);
+        assertThatThrownBy(() -> scheduleService.generateMonthlyForJob(handle))
+                .isInstanceOf(GenerationCancelledException.class);
+        ScheduleJobView stopped = jobStatusService.cancelled(handle, "取消");
+        assertThat(stopped.phase()).isEqualTo(ScheduleJob.Phase.CANCELLED);
+        assertThat(stopped.daysCompleted()).isZero();
+        assertThat(jobStatusService.list(2031, 5, 10)).extracting(ScheduleJobView::id).containsExactly(running.getId());
+    }
+
+    @Test
+    void scheduleJob_publishesEachFinishedDayWithCoverage() {
+        LocalDate day = LocalDate.of(2031, 2, 12);
+        DemandInterval demand = new DemandInterval(DEFAULT_START, DEFAULT_END, 1);
+        demand.setDate(day);
+        demandRepository.save(demand);
+        ScheduleJob job = jobStatusService.create(2031, 2, 60, true, null);
+        GenerationJobHandle handle = jobStatusService.begin(job.getId());
+        Map<LocalDate, DayCoverage> coverageByDay = new LinkedHashMap<>();
+        Map<LocalDate, Integer> createdByDay = new HashMap<>();
+        handle.dayListener((h, d, created, coverage) -> {
+            coverageByDay.put(d, coverage);
+            createdByDay.put(d, created.size());
+        });
+
+        scheduleService.generateMonthlyForJob(handle);
+
+        assertThat(coverageByDay).hasSize(28);
+        assertThat(coverageByDay.keySet()).first().isEqualTo(LocalDate.of(2031, 2, 1));
+        DayCoverage target = coverageByDay.get(day);
+        assertThat(target.demandSeatSlots()).isGreaterThanOrEqualTo(9);
+        assertThat(target.coveredSeatSlots()).isPositive().isLessThanOrEqualTo(target.demandSeatSlots());
+        assertThat(createdByDay.get(day)).isGreaterThanOrEqualTo(1);
+        jobStatusService.complete(handle);
+    }
+
+    @Test
+    void scheduleJob_resumesAfterLastCheckpointedDay() {
+        ScheduleJob job = jobStatusService.create(2031, 2, 60, true, null);
+        GenerationJobHandle first = jobStatusService.begin(job.getId());
+        // 10日目が終わったところで取り消す
+        first.dayListener((h, d, created, coverage) -> {
+            if (d.getDayOfMonth() == 10) {
+                h.requestCancel();
+            }
+        });
+        assertThatThrownBy(() -> scheduleService.generateMonthlyForJob(first))
+                .isInstanceOf(GenerationCancelledException.class);
+        ScheduleJobView stopped = jobStatusService.cancelled(first, "取消");
+        assertThat(stopped.checkpointDate()).isEqualTo(LocalDate.of(2031, 2, 10));
+        assertThat(stopped.daysCompleted()).isEqualTo(10);
+
+        assertThat(jobStatusService.requeue(job.getId())).isPresent();
+        GenerationJobHandle second = jobStatusService.begin(job.getId());
+        List<LocalDate> resumedDays = new ArrayList<>();
+        second.dayListener((h, d, created, coverage) -> resumedDays.add(d));
+        scheduleService.generateMonthlyForJob(second);
+        ScheduleJobView done = jobStatusService.complete(second);
+
+        assertThat(resumedDays).first().isEqualTo(LocalDate.of(2031, 2, 11));
+        assertThat(resumedDays).hasSize(18);
+        assertThat(done.phase()).isEqualTo(ScheduleJob.Phase.COMPLETED);
+        assertThat(done.daysCompleted()).isEqualTo(28);
+        assertThat(done.checkpointDate()).isEqualTo(LocalDate.of(2031, 2, 28));
+    }
+
+    @Test
+    void scheduleBatch_runsMonthsInOrderAndAggregatesProgress() {
+        List<ScheduleJob> jobs = jobStatusService.createBatch(YearMonth.of(2031, 2), 2, 60, true, null);
+        List<Long> jobIds = jobs.stream().map(ScheduleJob::getId).toList();
+
+        List<ScheduleJobView> results = jobRunner.runBatch(jobIds);
+
+        assertThat(results).extracting(ScheduleJobView::month).containsExactly(2, 3);
+        assertThat(results).allSatisfy(r -> assertThat(r.phase()).isEqualTo(ScheduleJob.Phase.COMPLETED));
+        ScheduleBatchView batch = jobStatusService.batch(jobs.get(0).getBatchId()).orElseThrow();
+        assertThat(batch.phase()).isEqualTo(ScheduleJob.Phase.COMPLETED);
+        assertThat(batch.monthsCompleted()).isEqualTo(2);
+        assertThat(batch.daysTotal()).isEqualTo(59);
+        assertThat(batch.daysCompleted()).isEqualTo(59);
+    }
+
+    @Test
+    void purge_deletesBreaksAndAssignmentsSetBasedInChunksResetsReservationsAndEvictsCaches() {
+        Employee employee = employeeRepository.findAll().get(0);
+        LocalDate from = LocalDate.of(2032, 1, 30);
+        LocalDate to = LocalDate.of(2032, 2, 1);
+        LocalDate outside = to.plusDays(1);
+        for (LocalDate day = from; !day.isAfter(outside); day = day.plusDays(1)) {
+            ShiftAssignment assignment = assignmentRepository.save(
+                    new ShiftAssignment(day, "Manual", DEFAULT_START, DEFAULT_END, employee));
+            breakRepository.save(new BreakPeriod(assignment, BreakPeriod.BreakType.LUNCH,
+                    LocalTime.of(12, 0), LocalTime.of(13, 0)));
+        }
+        ShiftAssignment withShortBreak = assignmentRepository.findByEmployeeAndWorkDate(employee, from.plusDays(1)).get(0);
+        breakRepository.save(new BreakPeriod(withShortBreak, BreakPeriod.BreakType.SHORT,
+                LocalTime.of(15, 0), LocalTime.of(15, 10)));
+        ShiftReservation applied = reservation(employee, from.plusDays(1), ShiftReservation.Status.APPLIED);
+        ShiftReservation pending = reservation(employee, from, ShiftReservation.Status.PENDING);
+        ShiftReservation appliedOutside = reservation(employee, outside, ShiftReservation.Status.APPLIED);
+        cacheManager.getCache("monthly-schedules").put("2032-01", "stale");
+
+        SchedulePurgeService chunked = new SchedulePurgeService(breakRepository, assignmentRepository,
+                reservationRepository, monthLockManager, scheduleVersions, entityManager, cacheManagerProvider,
+                transactionManager, 2);
+        SchedulePurgeService.PurgeResult result = chunked.purge(from, to);
+
+        // 呼び出し側のセッションは消さない: 削除・更新した行だけを切り離す
+        assertThat(entityManager.contains(employee)).isTrue();
+        assertThat(entityManager.contains(appliedOutside)).isTrue();
+        assertThat(entityManager.contains(withShortBreak)).isFalse();
+        assertThat(entityManager.contains(applied)).isFalse();
+
+        assertThat(result.assignments()).isEqualTo(3);
+        assertThat(result.breaks()).isEqualTo(4);
+        assertThat(result.reservationsReset()).isEqualTo(1);
+        assertThat(result.chunks()).isEqualTo(2);
+        assertThat(assignmentRepository.countByWorkDateBetween(from, to)).isZero();
+        assertThat(breakRepository.findByAssignmentWorkDateBetween(from, to)).isEmpty();
+        assertThat(breakRepository.findByAssignmentWorkDateBetween(outside, outside)).hasSize(1);
+        assertThat(reservationRepository.findById(applied.getId()).orElseThrow().getStatus())
+                .isEqualTo(ShiftReservation.Status.PENDING);
+        assertThat(reservationRepository.findById(pending.getId()).orElseThrow().getStatus())
+                .isEqualTo(ShiftReservation.Status.PENDING);
+        assertThat(reservationRepository.findById(appliedOutside.getId()).orElseThrow().getStatus())
+                .isEqualTo(ShiftReservation.Status.APPLIED);
+        assertThat(cacheManager.getCache("monthly-schedules").get("2032-01")).isNull();
+
+        // 単日リセット（/reset/day）も休憩ごと削除する
+        SchedulePurgeService.PurgeResult day = purgeService.purge(outside, outside);
+        assertThat(day.assignments()).isEqualTo(1);
+        assertThat(day.breaks()).isEqualTo(1);
+        assertThat(breakRepository.findByAssignmentWorkDateBetween(outside, outside)).isEmpty();
+        assertThatThrownBy(() -> purgeService.purge(to, from)).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void masterDataCaches_areBoundedCountHitsAndAreEvictedByWrites() {
+        CaffeineCache skills = (CaffeineCache) cacheManager.getCache("skills");
+        assertThat(skills.getNativeCache().policy().eviction()).get()
+                .satisfies(eviction -> assertThat(eviction.getMaximum()).isEqualTo(10));
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "skills").meters()).isNotEmpty();
+
+        List<Skill> first = skillRepository.findAllCached();
+        long hits = skills.getNativeCache().stats().hitCount();
+        assertThat(skillRepository.findAllCached()).isSameAs(first);
+        assertThat(skills.getNativeCache().stats().hitCount()).isEqualTo(hits + 1);
+
+        // 従業員一覧は共有しない: 呼び出しごとに別のリストで、追加もすぐ見える
+        assertThat(employeeRepository.findAllOrdered()).isNotSameAs(employeeRepository.findAllOrdered());
+        Employee added = employeeRepository.save(new Employee("キャッシュ確認", null));
+        assertThat(employeeRepository.findAllOrdered()).extracting(Employee::getId).contains(added.getId());
+
+        // スキル追加・スキル付与（コレクション変更）どちらでもキャッシュが消える
+        Skill skill = skillRepository.saveAndFlush(new Skill("CACHE_EV", "キャッシュ確認スキル", null));
+        assertThat(skills.get("all")).isNull();
+        Cache rules = cacheManager.getCache("employee-rules");
+        rules.put("by-employee", Map.of());
+        added.getSkills().add(skill);
+        employeeRepository.saveAndFlush(added);
+        assertThat(rules.get("by-employee")).isNull();
+        assertThat(skillRepository.findAllCached()).extracting(Skill::getCode).contains("CACHE_EV");
+
+        LocalDate day = LocalDate.of(2032, 3, 3);
+        assertThat(holidayRepository.existsByDate(day)).isFalse();
+        holidayRepository.save(new Holiday(day, "キャッシュ確認"));
+        assertThat(holidayRepository.existsByDate(day)).isTrue();
+        assertThat(holidayRepository.findDatesBetween(day, day)).containsExactly(day);
+    }
+
+    @Test
+    void secondLevelCache_servesEmployeesAndSkillsWithoutQueriesUntilWritten() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Long anyId = employeeRepository.findAll().get(0).getId();
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        // Separate read-only transactions: the second-level cache is what carries data from one to the next
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        read.setReadOnly(true);
+        Runnable loadAll = () -> read.executeWithoutResult(tx -> employeeRepository.findAllCacheable()
+                .forEach(employee -> employee.getSkills().size()));
+
+        loadAll.run();
+        assertThat(statistics.getQueryCachePutCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCachePutCount()).isPositive();
+        long statements = statistics.getPrepareStatementCount();
+
+        loadAll.run();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        // Lazy loads of a single employee's skills are served from the collection region
+        read.executeWithoutResult(tx -> employeeRepository.findById(anyId).orElseThrow().getSkills().size());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getDomainDataRegionStatistics("employee-skills").getHitCount()).isPositive();
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tag("region", "employee-skills").tag("result", "hit").meters()).isNotEmpty();
+
+        // A flushed write invalidates the cached query right away, before the transaction even ends
+        employeeRepository.saveAndFlush(new Employee("二次キャッシュ確認", null));
+        loadAll.run();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(statements);
+    }
+
+    private ShiftReservation reservation(Employee employee, LocalDate day, ShiftReservation.Status status) {
+        ShiftReservation reservation = new ShiftReservation(employee, null, day, DEFAULT_START, DEFAULT_END, "予約");
+        reservation.setStatus(status);
+        return reservationRepository.save(reservation);
+    }
 }
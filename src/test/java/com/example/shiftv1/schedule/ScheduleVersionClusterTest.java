@@ -0,0 +1,138 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.Shiftv1Application;
+import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.employee.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 同じ DB ファイルを共有する2つのアプリケーションコンテキストで、月次スナップショット・グリッドの ETag が
+ * コミット済みの書き込み（どちらのノードからでも）でだけ変わり、変わらなければ 304 になることを確認する。
+ * 二次キャッシュはノードごとに別で、他のコンテキストを閉じても影響しない。
+ */
+class ScheduleVersionClusterTest {
+
+    private static final Path DB = Path.of("target", "schedule-version-test.db");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        Files.createDirectories(DB.getParent());
+        Files.deleteIfExists(DB);
+        nodeA = start();
+        nodeB = start();
+    }
+
+    @AfterAll
+    static void stopNodes() throws Exception {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        Files.deleteIfExists(DB);
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(Shiftv1Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:sqlite:" + DB, "--shift.jobs.resume-on-startup=false");
+    }
+
+    @Test
+    void etags_changeOnlyWithCommittedWritesToTheirMonthOnAnyNode() throws Exception {
+        ScheduleController controllerA = nodeA.getBean(ScheduleController.class);
+        ScheduleController controllerB = nodeB.getBean(ScheduleController.class);
+        ScheduleService serviceA = nodeA.getBean(ScheduleService.class);
+        Employee employee = nodeA.getBean(EmployeeRepository.class).findAll().get(0);
+        LocalDate day = LocalDate.of(2031, 9, 3);
+
+        ResponseEntity<?> first = controllerA.getMonthlySnapshot(2031, 9, null);
+        String etag = first.getHeaders().getETag();
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(etag).startsWith("\"snapshot:2031-09@");
+        assertThat(controllerA.getMonthlySnapshot(2031, 9, etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        // 同じ版数は同じ内容: 別ノードでも 304
+        assertThat(controllerB.getMonthlySnapshot(2031, 9, "W/" + etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        ResponseEntity<?> grid = controllerB.getGrid(day, day.plusDays(6), null, null, null);
+        String gridEtag = grid.getHeaders().getETag();
+
+        serviceA.applyGridChanges(create(employee, day));
+        ResponseEntity<?> changed = controllerB.getMonthlySnapshot(2031, 9, etag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(new ObjectMapper().readTree((byte[]) changed.getBody()).at("/meta/count").asInt()).isEqualTo(1);
+        assertThat(controllerB.getGrid(day, day.plusDays(6), null, gridEtag, null).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // 他の月の書き込みは影響しない
+        etag = changed.getHeaders().getETag();
+        gridEtag = controllerB.getGrid(day, day.plusDays(6), null, null, null).getHeaders().getETag();
+        serviceA.applyGridChanges(create(employee, day.plusMonths(1)));
+        assertThat(controllerB.getMonthlySnapshot(2031, 9, etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(controllerB.getGrid(day, day.plusDays(6), null, gridEtag, null).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        // 従業員名はスナップショットにもグリッドにも載る
+        employee.setName(employee.getName() + "（改）");
+        nodeA.getBean(EmployeeRepository.class).save(employee);
+        assertThat(controllerB.getGrid(day, day.plusDays(6), null, gridEtag, null).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // 一括削除はエンティティのイベントを通らないが、版数は進む
+        etag = controllerB.getMonthlySnapshot(2031, 9, null).getHeaders().getETag();
+        nodeA.getBean(SchedulePurgeService.class).purge(day, day);
+        ResponseEntity<?> purged = controllerB.getMonthlySnapshot(2031, 9, etag);
+        assertThat(purged.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(new ObjectMapper().readTree((byte[]) purged.getBody()).at("/meta/count").asInt()).isZero();
+    }
+
+    @Test
+    void secondLevelCache_isPrivateToEachNodeAndOutlivesOtherContexts() {
+        SessionFactory factoryA = nodeA.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class);
+        SessionFactory factoryB = nodeB.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class);
+        EmployeeRepository employeesA = nodeA.getBean(EmployeeRepository.class);
+        Long id = employeesA.findAll().get(0).getId();
+        factoryA.getCache().evictAllRegions();
+        factoryB.getCache().evictAllRegions();
+
+        employeesA.findById(id).orElseThrow();
+        assertThat(factoryA.getCache().containsEntity(Employee.class, id)).isTrue();
+        assertThat(factoryB.getCache().containsEntity(Employee.class, id)).isFalse();
+
+        // Closing another context in the same JVM leaves this node's cache open
+        start().close();
+        employeesA.findById(id).orElseThrow();
+        assertThat(factoryA.getCache().containsEntity(Employee.class, id)).isTrue();
+    }
+
+    private static ScheduleGridBulkRequest create(Employee employee, LocalDate day) {
+        ScheduleGridBulkRequest.CreatePayload payload = new ScheduleGridBulkRequest.CreatePayload();
+        payload.setEmployeeId(employee.getId());
+        payload.setWorkDate(day);
+        payload.setShiftName("Manual");
+        payload.setStartTime(LocalTime.of(9, 0));
+        payload.setEndTime(LocalTime.of(18, 0));
+        ScheduleGridBulkRequest request = new ScheduleGridBulkRequest();
+        request.setCreate(List.of(payload));
+        return request;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 重い読み取りのまとめ役: 同じキー（パラメータと版数）の同時リクエストは1回の計算を共有し、
+ * TTL の間は結果を使い回し、版数が変われば計算し直す。
+ */
+@SpringBootTest
+@Transactional
+class SingleFlightTest {
+
+    private static final List<String> SCOPES = List.of(ScheduleVersions.scope(YearMonth.of(2032, 4)));
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private ScheduleVersions scheduleVersions;
+
+    @Test
+    void singleFlight_sharesOneComputationPerKeyAndVersion() throws Exception {
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Object> slow = () -> {
+            computations.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Object();
+        };
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<Object>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> singleFlight.get("test", "2032-04", SCOPES, slow)));
+            }
+            Thread.sleep(300);
+            release.countDown();
+            Object first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+            }
+            assertThat(computations).hasValue(1);
+            // Within the TTL the result is reused; other parameters or a new version compute again
+            assertThat(singleFlight.get("test", "2032-04", SCOPES, slow)).isSameAs(first);
+            assertThat(singleFlight.get("test", "2032-05", SCOPES, slow)).isNotSameAs(first);
+            scheduleVersions.bump(SCOPES);
+            assertThat(singleFlight.get("test", "2032-04", SCOPES, slow)).isNotSameAs(first);
+            assertThat(computations).hasValue(3);
+        } finally {
+            callers.shutdownNow();
+        }
+        // The computation's own exception reaches the caller
+        assertThatThrownBy(() -> singleFlight.get("test", "failing", SCOPES, () -> {
+            throw new BusinessException("TEST", "失敗");
+        })).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void singleFlight_computationMayReadOtherKeys() {
+        // Nested reads run outside any cache lock, whichever bins the keys land in
+        Object outer = singleFlight.get("test", "outer", SCOPES, () -> {
+            List<Object> inner = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String params = "inner-" + i;
+                inner.add(singleFlight.get("test", params, SCOPES, () -> params));
+            }
+            return inner;
+        });
+        assertThat(outer).asList().hasSize(64).startsWith("inner-0");
+    }
+
+    @Test
+    void singleFlight_slowKeyDoesNotBlockOtherKeys() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> slow = callers.submit(() -> singleFlight.get("test", "slow", SCOPES, () -> {
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slow";
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            // Other keys return while the slow computation is still running
+            Future<Integer> others = callers.submit(() -> {
+                int done = 0;
+                for (int i = 0; i < 64; i++) {
+                    String params = "other-" + i;
+                    if (params.equals(singleFlight.get("test", params, SCOPES, () -> params))) {
+                        done++;
+                    }
+                }
+                return done;
+            });
+            assertThat(others.get(5, TimeUnit.SECONDS)).isEqualTo(64);
+            assertThat(slow.isDone()).isFalse();
+            release.countDown();
+            assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+}
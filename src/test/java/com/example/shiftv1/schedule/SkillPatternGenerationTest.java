@@ -0,0 +1,113 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.constraint.EmployeeConstraintRepository;
+import com.example.shiftv1.demand.DemandInterval;
+import com.example.shiftv1.demand.DemandIntervalRepository;
+import com.example.shiftv1.employee.Employee;
+import com.example.shiftv1.employee.EmployeeRepository;
+import com.example.shiftv1.skill.Skill;
+import com.example.shiftv1.skill.SkillPattern;
+import com.example.shiftv1.skill.SkillPatternRepository;
+import com.example.shiftv1.skill.SkillRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * shift.demand.mode=patterns での需要生成: スキルごとの需要曲線を SkillPattern の許容シフト長に分解する。
+ * 60分スロットと30分スロットの両方を確認する。
+ */
+@SpringBootTest(properties = {
+        "shift.demand.mode=patterns",
+        "spring.datasource.url=jdbc:sqlite:target/skill-pattern-test.db",
+        "shift.jobs.resume-on-startup=false"})
+@Transactional
+class SkillPatternGenerationTest {
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ShiftAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeConstraintRepository constraintRepository;
+
+    @Autowired
+    private DemandIntervalRepository demandRepository;
+
+    @Autowired
+    private SkillRepository skillRepository;
+
+    @Autowired
+    private SkillPatternRepository skillPatternRepository;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        constraintRepository.deleteAll();
+    }
+
+    @Test
+    void generateForDateFromDemand_decomposesDemandCurveIntoPatternLengths() {
+        Skill skill = skillWithPattern("DECOMP", "分解スキル", "6,4", 3);
+        LocalDate day = LocalDate.of(2031, 9, 9);
+        saveDemand(day, skill, LocalTime.of(9, 0), LocalTime.of(18, 0));
+
+        scheduleService.generateForDateFromDemand(day, true);
+
+        // 9時間の需要は 6h + 4h に分解され、はみ出しは営業時間内の1時間に収まる
+        assertThat(shiftsOf(day, "需要枠(分解スキル)")).containsExactlyInAnyOrder("09:00-15:00", "14:00-18:00");
+    }
+
+    @Test
+    void generateForDateFromDemand_halfHourSlotsKeepHalfHourShiftEdges() {
+        Skill skill = skillWithPattern("HALF", "半時間スキル", "6", 1);
+        LocalDate day = LocalDate.of(2031, 9, 10);
+        saveDemand(day, skill, LocalTime.of(9, 30), LocalTime.of(15, 30));
+
+        scheduleService.generateForDateFromDemand(day, true, 30);
+
+        // 30分スロットでは 09:30-15:30 の需要がそのまま6時間シフト1本になる（60分では丸めで2本必要）
+        assertThat(shiftsOf(day, "需要枠(半時間スキル)")).containsExactly("09:30-15:30");
+    }
+
+    // A skill with one pattern, given to the first `holders` employees
+    private Skill skillWithPattern(String code, String name, String lengthsCsv, int holders) {
+        Skill skill = skillRepository.save(new Skill(code, name, null));
+        SkillPattern pattern = new SkillPattern();
+        pattern.setSkill(skill);
+        pattern.setAllowedLengthsCsv(lengthsCsv);
+        skillPatternRepository.save(pattern);
+        for (Employee emp : employeeRepository.findAll().subList(0, holders)) {
+            emp.getSkills().add(skill);
+            employeeRepository.save(emp);
+        }
+        return skill;
+    }
+
+    private void saveDemand(LocalDate day, Skill skill, LocalTime start, LocalTime end) {
+        DemandInterval demand = new DemandInterval(start, end, 1);
+        demand.setDate(day);
+        demand.setSkill(skill);
+        demandRepository.save(demand);
+    }
+
+    private List<String> shiftsOf(LocalDate day, String shiftName) {
+        return assignmentRepository.findByWorkDate(day).stream()
+                .filter(a -> shiftName.equals(a.getShiftName()))
+                .map(a -> a.getStartTime() + "-" + a.getEndTime())
+                .toList();
+    }
+}
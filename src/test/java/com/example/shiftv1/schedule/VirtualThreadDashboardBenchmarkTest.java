@@ -0,0 +1,184 @@
+package com.example.shiftv1.schedule;
+
+import com.example.shiftv1.Shiftv1Application;
+import com.example.shiftv1.demand.DemandInterval;
+import com.example.shiftv1.demand.DemandIntervalRepository;
+import com.example.shiftv1.shiftchange.ShiftChangeDataInitializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ダッシュボードの API（月次スナップショット・月次統計）を 200 ユーザーが同時に叩いたときのレイテンシを、
+ * プラットフォームスレッドと仮想スレッド（spring.threads.virtual.enabled）で比較するベンチマーク。
+ * 実行: mvn test -Dtest=VirtualThreadDashboardBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadDashboardBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadDashboardBenchmarkTest.class);
+
+    private static final Path DB = Path.of("target", "dashboard-benchmark.db");
+    private static final YearMonth TARGET = YearMonth.of(2032, 5);
+    private static final int USERS = 200;
+    private static final int REQUESTS_PER_USER = 10;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        Files.createDirectories(DB.getParent());
+        Files.deleteIfExists(DB);
+        try (ConfigurableApplicationContext context = start(false)) {
+            DemandIntervalRepository demandRepository = context.getBean(DemandIntervalRepository.class);
+            for (LocalDate day = TARGET.atDay(1); !day.isAfter(TARGET.atEndOfMonth()); day = day.plusDays(1)) {
+                saveDemand(demandRepository, day, LocalTime.of(9, 0), LocalTime.of(13, 0), 2);
+                saveDemand(demandRepository, day, LocalTime.of(13, 0), LocalTime.of(18, 0), 2);
+            }
+            context.getBean(ScheduleService.class)
+                    .generateMonthlyFromDemand(TARGET.getYear(), TARGET.getMonthValue(), 60, true);
+            // Sample change requests need the assignments above; seed them in a session so restarts skip it
+            ShiftChangeDataInitializer changeData = context.getBean(ShiftChangeDataInitializer.class);
+            context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+                try {
+                    changeData.run();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+
+    @AfterAll
+    static void cleanUp() throws Exception {
+        Files.deleteIfExists(DB);
+    }
+
+    @Test
+    void dashboardLatency_platformVersusVirtualThreads() throws Exception {
+        Result platform = measure(false);
+        Result virtual = measure(true);
+        logger.info("dashboard {} users x {} requests: platform {}; virtual {}",
+                USERS, REQUESTS_PER_USER * 2, platform, virtual);
+        assertThat(platform.failures).isZero();
+        assertThat(virtual.failures).isZero();
+    }
+
+    private static Result measure(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = start(virtualThreads)) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            String base = "http://localhost:" + port;
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .cookieHandler(new CookieManager())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin123\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(login.statusCode()).isEqualTo(200);
+
+            String query = "?year=" + TARGET.getYear() + "&month=" + TARGET.getMonthValue();
+            List<URI> uris = List.of(URI.create(base + "/api/schedule" + query),
+                    URI.create(base + "/api/schedule/stats/monthly" + query));
+            // Warm-up (JIT, connection pool, Hibernate metadata)
+            runUsers(client, uris, 20, 5);
+            return runUsers(client, uris, USERS, REQUESTS_PER_USER);
+        }
+    }
+
+    private static Result runUsers(HttpClient client, List<URI> uris, int users, int requestsPerUser) throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<long[]>> futures = new ArrayList<>(users);
+        long began = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < users; u++) {
+                futures.add(clients.submit(() -> {
+                    long[] latencies = new long[requestsPerUser * uris.size()];
+                    int n = 0;
+                    for (int r = 0; r < requestsPerUser; r++) {
+                        for (URI uri : uris) {
+                            long start = System.nanoTime();
+                            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            latencies[n++] = System.nanoTime() - start;
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - began;
+        long[] all = new long[0];
+        for (Future<long[]> future : futures) {
+            long[] part = future.get();
+            long[] merged = Arrays.copyOf(all, all.length + part.length);
+            System.arraycopy(part, 0, merged, all.length, part.length);
+            all = merged;
+        }
+        Arrays.sort(all);
+        return new Result(all, elapsed, failures.get());
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        SpringApplication application = new SpringApplicationBuilder(Shiftv1Application.class).build();
+        // Command-line arguments, so they win over application.properties
+        return application.run(
+                "--spring.datasource.url=jdbc:sqlite:" + DB,
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--shift.jobs.resume-on-startup=false",
+                "--logging.level.com.example.shiftv1=WARN");
+    }
+
+    private static void saveDemand(DemandIntervalRepository repository, LocalDate day, LocalTime start,
+                                   LocalTime end, int seats) {
+        DemandInterval demand = new DemandInterval(start, end, seats);
+        demand.setDate(day);
+        repository.save(demand);
+    }
+
+    private record Result(long[] sortedNanos, long elapsedNanos, int failures) {
+        long percentileMillis(double p) {
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(0, index)] / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("p50=%d ms, p95=%d ms, p99=%d ms, max=%d ms, %.0f req/s, failures=%d",
+                    percentileMillis(0.50), percentileMillis(0.95), percentileMillis(0.99),
+                    sortedNanos[sortedNanos.length - 1] / 1_000_000,
+                    sortedNanos.length / (elapsedNanos / 1e9), failures);
+        }
+    }
+}